@@ -0,0 +1,92 @@
+package org.currency.exchange.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.currency.exchange.dao.CurrencyDAO;
+import org.currency.exchange.util.DatabaseUtil;
+
+/**
+ * Seeds a throwaway SQLite file for benchmarks.
+ * <p>
+ * Must run before anything touches {@link DatabaseUtil}, since the pool reads {@code db.url} once.
+ * JMH forks a fresh JVM per benchmark and parameter set, so every fork gets its own file.
+ */
+final class BenchmarkDatabase {
+    /**
+     * Each currency gets a direct rate to this many following currencies
+     */
+    static final int RATES_PER_CURRENCY = 10;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Creates the schema with {@code currencies} currencies and up to
+     * {@code currencies * RATES_PER_CURRENCY} rates, then loads the currency registry
+     *
+     * @return generated currency codes, the four default ones first
+     */
+    static List<String> seed(int currencies) throws IOException, SQLException {
+        File file = File.createTempFile("exchange-bench-", ".db");
+        file.deleteOnExit();
+        System.setProperty("db.url", "jdbc:sqlite:" + file.getAbsolutePath());
+
+        DatabaseUtil.initializeDatabase();
+        List<String> codes = new ArrayList<>(List.of("USD", "EUR", "RUR", "GBP"));
+        for (int i = 0; codes.size() < currencies; i++) {
+            String code = code(i);
+            if (!codes.contains(code)) {
+                codes.add(code);
+            }
+        }
+
+        try (Connection conn = DatabaseUtil.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "insert into currencies (code, fullName, sign) values (?, ?, ?)")) {
+                for (String code : codes.subList(4, codes.size())) {
+                    ps.setString(1, code);
+                    ps.setString(2, "Currency " + code);
+                    ps.setString(3, code.substring(0, 1));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "insert or ignore into exchangeRates (base_currency_id, target_currency_id, rate) values " +
+                            "((select id from currencies where code = ?), (select id from currencies where code = ?), ?)")) {
+                for (int i = 0; i < codes.size(); i++) {
+                    for (int step = 1; step <= RATES_PER_CURRENCY && step < codes.size(); step++) {
+                        ps.setString(1, codes.get(i));
+                        ps.setString(2, codes.get((i + step) % codes.size()));
+                        ps.setDouble(3, 0.5 + (i * 31 + step) % 100 / 50d);
+                        ps.addBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+
+        new CurrencyDAO().loadRegistry();
+        return codes;
+    }
+
+    /**
+     * AAA, AAB, ... ZZZ
+     */
+    private static String code(int index) {
+        char[] chars = new char[3];
+        for (int i = 2; i >= 0; i--) {
+            chars[i] = (char) ('A' + index % 26);
+            index /= 26;
+        }
+        return new String(chars);
+    }
+}
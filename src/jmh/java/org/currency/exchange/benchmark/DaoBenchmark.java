@@ -0,0 +1,115 @@
+package org.currency.exchange.benchmark;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.currency.exchange.cache.CurrencyRegistry;
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.PairKey;
+import org.currency.exchange.cache.RateMatrix;
+import org.currency.exchange.dao.CurrencyDAO;
+import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * DAO lookups against a seeded SQLite file, with and without the in-memory layers in front
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int currencies;
+
+    private CurrencyDAO registryCurrencyDAO;
+    private CurrencyDAO databaseCurrencyDAO;
+    private ExchangeRateDAO cachedRateDAO;
+    private ExchangeRateDAO lruRateDAO;
+    private ExchangeRateDAO uncachedRateDAO;
+    private ExchangeRateCache uncachedRateCache;
+    private String currencyCode;
+    private String pair;
+    private String path;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        List<String> codes = BenchmarkDatabase.seed(currencies);
+        currencyCode = codes.get(codes.size() / 2);
+        pair = codes.get(codes.size() / 2) + codes.get((codes.size() / 2 + 1) % codes.size());
+        path = "/" + pair;
+
+        registryCurrencyDAO = new CurrencyDAO();
+        // an empty registry that is never loaded sends every lookup to the database
+        databaseCurrencyDAO = new CurrencyDAO(new CurrencyRegistry());
+        cachedRateDAO = new ExchangeRateDAO(registryCurrencyDAO);
+        uncachedRateCache = new ExchangeRateCache(1, 0);
+        // a disabled matrix leaves lookups to the LRU cache
+        lruRateDAO = new ExchangeRateDAO(registryCurrencyDAO, new ExchangeRateCache(1_000, 0), new RateMatrix(0));
+        uncachedRateDAO = new ExchangeRateDAO(registryCurrencyDAO, uncachedRateCache, new RateMatrix(0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        DatabaseUtil.shutdown();
+    }
+
+    @Benchmark
+    public Currency findByCodeRegistry() {
+        return registryCurrencyDAO.findByCode(currencyCode);
+    }
+
+    @Benchmark
+    public Currency findByCodeDatabase() {
+        return databaseCurrencyDAO.findByCode(currencyCode);
+    }
+
+    @Benchmark
+    public ExchangeRate getExchangeRateByCodesCached() {
+        return cachedRateDAO.getExchangeRateByCodes(pair);
+    }
+
+    /**
+     * What GET /exchangeRate/{pair} does: pack the pair from the path and read the off-heap matrix,
+     * allocating only the returned rate; run with {@code -prof gc} to see it
+     */
+    @Benchmark
+    public ExchangeRate getExchangeRateByPairCached() {
+        return cachedRateDAO.getExchangeRate(PairKey.pair(path, 1));
+    }
+
+    @Benchmark
+    public ExchangeRate getExchangeRateByPairLruCache() {
+        return lruRateDAO.getExchangeRate(PairKey.pair(path, 1));
+    }
+
+    @Benchmark
+    public ExchangeRate getExchangeRateByCodesDatabase() {
+        uncachedRateCache.invalidateAll();
+        return uncachedRateDAO.getExchangeRateByCodes(pair);
+    }
+
+    @Benchmark
+    public List<ExchangeRate> getAllExchangeRates() {
+        return cachedRateDAO.getAllExchangeRates();
+    }
+}
@@ -0,0 +1,109 @@
+package org.currency.exchange.benchmark;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.currency.exchange.dao.CurrencyDAO;
+import org.currency.exchange.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the SQL behind a single pair lookup, without the rate cache in front.
+ * <p>
+ * {@code byCodesJoin} is the query the DAO used to run: currency ids from correlated subqueries and both
+ * currencies joined back into the row. {@code byIdsUniqueIndex} takes the ids from the registry but reads
+ * the table row through the UNIQUE constraint's index, which is what the planner picks on its own;
+ * {@code byIdsCoveringIndex} is the current query, answered from {@code exchangeRates_pair_rate} alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PairLookupBenchmark {
+    private static final String BY_CODES_JOIN = "SELECT er.id, er.rate, bc.id AS base_id, bc.fullname AS base_name, "
+            + "bc.code AS base_code, bc.sign AS base_sign, tc.id AS target_id, tc.fullname AS target_name, "
+            + "tc.code AS target_code, tc.sign AS target_sign FROM exchangerates er "
+            + "JOIN currencies bc ON er.base_currency_id = bc.id "
+            + "JOIN currencies tc ON er.target_currency_id = tc.id "
+            + "where base_currency_id = (select id from currencies where code = ?) "
+            + "and target_currency_id = (select id from currencies where code = ?)";
+    private static final String BY_IDS_UNIQUE_INDEX = "SELECT id, rate FROM exchangeRates "
+            + "INDEXED BY sqlite_autoindex_exchangeRates_1 WHERE base_currency_id = ? AND target_currency_id = ?";
+    private static final String BY_IDS_COVERING_INDEX = "SELECT id, rate FROM exchangeRates "
+            + "INDEXED BY exchangeRates_pair_rate WHERE base_currency_id = ? AND target_currency_id = ?";
+
+    @Param({ "10", "100", "1000" })
+    public int currencies;
+
+    private CurrencyDAO currencyDAO;
+    private String baseCode;
+    private String targetCode;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        List<String> codes = BenchmarkDatabase.seed(currencies);
+        baseCode = codes.get(codes.size() / 2);
+        targetCode = codes.get((codes.size() / 2 + 1) % codes.size());
+        currencyDAO = new CurrencyDAO();
+    }
+
+    @TearDown
+    public void tearDown() {
+        DatabaseUtil.shutdown();
+    }
+
+    @Benchmark
+    public double byCodesJoin() throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(BY_CODES_JOIN)) {
+            ps.setString(1, baseCode);
+            ps.setString(2, targetCode);
+            try (ResultSet rs = ps.executeQuery()) {
+                // the old query materialized both currencies from the row
+                return rs.next() ? rs.getDouble("rate") + rs.getString("base_name").length()
+                        + rs.getString("target_name").length() : 0;
+            }
+        }
+    }
+
+    @Benchmark
+    public double byIdsUniqueIndex() throws SQLException {
+        return byIds(BY_IDS_UNIQUE_INDEX);
+    }
+
+    @Benchmark
+    public double byIdsCoveringIndex() throws SQLException {
+        return byIds(BY_IDS_COVERING_INDEX);
+    }
+
+    private double byIds(String sql) throws SQLException {
+        long baseId = currencyDAO.findByCode(baseCode).getId();
+        long targetId = currencyDAO.findByCode(targetCode).getId();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setLong(1, baseId);
+            ps.setLong(2, targetId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getDouble(2) : 0;
+            }
+        }
+    }
+}
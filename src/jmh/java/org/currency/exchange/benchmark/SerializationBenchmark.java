@@ -0,0 +1,81 @@
+package org.currency.exchange.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.currency.exchange.util.ObjectMapperUtil;
+import org.currency.exchange.util.ResponseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * JSON serialization of the model through {@link ObjectMapperUtil} and {@link ResponseUtil}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int rates;
+
+    private final ObjectMapper mapper = ObjectMapperUtil.getInstance();
+    private Currency currency;
+    private ExchangeRate exchangeRate;
+    private List<ExchangeRate> rateList;
+    private ServletStubs.CountingResponse response;
+
+    @Setup
+    public void setUp() {
+        currency = new Currency(1, "USD", "US Dollar", "$");
+        Currency euro = new Currency(2, "EUR", "Euro", "€");
+        exchangeRate = new ExchangeRate(1, currency, euro, FixedPoint.parse("0.92"));
+        rateList = new ArrayList<>(rates);
+        for (int i = 0; i < rates; i++) {
+            Currency base = new Currency(i, "B" + i, "Base " + i, "b");
+            Currency target = new Currency(i + rates, "T" + i, "Target " + i, "t");
+            rateList.add(new ExchangeRate(i, base, target, FixedPoint.ONE + FixedPoint.ONE * i / 1000));
+        }
+        response = new ServletStubs.CountingResponse();
+    }
+
+    @Benchmark
+    public String currency() throws IOException {
+        return mapper.writeValueAsString(currency);
+    }
+
+    @Benchmark
+    public String exchangeRate() throws IOException {
+        return mapper.writeValueAsString(exchangeRate);
+    }
+
+    @Benchmark
+    public byte[] rateListBytes() throws IOException {
+        return mapper.writeValueAsBytes(rateList);
+    }
+
+    @Benchmark
+    public long rateListResponse() throws IOException {
+        ResponseUtil.sendJsonResponse(response.response(), 200, rateList);
+        return response.bytesWritten();
+    }
+}
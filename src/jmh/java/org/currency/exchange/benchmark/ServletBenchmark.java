@@ -0,0 +1,125 @@
+package org.currency.exchange.benchmark;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.currency.exchange.controller.CurrenciesServlet;
+import org.currency.exchange.controller.CurrencyServlet;
+import org.currency.exchange.controller.ExchangeRateServlet;
+import org.currency.exchange.controller.ExchangeRatesServlet;
+import org.currency.exchange.controller.ExchangeServlet;
+import org.currency.exchange.util.DatabaseUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * GET requests through the public servlet entry point, from request parsing to the serialized body
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServletBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int currencies;
+
+    private HttpServlet currencyServlet;
+    private HttpServlet currenciesServlet;
+    private HttpServlet exchangeRateServlet;
+    private HttpServlet exchangeRatesServlet;
+    private HttpServlet exchangeServlet;
+
+    private HttpServletRequest currencyRequest;
+    private HttpServletRequest currenciesRequest;
+    private HttpServletRequest exchangeRateRequest;
+    private HttpServletRequest exchangeRatesRequest;
+    private HttpServletRequest exchangeRatesStreamRequest;
+    private HttpServletRequest exchangeRequest;
+    private ServletStubs.CountingResponse response;
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        List<String> codes = BenchmarkDatabase.seed(currencies);
+        String base = codes.get(codes.size() / 2);
+        String target = codes.get((codes.size() / 2 + 1) % codes.size());
+        // no direct or inverse rate, resolved through the conversion graph
+        String far = codes.get((codes.size() / 2 + BenchmarkDatabase.RATES_PER_CURRENCY + 1) % codes.size());
+
+        currencyServlet = new CurrencyServlet();
+        currenciesServlet = new CurrenciesServlet();
+        exchangeRateServlet = new ExchangeRateServlet();
+        exchangeRatesServlet = new ExchangeRatesServlet();
+        exchangeServlet = new ExchangeServlet();
+
+        currencyRequest = ServletStubs.request("GET", "/currency", "/" + base, Map.of());
+        currenciesRequest = ServletStubs.request("GET", "/currencies", null, Map.of());
+        exchangeRateRequest = ServletStubs.request("GET", "/exchangeRate", "/" + base + target, Map.of());
+        exchangeRatesRequest = ServletStubs.request("GET", "/exchangeRates", null, Map.of());
+        exchangeRatesStreamRequest = ServletStubs.request("GET", "/exchangeRates", null,
+                Map.of("stream", "true"));
+        exchangeRequest = ServletStubs.request("GET", "/exchange", null,
+                Map.of("from", base, "to", far, "amount", "125.50"));
+        response = new ServletStubs.CountingResponse();
+    }
+
+    @TearDown
+    public void tearDown() {
+        DatabaseUtil.shutdown();
+    }
+
+    @Benchmark
+    public long getCurrency() throws ServletException, IOException {
+        currencyServlet.service(currencyRequest, response.response());
+        return response.bytesWritten();
+    }
+
+    @Benchmark
+    public long getCurrencies() throws ServletException, IOException {
+        currenciesServlet.service(currenciesRequest, response.response());
+        return response.bytesWritten();
+    }
+
+    @Benchmark
+    public long getExchangeRate() throws ServletException, IOException {
+        exchangeRateServlet.service(exchangeRateRequest, response.response());
+        return response.bytesWritten();
+    }
+
+    @Benchmark
+    public long getExchangeRates() throws ServletException, IOException {
+        exchangeRatesServlet.service(exchangeRatesRequest, response.response());
+        return response.bytesWritten();
+    }
+
+    @Benchmark
+    public long getExchangeRatesStreamed() throws ServletException, IOException {
+        exchangeRatesServlet.service(exchangeRatesStreamRequest, response.response());
+        return response.bytesWritten();
+    }
+
+    @Benchmark
+    public long exchange() throws ServletException, IOException {
+        exchangeServlet.service(exchangeRequest, response.response());
+        return response.bytesWritten();
+    }
+}
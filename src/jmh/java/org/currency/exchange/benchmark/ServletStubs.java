@@ -0,0 +1,125 @@
+package org.currency.exchange.benchmark;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Minimal request and response objects for calling servlets without a container. Mocking
+ * frameworks add too much overhead of their own to be used inside a benchmark.
+ */
+final class ServletStubs {
+
+    private ServletStubs() {
+    }
+
+    static HttpServletRequest request(String method, String servletPath, String pathInfo,
+                                      Map<String, String> parameters) {
+        return (HttpServletRequest) Proxy.newProxyInstance(HttpServletRequest.class.getClassLoader(),
+                new Class<?>[] { HttpServletRequest.class }, (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getMethod":
+                            return method;
+                        case "getServletPath":
+                            return servletPath;
+                        case "getPathInfo":
+                            return pathInfo;
+                        case "getParameter":
+                            return parameters.get((String) args[0]);
+                        case "getProtocol":
+                            return "HTTP/1.1";
+                        default:
+                            return defaultValue(m.getReturnType());
+                    }
+                });
+    }
+
+    /**
+     * Response that discards its body while counting the bytes written
+     */
+    static final class CountingResponse {
+        private long bytes;
+        private final OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes += len;
+            }
+        };
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                bytes += len;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+        };
+        private final PrintWriter writer = new PrintWriter(sink, true);
+        private int status;
+        private final HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(
+                HttpServletResponse.class.getClassLoader(), new Class<?>[] { HttpServletResponse.class },
+                (proxy, m, args) -> {
+                    switch (m.getName()) {
+                        case "getWriter":
+                            return writer;
+                        case "getOutputStream":
+                            return outputStream;
+                        case "setStatus":
+                            status = (Integer) args[0];
+                            return null;
+                        case "getStatus":
+                            return status;
+                        default:
+                            return defaultValue(m.getReturnType());
+                    }
+                });
+
+        HttpServletResponse response() {
+            return response;
+        }
+
+        long bytesWritten() {
+            writer.flush();
+            return bytes;
+        }
+
+        int status() {
+            return status;
+        }
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,107 @@
+package org.currency.exchange.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.descriptor.web.FilterDef;
+import org.apache.tomcat.util.descriptor.web.FilterMap;
+import org.currency.exchange.controller.CurrenciesServlet;
+import org.currency.exchange.controller.CurrencyServlet;
+import org.currency.exchange.controller.ExchangeRateServlet;
+import org.currency.exchange.controller.ExchangeRatesServlet;
+import org.currency.exchange.controller.ExchangeServlet;
+import org.currency.exchange.controller.MetricsServlet;
+import org.currency.exchange.controller.RateStreamServlet;
+import org.currency.exchange.controller.StatsServlet;
+import org.currency.exchange.metrics.MetricsFilter;
+import org.currency.exchange.util.AppContextListener;
+
+import jakarta.servlet.Servlet;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.annotation.WebServlet;
+
+/**
+ * The application deployed in an embedded Tomcat on loopback.
+ * <p>
+ * Servlets and the filter are registered from their own {@code @WebServlet} and {@code @WebFilter}
+ * annotations, so mappings and async support match the WAR without scanning the classpath.
+ */
+final class EmbeddedServer implements AutoCloseable {
+    private static final List<Class<? extends Servlet>> SERVLETS = List.of(
+            CurrenciesServlet.class,
+            CurrencyServlet.class,
+            ExchangeRatesServlet.class,
+            ExchangeRateServlet.class,
+            ExchangeServlet.class,
+            RateStreamServlet.class,
+            StatsServlet.class,
+            MetricsServlet.class);
+
+    private final Tomcat tomcat;
+
+    private EmbeddedServer(Tomcat tomcat) {
+        this.tomcat = tomcat;
+    }
+
+    /**
+     * @param port       0 picks a free port
+     * @param maxThreads size of the connector's request thread pool
+     */
+    static EmbeddedServer start(int port, int maxThreads) throws IOException, LifecycleException {
+        Path baseDir = Files.createTempDirectory("exchange-tomcat-");
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.toString());
+
+        Connector connector = new Connector();
+        connector.setPort(port);
+        connector.setProperty("address", "127.0.0.1");
+        connector.setProperty("maxThreads", String.valueOf(maxThreads));
+        connector.setProperty("acceptCount", "1000");
+        tomcat.setConnector(connector);
+
+        Context context = tomcat.addContext("", baseDir.toString());
+        for (Class<? extends Servlet> type : SERVLETS) {
+            WebServlet mapping = type.getAnnotation(WebServlet.class);
+            Wrapper wrapper = Tomcat.addServlet(context, type.getSimpleName(), type.getName());
+            wrapper.setAsyncSupported(mapping.asyncSupported());
+            for (String pattern : mapping.urlPatterns()) {
+                context.addServletMappingDecoded(pattern, type.getSimpleName());
+            }
+        }
+
+        WebFilter filter = MetricsFilter.class.getAnnotation(WebFilter.class);
+        FilterDef filterDef = new FilterDef();
+        filterDef.setFilterName(MetricsFilter.class.getSimpleName());
+        filterDef.setFilterClass(MetricsFilter.class.getName());
+        filterDef.setAsyncSupported(String.valueOf(filter.asyncSupported()));
+        context.addFilterDef(filterDef);
+        FilterMap filterMap = new FilterMap();
+        filterMap.setFilterName(MetricsFilter.class.getSimpleName());
+        for (String pattern : filter.urlPatterns()) {
+            filterMap.addURLPatternDecoded(pattern);
+        }
+        context.addFilterMap(filterMap);
+
+        context.addApplicationListener(AppContextListener.class.getName());
+
+        tomcat.start();
+        return new EmbeddedServer(tomcat);
+    }
+
+    int getPort() {
+        return tomcat.getConnector().getLocalPort();
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
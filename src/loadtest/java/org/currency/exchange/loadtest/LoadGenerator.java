@@ -0,0 +1,165 @@
+package org.currency.exchange.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.currency.exchange.loadtest.Workload.Operation;
+import org.currency.exchange.metrics.LatencyHistogram;
+
+/**
+ * Drives a {@link Workload} over HTTP for a warm-up and a measured period.
+ * <p>
+ * A closed loop runs {@code concurrency} clients that each send the next request as soon as the previous
+ * one is answered, which finds the throughput the server sustains. An open loop sends {@code rate}
+ * requests per second on a fixed schedule whatever the server does, with at most {@code concurrency}
+ * outstanding; latency is measured from the scheduled send time, so a stall shows up in the
+ * percentiles of every request it delayed instead of only the one it hit. Requests that would exceed
+ * the outstanding limit are counted as dropped.
+ */
+final class LoadGenerator {
+    private final HttpClient client;
+    private final Workload workload;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final OperationStats total = new OperationStats();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long measureFrom;
+
+    LoadGenerator(HttpClient client, Workload workload) {
+        this.client = client;
+        this.workload = workload;
+        for (Operation operation : workload.operations()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    void runClosed(int concurrency, long warmupNanos, long durationNanos) throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        List<Thread> clients = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    Operation operation = workload.next();
+                    long sent = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(workload.request(operation), HttpResponse.BodyHandlers.discarding())
+                                .statusCode();
+                    } catch (IOException e) {
+                        status = 0;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    record(operation, sent, status);
+                }
+            }, "load-client-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            clients.add(thread);
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+    }
+
+    void runOpen(int ratePerSecond, int concurrency, long warmupNanos, long durationNanos)
+            throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+        Semaphore outstanding = new Semaphore(concurrency);
+        long start = System.nanoTime();
+        measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        for (long scheduled = start; scheduled < end; scheduled += interval) {
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!outstanding.tryAcquire()) {
+                if (scheduled >= measureFrom) {
+                    dropped.increment();
+                }
+                continue;
+            }
+            Operation operation = workload.next();
+            HttpRequest request = workload.request(operation);
+            long sent = scheduled;
+            client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        outstanding.release();
+                        record(operation, sent, failure == null ? response.statusCode() : 0);
+                    });
+        }
+        // let the last requests finish so they are not reported as lost
+        if (outstanding.tryAcquire(concurrency, 30, TimeUnit.SECONDS)) {
+            outstanding.release(concurrency);
+        }
+    }
+
+    private void record(Operation operation, long sent, int status) {
+        if (sent >= measureFrom) {
+            long nanos = System.nanoTime() - sent;
+            stats.get(operation).record(nanos, status);
+            total.record(nanos, status);
+        }
+    }
+
+    Map<Operation, OperationStats> getStats() {
+        return stats;
+    }
+
+    OperationStats getTotal() {
+        return total;
+    }
+
+    long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Latencies and response classes of one operation; status 0 stands for a connection failure
+     */
+    static final class OperationStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder success = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+
+        void record(long nanos, int status) {
+            latency.record(nanos);
+            if (status >= 200 && status < 400) {
+                success.increment();
+            } else if (status >= 400 && status < 500) {
+                clientErrors.increment();
+            } else {
+                serverErrors.increment();
+            }
+        }
+
+        LatencyHistogram.Snapshot latency() {
+            return latency.snapshot();
+        }
+
+        long success() {
+            return success.sum();
+        }
+
+        long clientErrors() {
+            return clientErrors.sum();
+        }
+
+        long serverErrors() {
+            return serverErrors.sum();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.currency.exchange.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.currency.exchange.loadtest.LoadGenerator.OperationStats;
+import org.currency.exchange.loadtest.Workload.Operation;
+import org.currency.exchange.metrics.LatencyHistogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * End-to-end load test: seeds a SQLite file, serves the application from {@link EmbeddedServer} and
+ * drives it with {@link LoadGenerator}, then prints throughput and latency percentiles per operation.
+ * <p>
+ * Arguments are {@code key=value} pairs, every one optional:
+ * <ul>
+ *   <li>{@code mode} - {@code closed} (default) or {@code open}</li>
+ *   <li>{@code concurrency} - clients of the closed loop, outstanding requests of the open loop (64)</li>
+ *   <li>{@code rate} - requests per second of the open loop (1000)</li>
+ *   <li>{@code warmup}, {@code duration} - seconds of unrecorded and recorded load (10, 30)</li>
+ *   <li>{@code mix} - weights of {@link Operation}s
+ *       ({@code currencies:20,rate:40,exchange:20,patch:15,post:5})</li>
+ *   <li>{@code currencies}, {@code ratesPerCurrency} - size of the seeded data (100, 10)</li>
+ *   <li>{@code serverThreads} - Tomcat request threads (200)</li>
+ *   <li>{@code report} - JSON result file ({@code target/loadtest-result.json})</li>
+ * </ul>
+ * Application settings are read as usual, so {@code -Ddb.pool.maxSize=4} and the like tune the server.
+ */
+public final class LoadTest {
+    private static final Map<String, String> DEFAULTS = defaults();
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999, 1.0 };
+    private static final String[] QUANTILE_NAMES = { "p50", "p90", "p99", "p99.9", "max" };
+
+    private LoadTest() {
+    }
+
+    private static Map<String, String> defaults() {
+        Map<String, String> defaults = new LinkedHashMap<>();
+        defaults.put("mode", "closed");
+        defaults.put("concurrency", "64");
+        defaults.put("rate", "1000");
+        defaults.put("warmup", "10");
+        defaults.put("duration", "30");
+        defaults.put("mix", "currencies:20,rate:40,exchange:20,patch:15,post:5");
+        defaults.put("currencies", "100");
+        defaults.put("ratesPerCurrency", "10");
+        defaults.put("serverThreads", "200");
+        defaults.put("report", "target/loadtest-result.json");
+        return defaults;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        String mode = options.get("mode");
+        if (!Set.of("closed", "open").contains(mode)) {
+            throw new IllegalArgumentException("Unknown mode, expected closed or open: " + mode);
+        }
+        int concurrency = Integer.parseInt(options.get("concurrency"));
+        int rate = Integer.parseInt(options.get("rate"));
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("warmup")));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(options.get("duration")));
+
+        // the run starts from the seeded data, not from a snapshot of the previous one
+        System.setProperty("snapshot.enabled", "false");
+        LoadTestDatabase database = LoadTestDatabase.seed(Integer.parseInt(options.get("currencies")),
+                Integer.parseInt(options.get("ratesPerCurrency")));
+
+        try (EmbeddedServer server = EmbeddedServer.start(0, Integer.parseInt(options.get("serverThreads")))) {
+            String baseUrl = "http://127.0.0.1:" + server.getPort();
+            Workload workload = Workload.of(baseUrl, database, options.get("mix"));
+            HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .build();
+            System.out.printf("Load test: %s loop, concurrency %d%s, %d s warm-up, %d s measured, mix %s, "
+                            + "%d currencies and %d rates in %s%n", mode, concurrency,
+                    "open".equals(mode) ? ", " + rate + " req/s" : "", TimeUnit.NANOSECONDS.toSeconds(warmupNanos),
+                    TimeUnit.NANOSECONDS.toSeconds(durationNanos), workload, database.getCodes().size(),
+                    database.getPairs().size(), database.getFile());
+
+            LoadGenerator generator = new LoadGenerator(client, workload);
+            if ("open".equals(mode)) {
+                generator.runOpen(rate, concurrency, warmupNanos, durationNanos);
+            } else {
+                generator.runClosed(concurrency, warmupNanos, durationNanos);
+            }
+
+            String serverStats = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/stats")).build(),
+                    HttpResponse.BodyHandlers.ofString()).body();
+            report(options, generator, durationNanos, serverStats);
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq <= 0 || !DEFAULTS.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Expected key=value with a key from " + DEFAULTS.keySet()
+                        + ": " + arg);
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    private static void report(Map<String, String> options, LoadGenerator generator, long durationNanos,
+                               String serverStats) throws Exception {
+        double seconds = durationNanos / 1e9;
+        Map<String, Object> operations = new LinkedHashMap<>();
+        System.out.printf("%n%-12s %10s %10s %8s %8s %8s", "operation", "requests", "req/s", "2xx/3xx", "4xx",
+                "5xx/io");
+        for (String name : QUANTILE_NAMES) {
+            System.out.printf(" %9s", name + " ms");
+        }
+        System.out.println();
+        for (Map.Entry<Operation, OperationStats> entry : generator.getStats().entrySet()) {
+            operations.put(entry.getKey().label(), row(entry.getKey().label(), entry.getValue(), seconds));
+        }
+        operations.put("total", row("total", generator.getTotal(), seconds));
+        if (generator.getDropped() > 0) {
+            System.out.printf("%d requests dropped: more than %s outstanding%n", generator.getDropped(),
+                    options.get("concurrency"));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", options);
+        result.put("dropped", generator.getDropped());
+        result.put("operations", operations);
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        result.put("server", mapper.readTree(serverStats));
+        Path file = Path.of(options.get("report"));
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        mapper.writeValue(file.toFile(), result);
+        System.out.printf("%nServer stats and percentiles written to %s%n", file);
+    }
+
+    private static Map<String, Object> row(String label, OperationStats stats, double seconds) {
+        LatencyHistogram.Snapshot latency = stats.latency();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("requests", latency.getCount());
+        row.put("throughput", latency.getCount() / seconds);
+        row.put("success", stats.success());
+        row.put("clientErrors", stats.clientErrors());
+        row.put("serverErrors", stats.serverErrors());
+        System.out.printf("%-12s %10d %10.1f %8d %8d %8d", label, latency.getCount(), latency.getCount() / seconds,
+                stats.success(), stats.clientErrors(), stats.serverErrors());
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (int i = 0; i < QUANTILES.length; i++) {
+            double millis = latency.valueAt(QUANTILES[i]) / 1e6;
+            percentiles.put(QUANTILE_NAMES[i], millis);
+            System.out.printf(" %9.3f", millis);
+        }
+        System.out.println();
+        row.put("latencyMillis", percentiles);
+        return row;
+    }
+}
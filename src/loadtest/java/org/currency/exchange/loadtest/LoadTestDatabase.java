@@ -0,0 +1,112 @@
+package org.currency.exchange.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.currency.exchange.util.DatabaseUtil;
+
+/**
+ * Seeds a throwaway SQLite file for a load test run.
+ * <p>
+ * Must run before anything touches {@link DatabaseUtil}, since the pool reads {@code db.url} once. The
+ * server started afterwards migrates nothing and warms its caches from this data, like a production
+ * restart does.
+ */
+final class LoadTestDatabase {
+    private final Path file;
+    private final List<String> codes;
+    private final List<String> pairs;
+
+    private LoadTestDatabase(Path file, List<String> codes, List<String> pairs) {
+        this.file = file;
+        this.codes = codes;
+        this.pairs = pairs;
+    }
+
+    /**
+     * Creates the schema with {@code currencies} currencies, each with a direct rate to the
+     * {@code ratesPerCurrency} following ones
+     */
+    static LoadTestDatabase seed(int currencies, int ratesPerCurrency) throws IOException, SQLException {
+        Path dir = Files.createTempDirectory("exchange-loadtest-");
+        Path file = dir.resolve("exchange.db");
+        System.setProperty("db.url", "jdbc:sqlite:" + file.toAbsolutePath());
+
+        if (DatabaseUtil.initializeDatabase() < 0) {
+            throw new SQLException("Could not initialize " + file);
+        }
+        List<String> codes = new ArrayList<>(List.of("USD", "EUR", "RUR", "GBP"));
+        for (int i = 0; codes.size() < currencies; i++) {
+            String code = code(i);
+            if (!codes.contains(code)) {
+                codes.add(code);
+            }
+        }
+
+        List<String> pairs = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getWriteConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "insert into currencies (code, fullName, sign) values (?, ?, ?)")) {
+                for (String code : codes.subList(4, codes.size())) {
+                    ps.setString(1, code);
+                    ps.setString(2, "Currency " + code);
+                    ps.setString(3, code.substring(0, 1));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "insert or ignore into exchangeRates (base_currency_id, target_currency_id, rate) values " +
+                            "((select id from currencies where code = ?), (select id from currencies where code = ?), ?)")) {
+                for (int i = 0; i < codes.size(); i++) {
+                    for (int step = 1; step <= ratesPerCurrency && step < codes.size(); step++) {
+                        String base = codes.get(i);
+                        String target = codes.get((i + step) % codes.size());
+                        ps.setString(1, base);
+                        ps.setString(2, target);
+                        ps.setDouble(3, 0.5 + (i * 31 + step) % 100 / 50d);
+                        ps.addBatch();
+                        pairs.add(base + target);
+                    }
+                }
+                ps.executeBatch();
+            }
+            conn.commit();
+        }
+        return new LoadTestDatabase(file, List.copyOf(codes), List.copyOf(pairs));
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    List<String> getCodes() {
+        return codes;
+    }
+
+    /**
+     * Concatenated codes of the seeded rates, e.g. {@code USDEUR}
+     */
+    List<String> getPairs() {
+        return pairs;
+    }
+
+    /**
+     * AAA, AAB, ... ZZZ
+     */
+    private static String code(int index) {
+        char[] chars = new char[3];
+        for (int i = 2; i >= 0; i--) {
+            chars[i] = (char) ('A' + index % 26);
+            index /= 26;
+        }
+        return new String(chars);
+    }
+}
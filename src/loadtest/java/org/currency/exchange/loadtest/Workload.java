@@ -0,0 +1,149 @@
+package org.currency.exchange.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted mix of requests against the seeded data.
+ * <p>
+ * Reads hit existing currencies and rates. {@code patch} rewrites an existing rate, {@code post}
+ * creates a rate for a random pair, so it answers 409 once the pair exists.
+ */
+final class Workload {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    enum Operation {
+        CURRENCIES,
+        RATE,
+        EXCHANGE,
+        PATCH,
+        POST;
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private final String baseUrl;
+    private final List<String> codes;
+    private final List<String> pairs;
+    private final Operation[] operations;
+    // cumulative weights of operations, for picking one with a single random number
+    private final int[] thresholds;
+
+    private Workload(String baseUrl, List<String> codes, List<String> pairs, Map<Operation, Integer> weights) {
+        this.baseUrl = baseUrl;
+        this.codes = codes;
+        this.pairs = pairs;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.thresholds = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            thresholds[i] = total;
+        }
+    }
+
+    /**
+     * @param mix comma-separated {@code operation:weight} entries, e.g. {@code currencies:30,rate:50,patch:20}
+     */
+    static Workload of(String baseUrl, LoadTestDatabase database, String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry, expected operation:weight: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + entry);
+            }
+            if (weight > 0) {
+                weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Mix has no operations: " + mix);
+        }
+        return new Workload(baseUrl, database.getCodes(), database.getPairs(), weights);
+    }
+
+    List<Operation> operations() {
+        return List.of(operations);
+    }
+
+    Operation next() {
+        int roll = ThreadLocalRandom.current().nextInt(thresholds[thresholds.length - 1]);
+        for (int i = 0; i < thresholds.length; i++) {
+            if (roll < thresholds[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case CURRENCIES:
+                return get("/currencies");
+            case RATE:
+                return get("/exchangeRate/" + randomPair(random));
+            case EXCHANGE:
+                return get("/exchange?from=" + randomCode(random) + "&to=" + randomCode(random)
+                        + "&amount=" + (1 + random.nextInt(10_000)));
+            case PATCH:
+                // the servlet reads the rate with getParameter, which containers only fill from a POST body
+                return builder("/exchangeRate/" + randomPair(random) + "?rate=" + randomRate(random))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                        .build();
+            case POST:
+                return builder("/exchangeRates")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"baseCurrencyCode\":\"" + randomCode(random)
+                                + "\",\"targetCurrencyCode\":\"" + randomCode(random)
+                                + "\",\"rate\":" + randomRate(random) + "}"))
+                        .build();
+            default:
+                throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return builder(path).GET().build();
+    }
+
+    private HttpRequest.Builder builder(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+    }
+
+    private String randomPair(ThreadLocalRandom random) {
+        return pairs.get(random.nextInt(pairs.size()));
+    }
+
+    private String randomCode(ThreadLocalRandom random) {
+        return codes.get(random.nextInt(codes.size()));
+    }
+
+    private static String randomRate(ThreadLocalRandom random) {
+        return (50 + random.nextInt(200)) / 100 + "." + random.nextInt(10) + random.nextInt(10);
+    }
+
+    @Override
+    public String toString() {
+        List<String> entries = new ArrayList<>();
+        int previous = 0;
+        for (int i = 0; i < operations.length; i++) {
+            entries.add(operations[i].label() + ":" + (thresholds[i] - previous));
+            previous = thresholds[i];
+        }
+        return String.join(",", entries);
+    }
+}
@@ -0,0 +1,38 @@
+package org.currency.exchange.cache;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of cache counters
+ */
+@Getter
+public class CacheStats {
+    private final int size;
+    private final int maxSize;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long expirations;
+    private final long invalidations;
+    // database fetches started on a miss, and misses that waited for one already running instead
+    private final long loads;
+    private final long coalescedLoads;
+
+    public CacheStats(int size, int maxSize, long hits, long misses, long evictions, long expirations,
+                      long invalidations, long loads, long coalescedLoads) {
+        this.size = size;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.expirations = expirations;
+        this.invalidations = invalidations;
+        this.loads = loads;
+        this.coalescedLoads = coalescedLoads;
+    }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0d : (double) hits / requests;
+    }
+}
@@ -0,0 +1,133 @@
+package org.currency.exchange.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.currency.exchange.model.Currency;
+
+/**
+ * In-memory copy of the currencies table, indexed by code and by id.
+ * <p>
+ * Readers see an immutable snapshot and never lock. Writers build a new snapshot and publish it
+ * in one volatile write, so a reader never observes a half-applied change.
+ */
+public class CurrencyRegistry {
+    private final Object writeLock = new Object();
+    private volatile Snapshot snapshot;
+
+    private static class CurrencyRegistryHelper {
+        private static final CurrencyRegistry INSTANCE = new CurrencyRegistry();
+    }
+
+    public static CurrencyRegistry getInstance() {
+        return CurrencyRegistryHelper.INSTANCE;
+    }
+
+    /**
+     * @return true once {@link #load(Collection)} has been called
+     */
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * Replaces the whole content of the registry
+     */
+    public void load(Collection<Currency> currencies) {
+        Map<String, Currency> byCode = new HashMap<>();
+        Map<Long, Currency> byId = new HashMap<>();
+        for (Currency currency : currencies) {
+            byCode.put(currency.getCode(), currency);
+            byId.put(currency.getId(), currency);
+        }
+        synchronized (writeLock) {
+            snapshot = new Snapshot(byCode, byId);
+        }
+    }
+
+    /**
+     * Find currency by code, case-insensitive
+     *
+     * @return currency or null
+     */
+    public Currency findByCode(String code) {
+        Map<String, Currency> byCode = current().byCode;
+        Currency currency = byCode.get(code);
+        if (currency == null) {
+            String upperCase = code.toUpperCase();
+            // toUpperCase returns the same instance when there was nothing to convert
+            if (upperCase != code) {
+                currency = byCode.get(upperCase);
+            }
+        }
+        return currency;
+    }
+
+    /**
+     * @return currency or null
+     */
+    public Currency findById(long id) {
+        return current().byId.get(id);
+    }
+
+    public Collection<Currency> getAll() {
+        return current().byId.values();
+    }
+
+    /**
+     * Adds or replaces one currency. Does nothing before {@link #load(Collection)}: a registry holding
+     * only the currencies written since start would answer null for all the others.
+     */
+    public void put(Currency currency) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Map<String, Currency> byCode = new HashMap<>(current.byCode);
+            Map<Long, Currency> byId = new HashMap<>(current.byId);
+            Currency previous = byId.put(currency.getId(), currency);
+            if (previous != null) {
+                byCode.remove(previous.getCode());
+            }
+            byCode.put(currency.getCode(), currency);
+            snapshot = new Snapshot(byCode, byId);
+        }
+    }
+
+    /**
+     * Removes one currency; does nothing before {@link #load(Collection)}
+     */
+    public void remove(long id) {
+        synchronized (writeLock) {
+            Snapshot current = snapshot;
+            Currency removed = current == null ? null : current.byId.get(id);
+            if (removed == null) {
+                return;
+            }
+            Map<String, Currency> byCode = new HashMap<>(current.byCode);
+            Map<Long, Currency> byId = new HashMap<>(current.byId);
+            byId.remove(id);
+            byCode.remove(removed.getCode());
+            snapshot = new Snapshot(byCode, byId);
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        return current == null ? Snapshot.EMPTY : current;
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+
+        private final Map<String, Currency> byCode;
+        private final Map<Long, Currency> byId;
+
+        private Snapshot(Map<String, Currency> byCode, Map<Long, Currency> byId) {
+            this.byCode = Map.copyOf(byCode);
+            this.byId = Map.copyOf(byId);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.currency.exchange.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.currency.exchange.dao.RateChangeListener;
+import org.currency.exchange.dao.RateChangePublisher;
+
+/**
+ * Counters bumped after every committed write, used to tell whether data derived from the
+ * currencies or exchangeRates tables is still current
+ */
+public class DataVersion implements RateChangeListener {
+    private final AtomicLong currencies = new AtomicLong();
+    private final AtomicLong exchangeRates = new AtomicLong();
+
+    private DataVersion() {
+    }
+
+    private static class DataVersionHelper {
+        private static final DataVersion INSTANCE = create();
+
+        private static DataVersion create() {
+            DataVersion version = new DataVersion();
+            RateChangePublisher.getInstance().subscribe(version);
+            return version;
+        }
+    }
+
+    public static DataVersion getInstance() {
+        return DataVersionHelper.INSTANCE;
+    }
+
+    public long currencies() {
+        return currencies.get();
+    }
+
+    public long exchangeRates() {
+        return exchangeRates.get();
+    }
+
+    @Override
+    public void onRateChanged(String baseCode, String targetCode, long rate) {
+        exchangeRates.incrementAndGet();
+    }
+
+    @Override
+    public void onCurrenciesChanged() {
+        currencies.incrementAndGet();
+        // rates embed currency details
+        exchangeRates.incrementAndGet();
+    }
+
+    @Override
+    public void onRatesReloaded() {
+        exchangeRates.incrementAndGet();
+    }
+}
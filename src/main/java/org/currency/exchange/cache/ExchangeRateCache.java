@@ -0,0 +1,258 @@
+package org.currency.exchange.cache;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.AppConfig;
+
+/**
+ * Bounded LRU cache of exchange rates keyed by currency pair, either packed by {@link PairKey} or as
+ * concatenated codes, e.g. {@code USDEUR}, which are packed on the way in.
+ * <p>
+ * Entries are evicted once {@code maxSize} is exceeded and, when a TTL is set, treated as missing
+ * after it elapses. Writers must call {@link #invalidate(String)} so readers never see a stale rate.
+ * A loader takes a {@link #generation()} before querying the database and passes it to
+ * {@link #put(String, ExchangeRate, long)}, so a value read before a concurrent write is not cached.
+ * Entries live in a {@link RateMap}, so a hit on a packed pair allocates nothing. Pairs whose codes
+ * cannot be packed are never cached.
+ * <p>
+ * {@link #getOrLoad(long, LongFunction)} keeps a table of loads in flight, so concurrent misses on the
+ * same pair, e.g. right after a write invalidated a popular rate, share one database fetch.
+ */
+public class ExchangeRateCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final RateMap entries = new RateMap();
+    private long generation;
+    private final ConcurrentHashMap<Long, CompletableFuture<ExchangeRate>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+
+    /**
+     * @param maxSize   maximum number of cached pairs
+     * @param ttlMillis time to live of an entry, 0 keeps entries until evicted or invalidated
+     */
+    public ExchangeRateCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+    }
+
+    private static class ExchangeRateCacheHelper {
+        private static final ExchangeRateCache INSTANCE = new ExchangeRateCache(
+                AppConfig.getInt("cache.rates.maxSize", 1_000),
+                AppConfig.getLong("cache.rates.ttlMillis", 0));
+    }
+
+    public static ExchangeRateCache getInstance() {
+        return ExchangeRateCacheHelper.INSTANCE;
+    }
+
+    /**
+     * @return cached rate or null when the pair is absent or expired
+     */
+    public ExchangeRate get(String pair) {
+        return get(PairKey.pair(pair));
+    }
+
+    /**
+     * @param pair packed by {@link PairKey}
+     * @return cached rate or null when the pair is absent or expired
+     */
+    public ExchangeRate get(long pair) {
+        synchronized (entries) {
+            int slot = entries.find(pair);
+            if (slot < 0) {
+                misses.increment();
+                return null;
+            }
+            if (isExpired(entries.expiresAt(slot), System.nanoTime())) {
+                entries.removeSlot(slot);
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+            entries.touch(slot);
+            hits.increment();
+            return entries.rate(slot);
+        }
+    }
+
+    /**
+     * Same as {@link #getOrLoad(long, LongFunction)}; pairs that cannot be packed are loaded every time
+     */
+    public ExchangeRate getOrLoad(String pair, Function<String, ExchangeRate> loader) {
+        long key = PairKey.pair(pair);
+        if (key == PairKey.INVALID) {
+            misses.increment();
+            loads.increment();
+            return loader.apply(pair);
+        }
+        return getOrLoad(key, packed -> loader.apply(pair));
+    }
+
+    /**
+     * Cached rate, or the result of {@code loader} shared by every caller that misses on {@code pair}
+     * while it runs. A load that fails throws its exception to all of them. Invalidating the pair
+     * detaches a running load, so callers arriving after a write start a fresh one.
+     *
+     * @param pair   packed by {@link PairKey}
+     * @param loader reads the rate from the database, returns null when the pair does not exist
+     * @return rate or null
+     */
+    public ExchangeRate getOrLoad(long pair, LongFunction<ExchangeRate> loader) {
+        ExchangeRate cached = get(pair);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<ExchangeRate> load = new CompletableFuture<>();
+        CompletableFuture<ExchangeRate> running = loading.putIfAbsent(pair, load);
+        if (running != null) {
+            coalescedLoads.increment();
+            return await(running);
+        }
+        try {
+            // a load that finished between the miss and putIfAbsent has already cached the rate
+            long loadedAt;
+            synchronized (entries) {
+                int slot = entries.find(pair);
+                if (slot >= 0 && !isExpired(entries.expiresAt(slot), System.nanoTime())) {
+                    ExchangeRate rate = entries.rate(slot);
+                    load.complete(rate);
+                    return rate;
+                }
+                loadedAt = generation;
+            }
+            loads.increment();
+            ExchangeRate rate = loader.apply(pair);
+            if (rate != null) {
+                put(pair, rate, loadedAt);
+            }
+            load.complete(rate);
+            return rate;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(pair, load);
+        }
+    }
+
+    private static ExchangeRate await(CompletableFuture<ExchangeRate> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return counter bumped by every invalidation
+     */
+    public long generation() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Caches a freshly loaded rate unless an invalidation happened after {@code loadedAt} was taken
+     */
+    public void put(String pair, ExchangeRate rate, long loadedAt) {
+        put(PairKey.pair(pair), rate, loadedAt);
+    }
+
+    private void put(long pair, ExchangeRate rate, long loadedAt) {
+        if (pair == PairKey.INVALID) {
+            return;
+        }
+        long expiresAt = ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos;
+        synchronized (entries) {
+            if (generation == loadedAt) {
+                entries.put(pair, rate, expiresAt);
+                if (entries.size() > maxSize) {
+                    entries.removeEldest();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Fills the cache with up to {@code maxSize} rates loaded at start, keyed by their currency codes
+     */
+    public void preload(Collection<ExchangeRate> rates, long loadedAt) {
+        long expiresAt = ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos;
+        synchronized (entries) {
+            if (generation != loadedAt) {
+                return;
+            }
+            for (ExchangeRate rate : rates) {
+                if (entries.size() >= maxSize) {
+                    break;
+                }
+                long pair = PairKey.pair(rate.getBaseCurrency().getCode(), rate.getTargetCurrency().getCode());
+                if (pair != PairKey.INVALID) {
+                    entries.put(pair, rate, expiresAt);
+                }
+            }
+        }
+    }
+
+    public void invalidate(String pair) {
+        invalidate(PairKey.pair(pair));
+    }
+
+    public void invalidate(long pair) {
+        synchronized (entries) {
+            generation++;
+            loading.remove(pair);
+            if (entries.remove(pair)) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            loading.clear();
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+    }
+
+    public CacheStats getStats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(size, maxSize, hits.sum(), misses.sum(), evictions.sum(),
+                expirations.sum(), invalidations.sum(), loads.sum(), coalescedLoads.sum());
+    }
+
+    private static boolean isExpired(long expiresAt, long now) {
+        return expiresAt != 0 && now - expiresAt >= 0;
+    }
+}
@@ -0,0 +1,94 @@
+package org.currency.exchange.cache;
+
+/**
+ * Three-letter currency codes packed into an {@code int} and currency pairs into a {@code long}, so a
+ * rate can be looked up straight from the characters of a request path without building strings.
+ * <p>
+ * A code takes one byte per character, so {@code USD} is {@code 0x555344} and {@code USDEUR} is
+ * {@code 0x555344_00455552L}. ASCII letters are upper-cased, matching the case-insensitive lookups of
+ * {@link CurrencyRegistry}. Codes that are not exactly three printable ASCII characters cannot be packed
+ * and give {@link #INVALID}; callers fall back to their string-keyed path for them.
+ */
+public final class PairKey {
+    /**
+     * Result for codes that cannot be packed. Valid keys are never negative and never 0.
+     */
+    public static final long INVALID = -1;
+
+    private PairKey() {
+    }
+
+    /**
+     * @return the code at {@code from} packed into the low 24 bits, or {@link #INVALID}
+     */
+    public static int code(CharSequence chars, int from) {
+        int c0 = packChar(chars.charAt(from));
+        int c1 = packChar(chars.charAt(from + 1));
+        int c2 = packChar(chars.charAt(from + 2));
+        if ((c0 | c1 | c2) < 0) {
+            return (int) INVALID;
+        }
+        return c0 << 16 | c1 << 8 | c2;
+    }
+
+    /**
+     * @return packed code, or {@link #INVALID} unless {@code code} has three characters
+     */
+    public static int code(String code) {
+        return code != null && code.length() == 3 ? code(code, 0) : (int) INVALID;
+    }
+
+    /**
+     * @return the six characters at {@code from}, e.g. {@code USDEUR}, packed into a pair
+     */
+    public static long pair(CharSequence chars, int from) {
+        return pair(code(chars, from), code(chars, from + 3));
+    }
+
+    /**
+     * @param codes concatenated codes, e.g. {@code USDEUR}
+     */
+    public static long pair(String codes) {
+        return codes != null && codes.length() == 6 ? pair(codes, 0) : INVALID;
+    }
+
+    public static long pair(String baseCode, String targetCode) {
+        return pair(code(baseCode), code(targetCode));
+    }
+
+    public static long pair(int baseCode, int targetCode) {
+        if ((baseCode | targetCode) < 0) {
+            return INVALID;
+        }
+        return (long) baseCode << 32 | targetCode;
+    }
+
+    public static int base(long pair) {
+        return (int) (pair >>> 32);
+    }
+
+    public static int target(long pair) {
+        return (int) pair;
+    }
+
+    /**
+     * @return the code as a string, only needed off the hot path, e.g. to query the database
+     */
+    public static String toCode(int code) {
+        return new String(new char[] { (char) (code >>> 16), (char) (code >>> 8 & 0xFF), (char) (code & 0xFF) });
+    }
+
+    /**
+     * @return concatenated codes of the pair, e.g. {@code USDEUR}
+     */
+    public static String toCodes(long pair) {
+        return toCode(base(pair)) + toCode(target(pair));
+    }
+
+    private static int packChar(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - ('a' - 'A');
+        }
+        return c > ' ' && c < 0x7F ? c : -1;
+    }
+}
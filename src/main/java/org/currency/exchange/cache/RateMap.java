@@ -0,0 +1,210 @@
+package org.currency.exchange.cache;
+
+import java.util.Arrays;
+
+import org.currency.exchange.model.ExchangeRate;
+
+/**
+ * Open-addressing map from a {@link PairKey} pair to a rate and its expiry time, kept in access order.
+ * <p>
+ * Keys, values and the doubly linked access-order list live in parallel arrays, so lookups, updates
+ * and moving an entry to the most recent end allocate nothing. Collisions are resolved by linear
+ * probing and removal shifts the following entries back, so there are no tombstones. The table is
+ * kept at most half full and doubles when it would get fuller. Key 0 marks an empty slot, which no
+ * packed pair can be.
+ * <p>
+ * Not thread-safe: {@link ExchangeRateCache} guards it with its lock.
+ */
+final class RateMap {
+    private static final int NIL = -1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private ExchangeRate[] rates;
+    private long[] expiresAt;
+    // neighbours in access order, least recently used first
+    private int[] before;
+    private int[] after;
+    private int mask;
+    private int size;
+    private int head = NIL;
+    private int tail = NIL;
+
+    RateMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return slot of {@code key} or a negative value
+     */
+    int find(long key) {
+        for (int slot = home(key); ; slot = (slot + 1) & mask) {
+            long k = keys[slot];
+            if (k == key) {
+                return slot;
+            }
+            if (k == 0) {
+                return NIL;
+            }
+        }
+    }
+
+    ExchangeRate rate(int slot) {
+        return rates[slot];
+    }
+
+    long expiresAt(int slot) {
+        return expiresAt[slot];
+    }
+
+    /**
+     * Marks the entry in {@code slot} as the most recently used
+     */
+    void touch(int slot) {
+        if (slot != tail) {
+            unlink(slot);
+            linkLast(slot);
+        }
+    }
+
+    /**
+     * Inserts or replaces the entry of {@code key} and makes it the most recently used
+     */
+    void put(long key, ExchangeRate rate, long expires) {
+        int slot = find(key);
+        if (slot < 0) {
+            if ((size + 1) * 2L > keys.length) {
+                resize(keys.length * 2);
+            }
+            slot = home(key);
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            linkLast(slot);
+            size++;
+        } else {
+            touch(slot);
+        }
+        rates[slot] = rate;
+        expiresAt[slot] = expires;
+    }
+
+    boolean remove(long key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return false;
+        }
+        removeSlot(slot);
+        return true;
+    }
+
+    void removeEldest() {
+        if (head != NIL) {
+            removeSlot(head);
+        }
+    }
+
+    void removeSlot(int slot) {
+        unlink(slot);
+        size--;
+        // shift back every following entry of the probe run that may live in the hole
+        int hole = slot;
+        for (int i = (slot + 1) & mask; keys[i] != 0; i = (i + 1) & mask) {
+            if (((i - home(keys[i])) & mask) >= ((i - hole) & mask)) {
+                move(i, hole);
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+        rates[hole] = null;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(rates, null);
+        size = 0;
+        head = NIL;
+        tail = NIL;
+    }
+
+    private int home(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ h >>> 32) & mask;
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        rates[to] = rates[from];
+        expiresAt[to] = expiresAt[from];
+        int prev = before[from];
+        int next = after[from];
+        before[to] = prev;
+        after[to] = next;
+        if (prev == NIL) {
+            head = to;
+        } else {
+            after[prev] = to;
+        }
+        if (next == NIL) {
+            tail = to;
+        } else {
+            before[next] = to;
+        }
+    }
+
+    private void unlink(int slot) {
+        int prev = before[slot];
+        int next = after[slot];
+        if (prev == NIL) {
+            head = next;
+        } else {
+            after[prev] = next;
+        }
+        if (next == NIL) {
+            tail = prev;
+        } else {
+            before[next] = prev;
+        }
+    }
+
+    private void linkLast(int slot) {
+        before[slot] = tail;
+        after[slot] = NIL;
+        if (tail == NIL) {
+            head = slot;
+        } else {
+            after[tail] = slot;
+        }
+        tail = slot;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        rates = new ExchangeRate[capacity];
+        expiresAt = new long[capacity];
+        before = new int[capacity];
+        after = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        ExchangeRate[] oldRates = rates;
+        long[] oldExpiresAt = expiresAt;
+        int[] oldAfter = after;
+        int oldHead = head;
+        allocate(capacity);
+        size = 0;
+        head = NIL;
+        tail = NIL;
+        // reinsert in access order so the list comes out the same
+        for (int slot = oldHead; slot != NIL; slot = oldAfter[slot]) {
+            put(oldKeys[slot], oldRates[slot], oldExpiresAt[slot]);
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package org.currency.exchange.cache;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.FixedPoint;
+
+/**
+ * Every stored exchange rate in a dense N&times;N matrix off the heap, indexed by currency ordinal.
+ * <p>
+ * Currencies get ordinals 0..N-1 at load, and the rate of {@code base -> target} lives in the slot at
+ * row {@code base}, column {@code target}. A slot is 16 bytes, the rate and then the rate id; rows are
+ * padded to whole 64-byte cache lines and the buffer is aligned to one, so a slot never straddles two
+ * lines. A missing pair holds {@link FixedPoint#NONE}. The heap keeps one {@link Currency} per ordinal
+ * and a small open-addressing index from {@link PairKey} codes to ordinals, instead of an
+ * {@link ExchangeRate} with two currencies per pair; a lookup builds its {@link ExchangeRate} on the
+ * way out.
+ * <p>
+ * Readers never lock: they read the current layout from a volatile field and the rate with acquire
+ * semantics, pairing with the release write of {@link #putRate(long, int, long)} and
+ * {@link #updateRate(long, long)}, which write the id before the rate. Writers are serialized and must
+ * call them after the database commit, in commit order. Anything that changes the set of currencies
+ * goes through {@link #invalidate()}, and the next reader rebuilds the matrix with
+ * {@link #loadIfAbsent(Supplier, Supplier)}. A load builds a new layout and publishes it in one volatile
+ * write, unless a write happened while it was reading, like {@link ExchangeRateCache#put}.
+ * <p>
+ * Direct memory is freed only when the garbage collector gets to the buffer, so a load reuses the buffer
+ * of the layout dropped or replaced before it when that one is large enough, and allocates about
+ * {@code 16 * N * N} bytes otherwise. Buffers are sized in steps of {@value #CAPACITY_STEP} currencies,
+ * so a burst of currency writes, each invalidating the matrix, rebuilds it in the same buffer; at most
+ * two buffers, the published one and the spare, are held. A reader that was still using the spare when
+ * it was handed on notices and reads again from the current layout.
+ * <p>
+ * Cross rates derived along paths stay in {@code ConversionGraph}, which already keeps them in
+ * primitive arrays indexed by ordinal.
+ */
+public final class RateMatrix {
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.nativeOrder());
+    private static final int SLOT_BYTES = 16;
+    private static final int ID_OFFSET = 8;
+    private static final int CACHE_LINE = 64;
+    // buffers are sized for a multiple of this many currencies
+    private static final int CAPACITY_STEP = 32;
+
+    private final int maxCurrencies;
+    private final Object loadLock = new Object();
+    private volatile Layout layout;
+    // guarded by this
+    private long generation;
+    // guarded by this; the last layout dropped, replaced or not published, its buffer is up for reuse
+    private Layout spare;
+    // set when the currencies did not fit, cleared when they change
+    private volatile boolean oversized;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder allocations = new LongAdder();
+    private volatile long lastLoadMicros;
+
+    /**
+     * @param maxCurrencies largest N loaded, the matrix takes {@code 16 * N * N} bytes; 0 disables it
+     */
+    public RateMatrix(int maxCurrencies) {
+        // a ByteBuffer holds at most 2 GiB
+        if (maxCurrencies < 0 || maxCurrencies > 8_192) {
+            throw new IllegalArgumentException("Currencies must be between 0 and 8192: " + maxCurrencies);
+        }
+        this.maxCurrencies = maxCurrencies;
+    }
+
+    private static class RateMatrixHelper {
+        private static final RateMatrix INSTANCE = new RateMatrix(
+                AppConfig.getInt("rates.matrix.maxCurrencies", 1_024));
+    }
+
+    public static RateMatrix getInstance() {
+        return RateMatrixHelper.INSTANCE;
+    }
+
+    public boolean isLoaded() {
+        return layout != null;
+    }
+
+    /**
+     * Stored rate of a pair
+     *
+     * @param pair          packed by {@link PairKey}
+     * @param whenNotLoaded answers instead while the matrix is not loaded
+     * @return rate or null when either currency is unknown or the pair has no stored rate
+     */
+    public ExchangeRate get(long pair, LongFunction<ExchangeRate> whenNotLoaded) {
+        while (true) {
+            Layout current = layout;
+            if (current == null) {
+                return whenNotLoaded.apply(pair);
+            }
+            int base = current.ordinal(PairKey.base(pair));
+            int target = current.ordinal(PairKey.target(pair));
+            if (base < 0 || target < 0) {
+                return null;
+            }
+            int offset = current.offset(base, target);
+            long rate = (long) LONGS.getAcquire(current.slots, offset);
+            long id = (long) LONGS.getAcquire(current.slots, offset + ID_OFFSET);
+            if (current.reused) {
+                // the buffer went to a newer load while it was read, the slot may belong to another pair
+                continue;
+            }
+            if (rate == FixedPoint.NONE) {
+                return null;
+            }
+            return new ExchangeRate((int) id, current.currencies[base], current.currencies[target], rate);
+        }
+    }
+
+    /**
+     * @return counter bumped by every write, taken by a loader before it reads the database
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Loads the matrix unless it is loaded, one caller at a time; the others wait and use its result
+     *
+     * @return true when the matrix is loaded, false when it is disabled, the currencies do not fit or a
+     * write raced with the load
+     */
+    public boolean loadIfAbsent(Supplier<? extends Collection<Currency>> currencies,
+                                Supplier<? extends Collection<ExchangeRate>> rates) {
+        if (maxCurrencies == 0 || oversized) {
+            return false;
+        }
+        if (layout != null) {
+            return true;
+        }
+        synchronized (loadLock) {
+            if (layout != null) {
+                return true;
+            }
+            long loadedAt = generation();
+            return load(currencies.get(), rates.get(), loadedAt);
+        }
+    }
+
+    /**
+     * Replaces the matrix with {@code currencies} and {@code rates}, e.g. with the data warmed up at start
+     *
+     * @param loadedAt {@link #generation()} taken before the data was read
+     * @return false when it was not published
+     */
+    public boolean load(Collection<Currency> currencies, Collection<ExchangeRate> rates, long loadedAt) {
+        if (maxCurrencies == 0) {
+            return false;
+        }
+        long start = System.nanoTime();
+        List<Currency> indexed = new ArrayList<>(currencies.size());
+        for (Currency currency : currencies) {
+            if (PairKey.code(currency.getCode()) != (int) PairKey.INVALID) {
+                indexed.add(currency);
+            }
+        }
+        if (indexed.size() > maxCurrencies) {
+            oversized = true;
+            return false;
+        }
+        Currency[] ordered = indexed.toArray(new Currency[0]);
+        Layout next = new Layout(ordered, buffer(Layout.bytes(ordered.length)));
+        for (ExchangeRate rate : rates) {
+            int base = next.ordinal(PairKey.code(rate.getBaseCurrency().getCode()));
+            int target = next.ordinal(PairKey.code(rate.getTargetCurrency().getCode()));
+            if (base >= 0 && target >= 0) {
+                // release writes, so a reader of a reused buffer that sees them also sees it was reused
+                int offset = next.offset(base, target);
+                LONGS.setRelease(next.slots, offset + ID_OFFSET, (long) rate.getId());
+                LONGS.setRelease(next.slots, offset, rate.getRate());
+            }
+        }
+        synchronized (this) {
+            if (generation != loadedAt) {
+                spare = next;
+                return false;
+            }
+            if (layout != null) {
+                spare = layout;
+            }
+            layout = next;
+            oversized = false;
+        }
+        loads.increment();
+        lastLoadMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+        return true;
+    }
+
+    /**
+     * Stores a newly created rate; pairs that cannot be packed are never served from the matrix
+     */
+    public synchronized void putRate(long pair, int id, long rate) {
+        if (pair == PairKey.INVALID) {
+            return;
+        }
+        generation++;
+        Layout current = layout;
+        if (current == null) {
+            return;
+        }
+        int base = current.ordinal(PairKey.base(pair));
+        int target = current.ordinal(PairKey.target(pair));
+        if (base < 0 || target < 0) {
+            // a currency the matrix has not seen yet
+            drop();
+            return;
+        }
+        int offset = current.offset(base, target);
+        LONGS.set(current.slots, offset + ID_OFFSET, (long) id);
+        LONGS.setRelease(current.slots, offset, rate);
+    }
+
+    /**
+     * Replaces the value of a stored rate
+     */
+    public synchronized void updateRate(long pair, long rate) {
+        if (pair == PairKey.INVALID) {
+            return;
+        }
+        generation++;
+        Layout current = layout;
+        if (current == null) {
+            return;
+        }
+        int base = current.ordinal(PairKey.base(pair));
+        int target = current.ordinal(PairKey.target(pair));
+        if (base < 0 || target < 0 || (long) LONGS.get(current.slots, current.offset(base, target))
+                == FixedPoint.NONE) {
+            // the matrix missed the rate being created, its id is unknown
+            drop();
+            return;
+        }
+        LONGS.setRelease(current.slots, current.offset(base, target), rate);
+    }
+
+    /**
+     * Drops the matrix after currencies changed; it is rebuilt on next use
+     */
+    public synchronized void invalidate() {
+        generation++;
+        oversized = false;
+        drop();
+    }
+
+    private void drop() {
+        if (layout != null) {
+            spare = layout;
+            layout = null;
+            invalidations.increment();
+        }
+    }
+
+    /**
+     * Takes the spare buffer when it holds {@code bytes}, marking its layout as reused, or allocates one
+     */
+    private ByteBuffer buffer(int bytes) {
+        synchronized (this) {
+            Layout previous = spare;
+            spare = null;
+            if (previous != null && previous.slots.capacity() >= bytes) {
+                previous.reused = true;
+                return previous.slots;
+            }
+        }
+        allocations.increment();
+        return ByteBuffer.allocateDirect(bytes + CACHE_LINE).alignedSlice(CACHE_LINE);
+    }
+
+    public RateMatrixStats getStats() {
+        Layout current = layout;
+        int size = current == null ? 0 : current.currencies.length;
+        long bytes = current == null ? 0 : current.slots.capacity();
+        return new RateMatrixStats(current != null, size, maxCurrencies, bytes, loads.sum(),
+                lastLoadMicros, invalidations.sum(), allocations.sum());
+    }
+
+    /**
+     * Currencies, their ordinals and the rate slots of one load. Only rate slots change afterwards, until
+     * the buffer is handed to a newer load.
+     */
+    private static final class Layout {
+        private final Currency[] currencies;
+        // open addressing from packed code to ordinal, code 0 marks an empty slot
+        private final int[] codes;
+        private final int[] ordinals;
+        private final int mask;
+        private final int rowBytes;
+        private final ByteBuffer slots;
+        private volatile boolean reused;
+
+        private Layout(Currency[] currencies, ByteBuffer buffer) {
+            this.currencies = currencies;
+            int capacity = Integer.highestOneBit(Math.max(currencies.length, 4) * 2 - 1) << 1;
+            this.codes = new int[capacity];
+            this.ordinals = new int[capacity];
+            this.mask = capacity - 1;
+            for (int ordinal = 0; ordinal < currencies.length; ordinal++) {
+                int code = PairKey.code(currencies[ordinal].getCode());
+                int slot = home(code);
+                while (codes[slot] != 0 && codes[slot] != code) {
+                    slot = (slot + 1) & mask;
+                }
+                // case-insensitive duplicates keep the first currency
+                if (codes[slot] == 0) {
+                    codes[slot] = code;
+                    ordinals[slot] = ordinal;
+                }
+            }
+
+            int n = currencies.length;
+            this.rowBytes = rowBytes(n);
+            this.slots = buffer;
+            for (int offset = 0, size = Math.max(rowBytes * n, CACHE_LINE); offset < size; offset += SLOT_BYTES) {
+                LONGS.setRelease(slots, offset, FixedPoint.NONE);
+            }
+        }
+
+        private static int rowBytes(int n) {
+            return (n * SLOT_BYTES + CACHE_LINE - 1) / CACHE_LINE * CACHE_LINE;
+        }
+
+        /**
+         * Size of a buffer for {@code n} currencies, rounded up to the next step
+         */
+        private static int bytes(int n) {
+            int room = Math.max((n + CAPACITY_STEP - 1) / CAPACITY_STEP * CAPACITY_STEP, CAPACITY_STEP);
+            return rowBytes(room) * room;
+        }
+
+        private int ordinal(int code) {
+            if (code < 0) {
+                return -1;
+            }
+            for (int slot = home(code); codes[slot] != 0; slot = (slot + 1) & mask) {
+                if (codes[slot] == code) {
+                    return ordinals[slot];
+                }
+            }
+            return -1;
+        }
+
+        private int offset(int base, int target) {
+            return base * rowBytes + target * SLOT_BYTES;
+        }
+
+        private int home(int code) {
+            return (code * 0x9E3779B9 >>> 16) & mask;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.currency.exchange.cache;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of {@link RateMatrix} size and load counters
+ */
+@Getter
+public class RateMatrixStats {
+    private final boolean loaded;
+    private final int currencies;
+    private final int maxCurrencies;
+    private final long offHeapBytes;
+    private final long loads;
+    private final long lastLoadMicros;
+    private final long invalidations;
+    // direct buffers allocated, loads that reused the previous one do not count
+    private final long allocations;
+
+    public RateMatrixStats(boolean loaded, int currencies, int maxCurrencies, long offHeapBytes, long loads,
+                           long lastLoadMicros, long invalidations, long allocations) {
+        this.loaded = loaded;
+        this.currencies = currencies;
+        this.maxCurrencies = maxCurrencies;
+        this.offHeapBytes = offHeapBytes;
+        this.loads = loads;
+        this.lastLoadMicros = lastLoadMicros;
+        this.invalidations = invalidations;
+        this.allocations = allocations;
+    }
+}
@@ -0,0 +1,96 @@
+package org.currency.exchange.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.LongSupplier;
+
+/**
+ * Holds the serialized body of one endpoint together with its ETag and the data version it was
+ * built from. The entry is ignored as soon as the version moves on.
+ */
+public class ResponseCache {
+    private final LongSupplier version;
+    private volatile CachedResponse entry;
+
+    /**
+     * @param version current version of the data the response is built from, e.g.
+     *                {@link DataVersion#currencies()}
+     */
+    public ResponseCache(LongSupplier version) {
+        this.version = version;
+    }
+
+    /**
+     * @return cached response or null when it is missing or stale
+     */
+    public CachedResponse get() {
+        CachedResponse current = entry;
+        return current != null && current.getVersion() == version.getAsLong() ? current : null;
+    }
+
+    /**
+     * @return version to pass to {@link #put(byte[], long)}; take it before reading the data
+     */
+    public long currentVersion() {
+        return version.getAsLong();
+    }
+
+    public CachedResponse put(byte[] body, long builtAt) {
+        CachedResponse response = new CachedResponse(body, etag(body), builtAt);
+        entry = response;
+        return response;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return '"' + HexFormat.of().formatHex(digest, 0, 16) + '"';
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return true when the {@code If-None-Match} header value matches this ETag
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static final class CachedResponse {
+        private final byte[] body;
+        private final String etag;
+        private final long version;
+
+        private CachedResponse(byte[] body, String etag, long version) {
+            this.body = body;
+            this.etag = etag;
+            this.version = version;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+}
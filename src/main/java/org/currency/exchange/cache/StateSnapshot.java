@@ -0,0 +1,211 @@
+package org.currency.exchange.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+
+import lombok.Getter;
+
+/**
+ * Compact binary copy of the currencies and exchange rates, used to warm the in-memory state on start
+ * without querying the database.
+ * <p>
+ * Written at clean shutdown and memory-mapped on the next start. It records the size and modification
+ * time of the database file, its write-ahead log and the fixed-point scale; if any of them differ on start
+ * the snapshot is ignored, since the database changed behind its back. Layout, big-endian:
+ * <pre>
+ * int magic, int format, int scale, long dbSize, long dbModified, long walSize
+ * int currencyCount, currencyCount * (long id, str code, str fullName, str sign)
+ * int rateCount, rateCount * (int id, long baseId, long targetId, long rate)
+ * long crc32 of everything before
+ * </pre>
+ * where {@code str} is an unsigned short byte length followed by UTF-8 bytes.
+ */
+@Getter
+public class StateSnapshot {
+    private static final int MAGIC = 0x43585331; // "CXS1"
+    private static final int FORMAT = 1;
+
+    private final List<Currency> currencies;
+    private final List<ExchangeRate> rates;
+
+    public StateSnapshot(List<Currency> currencies, List<ExchangeRate> rates) {
+        this.currencies = currencies;
+        this.rates = rates;
+    }
+
+    /**
+     * Writes the snapshot next to {@code file} and moves it in place, so a reader never sees a partial one
+     */
+    public static void write(Path file, Collection<Currency> currencies, Collection<ExchangeRate> rates,
+                             SourceStamp stamp) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + currencies.size() * 48 + rates.size() * 28);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT);
+        out.writeInt(FixedPoint.SCALE);
+        out.writeLong(stamp.size);
+        out.writeLong(stamp.modified);
+        out.writeLong(stamp.walSize);
+        out.writeInt(currencies.size());
+        for (Currency currency : currencies) {
+            out.writeLong(currency.getId());
+            writeString(out, currency.getCode());
+            writeString(out, currency.getFullName());
+            writeString(out, currency.getSign());
+        }
+        out.writeInt(rates.size());
+        for (ExchangeRate rate : rates) {
+            out.writeInt(rate.getId());
+            out.writeLong(rate.getBaseCurrency().getId());
+            out.writeLong(rate.getTargetCurrency().getId());
+            out.writeLong(rate.getRate());
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeLong(crc.getValue());
+        out.flush();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, bytes.toByteArray());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > 0xFFFF) {
+            throw new IOException("String too long for a snapshot: " + utf8.length + " bytes");
+        }
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+
+    /**
+     * Maps and decodes the snapshot
+     *
+     * @return snapshot, or null when there is none or it does not match {@code stamp}, the current scale
+     *         or its checksum
+     */
+    public static StateSnapshot read(Path file, SourceStamp stamp) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        try {
+            return decode(buffer, stamp);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static StateSnapshot decode(ByteBuffer buffer, SourceStamp stamp) {
+        int payloadLength = buffer.limit() - Long.BYTES;
+        if (payloadLength < 0) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(payloadLength));
+        if (crc.getValue() != buffer.getLong(payloadLength)) {
+            return null;
+        }
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT || buffer.getInt() != FixedPoint.SCALE) {
+            return null;
+        }
+        if (!new SourceStamp(buffer.getLong(), buffer.getLong(), buffer.getLong()).equals(stamp)) {
+            return null;
+        }
+
+        int currencyCount = buffer.getInt();
+        List<Currency> currencies = new ArrayList<>(currencyCount);
+        Map<Long, Currency> byId = new HashMap<>(currencyCount * 2);
+        for (int i = 0; i < currencyCount; i++) {
+            Currency currency = new Currency(buffer.getLong(), readString(buffer), readString(buffer),
+                    readString(buffer));
+            currencies.add(currency);
+            byId.put(currency.getId(), currency);
+        }
+        int rateCount = buffer.getInt();
+        List<ExchangeRate> rates = new ArrayList<>(rateCount);
+        for (int i = 0; i < rateCount; i++) {
+            int id = buffer.getInt();
+            Currency base = byId.get(buffer.getLong());
+            Currency target = byId.get(buffer.getLong());
+            long rate = buffer.getLong();
+            if (base == null || target == null) {
+                return null;
+            }
+            rates.add(new ExchangeRate(id, base, target, rate));
+        }
+        return new StateSnapshot(currencies, rates);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Size and modification time of a database file and its write-ahead log, taken while no connection
+     * is open
+     */
+    public static final class SourceStamp {
+        private final long size;
+        private final long modified;
+        private final long walSize;
+
+        SourceStamp(long size, long modified, long walSize) {
+            this.size = size;
+            this.modified = modified;
+            this.walSize = walSize;
+        }
+
+        /**
+         * @return stamp of {@code database}, or null when it does not exist
+         */
+        public static SourceStamp of(Path database) throws IOException {
+            if (!Files.exists(database)) {
+                return null;
+            }
+            Path wal = database.resolveSibling(database.getFileName() + "-wal");
+            return new SourceStamp(Files.size(database), Files.getLastModifiedTime(database).toMillis(),
+                    Files.exists(wal) ? Files.size(wal) : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof SourceStamp)) {
+                return false;
+            }
+            SourceStamp other = (SourceStamp) o;
+            return size == other.size && modified == other.modified && walSize == other.walSize;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(size) * 31 * 31 + Long.hashCode(modified) * 31 + Long.hashCode(walSize);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package org.currency.exchange.controller;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.RequestExecutor;
+import org.currency.exchange.util.ResponseUtil;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Base for servlets that block on the database.
+ * <p>
+ * {@link #service(HttpServletRequest, HttpServletResponse)} puts the request in async mode and runs the
+ * usual {@code doGet}/{@code doPost}/... dispatch on {@link RequestExecutor}, so the container thread is
+ * returned right away. When the concurrency limit is reached the request is answered with 503, and so is a
+ * request still running after {@code async.timeoutMillis}; the handler's later writes to it are dropped.
+ * Subclasses need {@code asyncSupported = true} on their {@code @WebServlet}; without it (or behind a
+ * filter that does not support async) the request is handled inline as before.
+ */
+public abstract class AsyncServlet extends HttpServlet {
+    private static final long TIMEOUT_MILLIS = AppConfig.getLong("async.timeoutMillis", 30_000);
+
+    private final RequestExecutor executor;
+
+    protected AsyncServlet() {
+        this(null);
+    }
+
+    // Constructor for testing
+    protected AsyncServlet(RequestExecutor executor) {
+        this.executor = executor;
+    }
+
+    private RequestExecutor executor() {
+        return executor != null ? executor : RequestExecutor.getInstance();
+    }
+
+    @Override
+    protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (!req.isAsyncSupported()) {
+            super.service(req, resp);
+            return;
+        }
+
+        AsyncContext async = req.startAsync(req, resp);
+        GuardedResponse guarded = new GuardedResponse(resp, async);
+        async.addListener(guarded);
+        async.setTimeout(TIMEOUT_MILLIS);
+        if (!executor().tryExecute(() -> handle(req, guarded))) {
+            guarded.finish();
+            resp.setHeader("Retry-After", "1");
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server is busy");
+            async.complete();
+        }
+    }
+
+    private void handle(HttpServletRequest req, GuardedResponse resp) {
+        if (resp.isFinished()) {
+            // timed out while waiting for a worker
+            return;
+        }
+        try {
+            super.service(req, resp);
+        } catch (Exception e) {
+            e.printStackTrace();
+            if (!resp.isCommitted()) {
+                try {
+                    resp.reset();
+                    ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                            "Internal server error");
+                } catch (IOException | IllegalStateException ignored) {
+                    // the client is gone, nothing left to report to
+                }
+            }
+        } finally {
+            if (resp.finish()) {
+                resp.async.complete();
+            }
+        }
+    }
+
+    /**
+     * The response as the handler sees it, and the listener that answers a timed out request.
+     * <p>
+     * Whoever sets {@code finished} first, the handler when it is done or {@link #onTimeout} with a 503,
+     * completes the request. After that every call the handler makes on the response is dropped, since the
+     * container may already have recycled it. The handler's writes and the timeout take the same lock, so a
+     * write either lands before the 503 or not at all; a handler writing to a slow client holds the timeout
+     * back until that write returns.
+     */
+    private static final class GuardedResponse extends HttpServletResponseWrapper implements AsyncListener {
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final AsyncContext async;
+        private PrintWriter writer;
+        private ServletOutputStream out;
+
+        GuardedResponse(HttpServletResponse resp, AsyncContext async) {
+            super(resp);
+            this.async = async;
+        }
+
+        boolean finish() {
+            return finished.compareAndSet(false, true);
+        }
+
+        boolean isFinished() {
+            return finished.get();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) throws IOException {
+            synchronized (this) {
+                if (!finish()) {
+                    return;
+                }
+                HttpServletResponse resp = (HttpServletResponse) getResponse();
+                if (!resp.isCommitted()) {
+                    resp.reset();
+                    ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                            "Request timed out");
+                }
+            }
+            async.complete();
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            finish();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        @Override
+        public synchronized void setStatus(int sc) {
+            if (!isFinished()) {
+                super.setStatus(sc);
+            }
+        }
+
+        @Override
+        public synchronized void setHeader(String name, String value) {
+            if (!isFinished()) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public synchronized void addHeader(String name, String value) {
+            if (!isFinished()) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public synchronized void setContentType(String type) {
+            if (!isFinished()) {
+                super.setContentType(type);
+            }
+        }
+
+        @Override
+        public synchronized void setCharacterEncoding(String charset) {
+            if (!isFinished()) {
+                super.setCharacterEncoding(charset);
+            }
+        }
+
+        @Override
+        public synchronized void setContentLength(int len) {
+            if (!isFinished()) {
+                super.setContentLength(len);
+            }
+        }
+
+        @Override
+        public synchronized void setContentLengthLong(long len) {
+            if (!isFinished()) {
+                super.setContentLengthLong(len);
+            }
+        }
+
+        @Override
+        public synchronized boolean isCommitted() {
+            return isFinished() || super.isCommitted();
+        }
+
+        @Override
+        public synchronized void reset() {
+            if (!isFinished()) {
+                super.reset();
+            }
+        }
+
+        @Override
+        public synchronized void resetBuffer() {
+            if (!isFinished()) {
+                super.resetBuffer();
+            }
+        }
+
+        @Override
+        public synchronized void flushBuffer() throws IOException {
+            if (!isFinished()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public synchronized void sendError(int sc, String msg) throws IOException {
+            if (!isFinished()) {
+                super.sendError(sc, msg);
+            }
+        }
+
+        @Override
+        public synchronized void sendError(int sc) throws IOException {
+            if (!isFinished()) {
+                super.sendError(sc);
+            }
+        }
+
+        @Override
+        public synchronized PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter target = isFinished() ? null : super.getWriter();
+                writer = new PrintWriter(new Writer() {
+                    @Override
+                    public void write(char[] cbuf, int off, int len) {
+                        synchronized (GuardedResponse.this) {
+                            if (target != null && !isFinished()) {
+                                target.write(cbuf, off, len);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void flush() {
+                        synchronized (GuardedResponse.this) {
+                            if (target != null && !isFinished()) {
+                                target.flush();
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void close() {
+                        synchronized (GuardedResponse.this) {
+                            if (target != null && !isFinished()) {
+                                target.close();
+                            }
+                        }
+                    }
+                });
+            }
+            return writer;
+        }
+
+        @Override
+        public synchronized ServletOutputStream getOutputStream() throws IOException {
+            if (out == null) {
+                ServletOutputStream target = isFinished() ? null : super.getOutputStream();
+                out = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            if (target != null && !isFinished()) {
+                                target.write(b);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            if (target != null && !isFinished()) {
+                                target.write(b, off, len);
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            if (target != null && !isFinished()) {
+                                target.flush();
+                            }
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        synchronized (GuardedResponse.this) {
+                            if (target != null && !isFinished()) {
+                                target.close();
+                            }
+                        }
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return target == null || target.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        if (target != null) {
+                            target.setWriteListener(writeListener);
+                        }
+                    }
+                };
+            }
+            return out;
+        }
+    }
+}
@@ -6,16 +6,20 @@ import java.util.Collection;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletResponse;
 
+import org.currency.exchange.cache.DataVersion;
+import org.currency.exchange.cache.ResponseCache;
+import org.currency.exchange.cache.ResponseCache.CachedResponse;
 import org.currency.exchange.dao.CurrencyDAO;
 import org.currency.exchange.model.Currency;
+import org.currency.exchange.util.ObjectMapperUtil;
 import org.currency.exchange.util.ResponseUtil;
 
-@WebServlet(urlPatterns = { "/currencies/*" })
-public class CurrenciesServlet extends HttpServlet {
+@WebServlet(urlPatterns = { "/currencies/*" }, asyncSupported = true)
+public class CurrenciesServlet extends AsyncServlet {
      private final CurrencyDAO currencyDAO;
+     private final ResponseCache responseCache = new ResponseCache(DataVersion.getInstance()::currencies);
 
      public CurrenciesServlet() {
           this.currencyDAO = new CurrencyDAO();
@@ -31,16 +35,25 @@ public class CurrenciesServlet extends HttpServlet {
           String pathInfo = req.getPathInfo();
 
           if (pathInfo == null || pathInfo.equals("/")) {
-               getAllCurrencies(resp);
+               getAllCurrencies(req, resp);
           } else {
                ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, "Invalid path for /currencies");
           }
      }
 
-     private void getAllCurrencies(HttpServletResponse resp) throws IOException {
+     /**
+      * The serialized list is reused until a currency is written; clients polling with
+      * If-None-Match get 304 without a body
+      */
+     private void getAllCurrencies(HttpServletRequest req, HttpServletResponse resp) throws IOException {
           try {
-               Collection<Currency> currencies = currencyDAO.getAllCurrencies();
-               ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK, currencies);
+               CachedResponse cached = responseCache.get();
+               if (cached == null) {
+                    long version = responseCache.currentVersion();
+                    Collection<Currency> currencies = currencyDAO.getAllCurrencies();
+                    cached = responseCache.put(ObjectMapperUtil.getInstance().writeValueAsBytes(currencies), version);
+               }
+               ResponseUtil.sendCachedJsonResponse(req, resp, cached);
           } catch (SQLException e) {
                ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
                          "Database is unavailable");
@@ -7,15 +7,14 @@ import org.currency.exchange.model.Currency;
 import org.currency.exchange.util.ResponseUtil;
 
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Валюты
  */
-@WebServlet(urlPatterns = { "/currency/*" })
-public class CurrencyServlet extends HttpServlet {
+@WebServlet(urlPatterns = { "/currency/*" }, asyncSupported = true)
+public class CurrencyServlet extends AsyncServlet {
     private final CurrencyDAO currencyDAO;
 
     public CurrencyServlet() {
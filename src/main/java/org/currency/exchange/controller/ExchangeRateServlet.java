@@ -1,32 +1,50 @@
 package org.currency.exchange.controller;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 
+import org.currency.exchange.cache.PairKey;
 import org.currency.exchange.dao.CurrencyDAO;
 import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.dao.RateHistoryDAO;
+import org.currency.exchange.dto.RateHistoryDto;
 import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.model.RatePoint;
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.FixedPoint;
 import org.currency.exchange.util.ResponseUtil;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Обменные курсы
  */
-@WebServlet("/exchangeRate/*")
-public class ExchangeRateServlet extends HttpServlet {
+@WebServlet(urlPatterns = { "/exchangeRate/*" }, asyncSupported = true)
+public class ExchangeRateServlet extends AsyncServlet {
+    private static final String HISTORY_SUFFIX = "/history";
+    private static final int MAX_HISTORY_POINTS = AppConfig.getInt("history.maxPoints", 10_000);
+
     private ExchangeRateDAO exchangeRateDAO;
+    private RateHistoryDAO rateHistoryDAO;
 
     public ExchangeRateServlet() {
-        this.exchangeRateDAO = new ExchangeRateDAO(new CurrencyDAO());
+        this(new ExchangeRateDAO(new CurrencyDAO()), new RateHistoryDAO());
     }
 
     // Constructor for testing
     public ExchangeRateServlet(ExchangeRateDAO exchangeRateDAO) {
+        this(exchangeRateDAO, new RateHistoryDAO());
+    }
+
+    // Constructor for testing
+    public ExchangeRateServlet(ExchangeRateDAO exchangeRateDAO, RateHistoryDAO rateHistoryDAO) {
         this.exchangeRateDAO = exchangeRateDAO;
+        this.rateHistoryDAO = rateHistoryDAO;
     }
 
     /**
@@ -41,9 +59,20 @@ public class ExchangeRateServlet extends HttpServlet {
             return;
         }
 
-        String codes = pathInfo.substring(1); // remove leading slash
+        // the common /USDEUR is looked up by the pair packed from the path, without building strings
+        long pair = pathInfo.length() == 7 ? PairKey.pair(pathInfo, 1) : PairKey.INVALID;
+        String codes = null;
+        if (pair == PairKey.INVALID) {
+            codes = pathInfo.substring(1); // remove leading slash
+            if (codes.endsWith(HISTORY_SUFFIX)) {
+                sendHistory(req, resp, codes.substring(0, codes.length() - HISTORY_SUFFIX.length()));
+                return;
+            }
+        }
         try {
-            ExchangeRate rate = exchangeRateDAO.getExchangeRateByCodes(codes);
+            ExchangeRate rate = pair != PairKey.INVALID
+                    ? exchangeRateDAO.getExchangeRate(pair)
+                    : exchangeRateDAO.getExchangeRateByCodes(codes);
 
             if (rate == null) {
                 ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
@@ -58,6 +87,75 @@ public class ExchangeRateServlet extends HttpServlet {
         }
     }
 
+    /**
+     * История обменного курса: {@code /exchangeRate/USDEUR/history?from=&to=&limit=} returns the rates
+     * recorded in the range oldest first, {@code ?at=} the single rate in effect at that moment.
+     * Timestamps are ISO-8601 instants, e.g. {@code 2024-05-01T14:05:00Z}.
+     */
+    private void sendHistory(HttpServletRequest req, HttpServletResponse resp, String codes) throws IOException {
+        Long at;
+        Long from;
+        Long to;
+        try {
+            at = parseInstant(req.getParameter("at"));
+            from = parseInstant(req.getParameter("from"));
+            to = parseInstant(req.getParameter("to"));
+        } catch (DateTimeParseException | ArithmeticException e) {
+            sendBadRequest(resp, "Invalid timestamp, expected an ISO-8601 instant like 2024-05-01T14:05:00Z");
+            return;
+        }
+        int limit;
+        try {
+            String limitValue = req.getParameter("limit");
+            limit = limitValue == null ? MAX_HISTORY_POINTS : Integer.parseInt(limitValue.trim());
+        } catch (NumberFormatException e) {
+            sendBadRequest(resp, "Invalid limit");
+            return;
+        }
+        if (limit <= 0) {
+            sendBadRequest(resp, "Invalid limit");
+            return;
+        }
+        if (from != null && to != null && from > to) {
+            sendBadRequest(resp, "'from' must not be after 'to'");
+            return;
+        }
+
+        try {
+            ExchangeRate rate = exchangeRateDAO.getExchangeRateByCodes(codes);
+            if (rate == null) {
+                ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "Exchange rate not found");
+                return;
+            }
+
+            List<RatePoint> points;
+            if (at != null) {
+                RatePoint point = rateHistoryDAO.getRateAt(rate.getId(), at);
+                if (point == null) {
+                    ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
+                            "No exchange rate recorded at that time");
+                    return;
+                }
+                points = List.of(point);
+            } else {
+                points = rateHistoryDAO.getHistory(rate.getId(),
+                        from == null ? Long.MIN_VALUE : from,
+                        to == null ? RateHistoryDAO.nowMicros() : to,
+                        Math.min(limit, MAX_HISTORY_POINTS));
+            }
+            ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK, new RateHistoryDto(
+                    rate.getBaseCurrency().getCode(), rate.getTargetCurrency().getCode(), points));
+        } catch (Exception e) {
+            e.printStackTrace();
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Database is unavailable");
+        }
+    }
+
+    private static Long parseInstant(String value) {
+        return value == null || value.isBlank() ? null : RateHistoryDAO.toMicros(Instant.parse(value.trim()));
+    }
+
     /**
      * Обновление обменного курса
      */
@@ -80,7 +178,7 @@ public class ExchangeRateServlet extends HttpServlet {
         String targetCurrencyCode = code.substring(3, 6);
 
         try {
-            Double rate = extractRate(req, resp);
+            Long rate = extractRate(req, resp);
             if (rate == null)
                 return;
 
@@ -114,10 +212,10 @@ public class ExchangeRateServlet extends HttpServlet {
         ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, message);
     }
 
-    private Double extractRate(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+    private Long extractRate(HttpServletRequest req, HttpServletResponse resp) throws IOException {
         String rateValue = req.getParameter("rate");
         try {
-            return Double.parseDouble(rateValue);
+            return FixedPoint.parse(rateValue);
         } catch (Exception e) {
             sendBadRequest(resp, "Invalid JSON body");
         }
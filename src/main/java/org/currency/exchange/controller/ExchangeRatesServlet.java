@@ -1,27 +1,42 @@
 package org.currency.exchange.controller;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 
+import org.currency.exchange.cache.DataVersion;
+import org.currency.exchange.cache.PairKey;
+import org.currency.exchange.cache.ResponseCache;
+import org.currency.exchange.cache.ResponseCache.CachedResponse;
 import org.currency.exchange.dao.CurrencyDAO;
 import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.dto.BatchItemDto;
+import org.currency.exchange.dto.BatchResultDto;
 import org.currency.exchange.dto.ExchangeRateDto;
 import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.JsonArrayStream;
 import org.currency.exchange.util.ObjectMapperUtil;
 import org.currency.exchange.util.ResponseUtil;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Обменные курсы
  */
-@WebServlet(urlPatterns = { "/exchangeRates/*" })
-public class ExchangeRatesServlet extends HttpServlet {
+@WebServlet(urlPatterns = { "/exchangeRates/*" }, asyncSupported = true)
+public class ExchangeRatesServlet extends AsyncServlet {
+    private static final String BATCH_PATH = "/batch";
+    private static final int MAX_BATCH_SIZE = AppConfig.getInt("exchangeRates.batch.maxSize", 10_000);
+
     private final ExchangeRateDAO exchangeRateDAO;
+    private final ResponseCache responseCache = new ResponseCache(DataVersion.getInstance()::exchangeRates);
 
     public ExchangeRatesServlet() {
         this.exchangeRateDAO = new ExchangeRateDAO(new CurrencyDAO());
@@ -41,7 +56,11 @@ public class ExchangeRatesServlet extends HttpServlet {
         
         try {
             if ("/exchangeRates".equals(servletPath)) {
-                getAllExchangeRates(resp);
+                if ("true".equals(req.getParameter("stream"))) {
+                    streamAllExchangeRates(resp);
+                } else {
+                    getAllExchangeRates(req, resp);
+                }
             } else {
                 ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND,
                         "Invalid path");
@@ -53,9 +72,44 @@ public class ExchangeRatesServlet extends HttpServlet {
         }
     }
 
-    private void getAllExchangeRates(HttpServletResponse resp) throws IOException {
-        List<ExchangeRate> rates = exchangeRateDAO.getAllExchangeRates();
-        ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK, rates);
+    /**
+     * The serialized list is reused until a rate or currency is written; clients polling with
+     * If-None-Match get 304 without a body
+     */
+    private void getAllExchangeRates(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        CachedResponse cached = responseCache.get();
+        if (cached == null) {
+            long version = responseCache.currentVersion();
+            List<ExchangeRate> rates = exchangeRateDAO.getAllExchangeRates();
+            cached = responseCache.put(ObjectMapperUtil.getInstance().writeValueAsBytes(rates), version);
+        }
+        ResponseUtil.sendCachedJsonResponse(req, resp, cached);
+    }
+
+    /**
+     * {@code /exchangeRates?stream=true}: rows go from the result set straight to the response,
+     * memory use does not depend on the number of rates
+     */
+    private void streamAllExchangeRates(HttpServletResponse resp) throws IOException {
+        JsonArrayStream out = new JsonArrayStream(resp, HttpServletResponse.SC_OK, ExchangeRate.class);
+        ExchangeRate row = new ExchangeRate(0, null, null, 0);
+        try {
+            exchangeRateDAO.forEachExchangeRate((id, baseCurrency, targetCurrency, rate) -> {
+                row.setId(id);
+                row.setBaseCurrency(baseCurrency);
+                row.setTargetCurrency(targetCurrency);
+                row.setRate(rate);
+                out.write(row);
+            });
+        } catch (RuntimeException e) {
+            if (!out.isStarted()) {
+                throw e;
+            }
+            // status is already sent, the client gets a truncated array
+            e.printStackTrace();
+            return;
+        }
+        out.finish();
     }
 
     /**
@@ -63,7 +117,82 @@ public class ExchangeRatesServlet extends HttpServlet {
      */
     @Override
     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-        addIfNotExists(req, resp);
+        if (BATCH_PATH.equals(req.getPathInfo())) {
+            updateBatch(req, resp);
+        } else {
+            addIfNotExists(req, resp);
+        }
+    }
+
+    /**
+     * Пакетное обновление обменных курсов: {@code /exchangeRates/batch}
+     */
+    @Override
+    protected void doPatch(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        if (BATCH_PATH.equals(req.getPathInfo())) {
+            updateBatch(req, resp);
+        } else {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "Invalid path");
+        }
+    }
+
+    private void updateBatch(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        List<ExchangeRateDto> items;
+        try {
+            items = ObjectMapperUtil.getInstance().readValue(req.getInputStream(),
+                    new TypeReference<List<ExchangeRateDto>>() {
+                    });
+        } catch (JsonProcessingException e) {
+            items = null;
+        }
+        if (items == null) {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, "Invalid JSON body");
+            return;
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                    "Batch is too large, max size is " + MAX_BATCH_SIZE);
+            return;
+        }
+
+        List<ExchangeRateDto> valid = new ArrayList<>(items.size());
+        for (ExchangeRateDto item : items) {
+            if (item != null && !invalidValue(item)) {
+                valid.add(item);
+            }
+        }
+
+        int[] updated;
+        long start = System.nanoTime();
+        try {
+            updated = exchangeRateDAO.updateExchangeRates(valid);
+        } catch (Exception e) {
+            e.printStackTrace();
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Database is unavailable");
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<BatchItemDto> results = new ArrayList<>(items.size());
+        int succeeded = 0;
+        int next = 0;
+        for (ExchangeRateDto item : items) {
+            if (item == null || invalidValue(item)) {
+                results.add(new BatchItemDto(item == null ? null : item.getBaseCurrencyCode(),
+                        item == null ? null : item.getTargetCurrencyCode(),
+                        HttpServletResponse.SC_BAD_REQUEST, "Required field is missing"));
+            } else if (updated[next++] > 0) {
+                succeeded++;
+                results.add(new BatchItemDto(item.getBaseCurrencyCode(), item.getTargetCurrencyCode(),
+                        HttpServletResponse.SC_OK, "Exchange rate has successfully updated"));
+            } else {
+                results.add(new BatchItemDto(item.getBaseCurrencyCode(), item.getTargetCurrencyCode(),
+                        HttpServletResponse.SC_NOT_FOUND, "Exchange rate not found"));
+            }
+        }
+        ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK,
+                new BatchResultDto(results, succeeded, items.size() - succeeded, elapsedNanos));
     }
 
     private void addIfNotExists(HttpServletRequest req, HttpServletResponse resp) throws IOException {
@@ -100,15 +229,17 @@ public class ExchangeRatesServlet extends HttpServlet {
     }
 
     private boolean rateExists(ExchangeRateDto rateDto) {
-        String codes = String.join("", "/", rateDto.getBaseCurrencyCode(),
-                rateDto.getTargetCurrencyCode());
-        ExchangeRate rate = exchangeRateDAO.getExchangeRateByCodes(codes);
+        long pair = PairKey.pair(rateDto.getBaseCurrencyCode(), rateDto.getTargetCurrencyCode());
+        ExchangeRate rate = pair != PairKey.INVALID
+                ? exchangeRateDAO.getExchangeRate(pair)
+                : exchangeRateDAO.getExchangeRateByCodes(rateDto.getBaseCurrencyCode()
+                        + rateDto.getTargetCurrencyCode());
         return rate != null;
     }
 
-    private boolean invalidValue(ExchangeRateDto rateDto) throws IOException {
+    private boolean invalidValue(ExchangeRateDto rateDto) {
         return rateDto.getBaseCurrencyCode() == null
                 || rateDto.getTargetCurrencyCode() == null
-                || rateDto.getRate() <= 0d;
+                || rateDto.getRate() <= 0;
     }
 }
@@ -1,26 +1,307 @@
 package org.currency.exchange.controller;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.currency.exchange.dto.BatchItemDto;
+import org.currency.exchange.dto.ConversionDto;
+import org.currency.exchange.dto.ExchangeDto;
+import org.currency.exchange.service.ExchangeService;
+import org.currency.exchange.service.Quote;
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.FixedPoint;
+import org.currency.exchange.util.ObjectMapperUtil;
+import org.currency.exchange.util.ResponseUtil;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import jakarta.servlet.ServletException;
 import jakarta.servlet.annotation.WebServlet;
-import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 /**
  * Обмен валюты
  */
-@WebServlet(urlPatterns = { "/exchange/*" })
-public class ExchangeServlet extends HttpServlet {
+@WebServlet(urlPatterns = { "/exchange/*" }, asyncSupported = true)
+public class ExchangeServlet extends AsyncServlet {
+     private static final String BATCH_PATH = "/batch";
+     private static final String JSON_CONTENT_TYPE = "application/json";
+     private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+     private static final int MAX_BATCH_SIZE = AppConfig.getInt("exchange.batch.maxSize", 1_000_000);
+     private static final int CHUNK_SIZE = AppConfig.getInt("exchange.batch.chunkSize", 4096);
+     private static final int PARALLEL_THRESHOLD = AppConfig.getInt("exchange.batch.parallelThreshold", 1024);
+     private static final ObjectWriter EXCHANGE_WRITER = ObjectMapperUtil.getInstance().writerFor(ExchangeDto.class);
+     private static final ObjectWriter ITEM_WRITER = ObjectMapperUtil.getInstance().writerFor(BatchItemDto.class);
+
+     private final ExchangeService exchangeService;
+
+     public ExchangeServlet() {
+          this.exchangeService = ExchangeService.getInstance();
+     }
+
+     // Constructor for testing
+     ExchangeServlet(ExchangeService exchangeService) {
+          this.exchangeService = exchangeService;
+     }
 
      /**
       * Расчёт перевода определённого количества средств из одной валюты в другую
       */
      @Override
      protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
-         resp.setContentType("text/plain");
-         resp.getWriter().write("Currency exchange endpoint");
+          String from = req.getParameter("from");
+          String to = req.getParameter("to");
+          String amountValue = req.getParameter("amount");
+
+          if (from == null || to == null || amountValue == null
+                    || from.isBlank() || to.isBlank() || amountValue.isBlank()) {
+               ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                         "Required parameters missing: from, to, amount");
+               return;
+          }
+
+          long amount = parseAmount(amountValue);
+          if (amount <= 0) {
+               ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, "Invalid amount");
+               return;
+          }
+
+          try {
+               ExchangeDto result = exchangeService.exchange(from.toUpperCase(), to.toUpperCase(), amount);
+               if (result == null) {
+                    ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "Exchange rate not found");
+               } else {
+                    ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK, result);
+               }
+          } catch (Exception e) {
+               e.printStackTrace();
+               ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                         "Database is unavailable");
+          }
+     }
+
+     /**
+      * Пакетный расчёт перевода: {@code /exchange/batch}
+      * <p>
+      * The body is a JSON array of {@code {"from","to","amount"}} items, or one item per line with
+      * {@code Content-Type: application/x-ndjson}; the response has the same shape and one result per item,
+      * in order. Items are read, converted and written {@code exchange.batch.chunkSize} at a time, so neither
+      * the request nor the response is held in memory whole. Each pair is resolved once per batch and keeps
+      * that rate for the whole batch; chunks of at least {@code exchange.batch.parallelThreshold} items are
+      * converted and serialized in parallel. A malformed body after the first results have been sent ends
+      * the output with an item carrying the error.
+      */
+     @Override
+     protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+          if (!BATCH_PATH.equals(req.getPathInfo())) {
+               ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "Invalid path");
+               return;
+          }
+
+          MappingIterator<ConversionDto> items;
+          try {
+               items = ObjectMapperUtil.getInstance().readerFor(ConversionDto.class).readValues(req.getInputStream());
+          } catch (JsonProcessingException e) {
+               ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST, "Invalid JSON body");
+               return;
+          }
+
+          BatchOutput out = new BatchOutput(resp, isNdjson(req.getContentType()));
+          Map<String, Quote> quotes = new HashMap<>();
+          ConversionDto[] chunk = new ConversionDto[CHUNK_SIZE];
+          Quote[] resolved = new Quote[CHUNK_SIZE];
+          byte[][] encoded = new byte[CHUNK_SIZE][];
+          long total = 0;
+          try (items) {
+               while (true) {
+                    int size = 0;
+                    String failure = null;
+                    try {
+                         while (size < CHUNK_SIZE && items.hasNextValue()) {
+                              if (total + size == MAX_BATCH_SIZE) {
+                                   failure = "Batch is too large, max size is " + MAX_BATCH_SIZE;
+                                   break;
+                              }
+                              chunk[size] = items.nextValue();
+                              size++;
+                         }
+                    } catch (JsonProcessingException e) {
+                         failure = "Invalid JSON body";
+                    }
+                    total += size;
+
+                    try {
+                         resolve(chunk, resolved, size, quotes);
+                    } catch (RuntimeException e) {
+                         e.printStackTrace();
+                         out.fail(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Database is unavailable");
+                         return;
+                    }
+                    encode(chunk, resolved, encoded, size);
+                    out.write(encoded, size);
+
+                    if (failure != null) {
+                         out.fail(HttpServletResponse.SC_BAD_REQUEST, failure);
+                         return;
+                    }
+                    if (size < CHUNK_SIZE) {
+                         out.finish();
+                         return;
+                    }
+               }
+          }
+     }
+
+     /**
+      * Looks up the quote of every item, going to the service once per distinct pair of the batch
+      */
+     private void resolve(ConversionDto[] chunk, Quote[] resolved, int size, Map<String, Quote> quotes) {
+          for (int i = 0; i < size; i++) {
+               ConversionDto item = chunk[i];
+               resolved[i] = null;
+               if (item == null || isBlank(item.getFrom()) || isBlank(item.getTo())) {
+                    continue;
+               }
+               String from = item.getFrom().toUpperCase();
+               String to = item.getTo().toUpperCase();
+               String pair = from + '/' + to;
+               Quote quote = quotes.get(pair);
+               if (quote == null && !quotes.containsKey(pair)) {
+                    quote = exchangeService.quote(from, to);
+                    quotes.put(pair, quote);
+               }
+               resolved[i] = quote;
+          }
+     }
+
+     private static void encode(ConversionDto[] chunk, Quote[] resolved, byte[][] encoded, int size) {
+          if (size >= PARALLEL_THRESHOLD) {
+               IntStream.range(0, size).parallel().forEach(i -> encoded[i] = encode(chunk[i], resolved[i]));
+          } else {
+               for (int i = 0; i < size; i++) {
+                    encoded[i] = encode(chunk[i], resolved[i]);
+               }
+          }
+     }
+
+     private static byte[] encode(ConversionDto item, Quote quote) {
+          try {
+               if (item == null || isBlank(item.getFrom()) || isBlank(item.getTo()) || isBlank(item.getAmount())) {
+                    return ITEM_WRITER.writeValueAsBytes(new BatchItemDto(item == null ? null : item.getFrom(),
+                              item == null ? null : item.getTo(), HttpServletResponse.SC_BAD_REQUEST,
+                              "Required fields missing: from, to, amount"));
+               }
+               long amount = parseAmount(item.getAmount());
+               if (amount > 0 && quote != null) {
+                    try {
+                         return EXCHANGE_WRITER.writeValueAsBytes(quote.convert(amount));
+                    } catch (ArithmeticException e) {
+                         amount = 0;
+                    }
+               }
+               return ITEM_WRITER.writeValueAsBytes(amount <= 0
+                         ? new BatchItemDto(item.getFrom(), item.getTo(), HttpServletResponse.SC_BAD_REQUEST,
+                                   "Invalid amount")
+                         : new BatchItemDto(item.getFrom(), item.getTo(), HttpServletResponse.SC_NOT_FOUND,
+                                   "Exchange rate not found"));
+          } catch (JsonProcessingException e) {
+               throw new UncheckedIOException(e);
+          }
+     }
+
+     /**
+      * @return amount or 0 when the value is not a decimal in range
+      */
+     private static long parseAmount(String value) {
+          try {
+               return FixedPoint.parse(value.trim());
+          } catch (NumberFormatException e) {
+               return 0;
+          }
+     }
+
+     private static boolean isBlank(String value) {
+          return value == null || value.isBlank();
      }
 
+     private static boolean isNdjson(String contentType) {
+          return contentType != null && (contentType.startsWith(NDJSON_CONTENT_TYPE)
+                    || contentType.startsWith("application/jsonl"));
+     }
+
+     /**
+      * Writes pre-serialized results as a JSON array or as newline-delimited JSON. Nothing is sent until
+      * the first write, so an error before it still gets a regular error response.
+      */
+     private static final class BatchOutput {
+          private static final byte[] NEWLINE = { '\n' };
+
+          private final HttpServletResponse resp;
+          private final boolean ndjson;
+          private OutputStream out;
+          private boolean empty = true;
+
+          BatchOutput(HttpServletResponse resp, boolean ndjson) {
+               this.resp = resp;
+               this.ndjson = ndjson;
+          }
+
+          void write(byte[][] elements, int size) throws IOException {
+               if (size == 0) {
+                    return;
+               }
+               start();
+               for (int i = 0; i < size; i++) {
+                    if (!ndjson) {
+                         out.write(empty ? '[' : ',');
+                    }
+                    out.write(elements[i]);
+                    if (ndjson) {
+                         out.write(NEWLINE);
+                    }
+                    empty = false;
+                    elements[i] = null;
+               }
+               // hand the chunk to the client instead of waiting for the container buffer to fill
+               out.flush();
+          }
+
+          void finish() throws IOException {
+               start();
+               if (!ndjson) {
+                    out.write((empty ? "[]" : "]").getBytes(StandardCharsets.UTF_8));
+               }
+               out.flush();
+          }
+
+          /**
+           * Sends an error response, or ends the started output with an item carrying the error
+           */
+          void fail(int status, String message) throws IOException {
+               if (out == null) {
+                    ResponseUtil.sendErrorResponse(resp, status, message);
+                    return;
+               }
+               write(new byte[][] { ITEM_WRITER.writeValueAsBytes(new BatchItemDto(null, null, status, message)) }, 1);
+               finish();
+          }
+
+          private void start() throws IOException {
+               if (out != null) {
+                    return;
+               }
+               resp.setStatus(HttpServletResponse.SC_OK);
+               resp.setContentType(ndjson ? NDJSON_CONTENT_TYPE : JSON_CONTENT_TYPE);
+               resp.setCharacterEncoding("UTF-8");
+               out = resp.getOutputStream();
+          }
+     }
 }
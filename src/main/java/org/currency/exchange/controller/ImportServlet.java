@@ -0,0 +1,79 @@
+package org.currency.exchange.controller;
+
+import java.io.IOException;
+
+import org.currency.exchange.dao.BulkImportDAO;
+import org.currency.exchange.dao.DatabaseException;
+import org.currency.exchange.dto.ImportResultDto;
+import org.currency.exchange.util.ImportRows;
+import org.currency.exchange.util.ResponseUtil;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Массовая загрузка валют и обменных курсов.
+ * <p>
+ * Not an {@link AsyncServlet}: an import of a large file runs longer than the async timeout, and it
+ * writes through the single writer anyway.
+ */
+@WebServlet(urlPatterns = { "/import/*" })
+public class ImportServlet extends HttpServlet {
+    private static final String CURRENCIES_PATH = "/currencies";
+    private static final String EXCHANGE_RATES_PATH = "/exchangeRates";
+
+    private final BulkImportDAO bulkImportDAO;
+
+    public ImportServlet() {
+        this.bulkImportDAO = new BulkImportDAO();
+    }
+
+    // Constructor for testing
+    ImportServlet(BulkImportDAO bulkImportDAO) {
+        this.bulkImportDAO = bulkImportDAO;
+    }
+
+    /**
+     * Загрузка файла: {@code /import/currencies} или {@code /import/exchangeRates}.
+     * {@code Content-Type: text/csv} is read as CSV, anything else as JSON; the body is streamed, existing
+     * currencies and pairs are updated
+     */
+    @Override
+    protected void doPost(HttpServletRequest req, HttpServletResponse resp) throws ServletException, IOException {
+        String pathInfo = req.getPathInfo();
+        if (!CURRENCIES_PATH.equals(pathInfo) && !EXCHANGE_RATES_PATH.equals(pathInfo)) {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "Invalid path");
+            return;
+        }
+
+        boolean csv = ImportRows.isCsv(req.getContentType());
+        ImportResultDto result;
+        try {
+            if (CURRENCIES_PATH.equals(pathInfo)) {
+                result = bulkImportDAO.importCurrencies(ImportRows.currencies(req.getInputStream(), csv));
+            } else {
+                result = bulkImportDAO.importExchangeRates(ImportRows.exchangeRates(req.getInputStream(), csv));
+            }
+        } catch (DatabaseException e) {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Database is unavailable");
+            return;
+        } catch (JsonProcessingException | RuntimeException e) {
+            // the row iterators report a malformed body unchecked, wrapping the parser's IOException
+            if (e instanceof RuntimeException && !(e instanceof IllegalArgumentException)
+                    && !(e.getCause() instanceof IOException)) {
+                throw e;
+            }
+            // rows of the chunks committed before the bad one stay imported
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                    csv ? "Invalid CSV body" : "Invalid JSON body");
+            return;
+        }
+        ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK, result);
+    }
+}
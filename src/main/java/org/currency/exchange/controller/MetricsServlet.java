@@ -0,0 +1,39 @@
+package org.currency.exchange.controller;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.currency.exchange.metrics.MetricsRegistry;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Request and DAO metrics in the Prometheus text format
+ */
+@WebServlet(urlPatterns = { "/metrics" })
+public class MetricsServlet extends HttpServlet {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final MetricsRegistry registry;
+
+    public MetricsServlet() {
+        this(MetricsRegistry.getInstance());
+    }
+
+    // Constructor for testing
+    MetricsServlet(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+        resp.setStatus(HttpServletResponse.SC_OK);
+        resp.setContentType(CONTENT_TYPE);
+        resp.setContentLength(body.length);
+        resp.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,95 @@
+package org.currency.exchange.controller;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.currency.exchange.stream.RateStreamHub;
+import org.currency.exchange.util.ResponseUtil;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Поток изменений обменных курсов (Server-Sent Events).
+ * <p>
+ * {@code /exchangeRates/stream} pushes every created or updated rate, {@code ?pairs=USDEUR,EURRUB} only
+ * those pairs. Each event carries the same JSON as {@code /exchangeRates/batch} items. The request holds no
+ * thread while waiting, see {@link RateStreamHub}.
+ */
+@WebServlet(urlPatterns = { "/exchangeRates/stream" }, asyncSupported = true)
+public class RateStreamServlet extends HttpServlet {
+    private final RateStreamHub hub;
+
+    public RateStreamServlet() {
+        this(null);
+    }
+
+    // Constructor for testing
+    RateStreamServlet(RateStreamHub hub) {
+        this.hub = hub;
+    }
+
+    private RateStreamHub hub() {
+        return hub != null ? hub : RateStreamHub.getInstance();
+    }
+
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        Set<String> pairs = parsePairs(req.getParameter("pairs"));
+        if (pairs != null && pairs.isEmpty()) {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_BAD_REQUEST,
+                    "Invalid pairs, expected a comma-separated list like USDEUR,EURRUB");
+            return;
+        }
+        if (!req.isAsyncSupported()) {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    "Streaming is not supported");
+            return;
+        }
+        RateStreamHub hub = hub();
+        if (!hub.reserve()) {
+            resp.setHeader("Retry-After", "5");
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    "Too many subscribers");
+            return;
+        }
+
+        try {
+            resp.setStatus(HttpServletResponse.SC_OK);
+            resp.setContentType("text/event-stream");
+            resp.setCharacterEncoding("UTF-8");
+            resp.setHeader("Cache-Control", "no-cache");
+            // stop reverse proxies from buffering the stream
+            resp.setHeader("X-Accel-Buffering", "no");
+
+            AsyncContext async = req.startAsync();
+            async.setTimeout(0);
+            hub.subscribe(async, pairs);
+        } catch (IOException | RuntimeException e) {
+            hub.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return upper-cased pair codes, null for all pairs, or an empty set when the value is malformed
+     */
+    static Set<String> parsePairs(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        Set<String> pairs = new HashSet<>();
+        for (String pair : value.split(",")) {
+            String code = pair.trim().toUpperCase();
+            if (code.length() != 6 || !code.chars().allMatch(c -> c >= 'A' && c <= 'Z')) {
+                return Set.of();
+            }
+            pairs.add(code);
+        }
+        return pairs;
+    }
+}
@@ -0,0 +1,61 @@
+package org.currency.exchange.controller;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.RateMatrix;
+import org.currency.exchange.dao.WriteQueue;
+import org.currency.exchange.service.ExchangeService;
+import org.currency.exchange.stream.RateStreamHub;
+import org.currency.exchange.util.DatabaseUtil;
+import org.currency.exchange.util.RequestExecutor;
+import org.currency.exchange.util.ResponseUtil;
+
+import jakarta.servlet.annotation.WebServlet;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Runtime statistics for monitoring
+ */
+@WebServlet(urlPatterns = { "/stats/*" })
+public class StatsServlet extends HttpServlet {
+    private final Map<String, Supplier<Object>> sections = new LinkedHashMap<>();
+
+    public StatsServlet() {
+        sections.put("requests", () -> RequestExecutor.getInstance().getStats());
+        sections.put("pool", DatabaseUtil::getPoolStats);
+        sections.put("writer", DatabaseUtil::getWriterStats);
+        sections.put("writeQueue", () -> WriteQueue.getInstance().getStats());
+        sections.put("rateCache", () -> ExchangeRateCache.getInstance().getStats());
+        sections.put("rateMatrix", () -> RateMatrix.getInstance().getStats());
+        sections.put("conversionGraph", () -> ExchangeService.getInstance().getGraphStats());
+        sections.put("stream", () -> RateStreamHub.getInstance().getStats());
+    }
+
+    /**
+     * {@code /stats} returns every section, {@code /stats/<section>} a single one
+     */
+    @Override
+    protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+        String pathInfo = req.getPathInfo();
+
+        if (pathInfo == null || pathInfo.equals("/")) {
+            Map<String, Object> all = new LinkedHashMap<>();
+            sections.forEach((name, supplier) -> all.put(name, supplier.get()));
+            ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK, all);
+            return;
+        }
+
+        Supplier<Object> section = sections.get(pathInfo.substring(1));
+        if (section == null) {
+            ResponseUtil.sendErrorResponse(resp, HttpServletResponse.SC_NOT_FOUND, "Unknown stats section");
+        } else {
+            ResponseUtil.sendJsonResponse(resp, HttpServletResponse.SC_OK, section.get());
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package org.currency.exchange.dao;
+
+import org.currency.exchange.cache.CurrencyRegistry;
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.RateMatrix;
+import org.currency.exchange.dto.ExchangeRateDto;
+import org.currency.exchange.dto.ImportResultDto;
+import org.currency.exchange.metrics.MetricsRegistry;
+import org.currency.exchange.metrics.RequestTimer;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.FixedPoint;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bulk import of currencies and exchange rates from a stream of rows, e.g. a CSV file with a million
+ * pairs.
+ * <p>
+ * Rows are pulled one at a time into chunks of {@code import.batchSize}. Each chunk is upserted with one
+ * JDBC batch in one {@link WriteQueue} transaction, and the next chunk is read while it commits, so
+ * memory use depends on the chunk size only. Currency codes are resolved against one read of the
+ * currencies table instead of a lookup per row. Existing rows are updated in place: an import that
+ * failed half way leaves the chunks committed before the failure and can simply be repeated.
+ * <p>
+ * In-memory views are refreshed once per chunk: the rate matrix and cache are dropped and listeners get
+ * {@link RateChangePublisher#ratesReloaded()} or {@link RateChangePublisher#currenciesChanged()}, there
+ * is no {@link RateChangeListener#onRateChanged} per imported rate.
+ */
+public class BulkImportDAO {
+    private static final RequestTimer IMPORT_CURRENCIES = timer("importCurrencies");
+    private static final RequestTimer IMPORT_RATES = timer("importExchangeRates");
+
+    private static final String UPSERT_CURRENCY = "INSERT INTO currencies (code, fullName, sign) VALUES (?, ?, ?) "
+            + "ON CONFLICT (code) DO UPDATE SET fullName = excluded.fullName, sign = excluded.sign";
+    private static final String UPSERT_RATE = "INSERT INTO exchangeRates (base_currency_id, target_currency_id, rate) "
+            + "VALUES (?, ?, ?) ON CONFLICT (base_currency_id, target_currency_id) DO UPDATE SET rate = excluded.rate";
+    private static final String SELECT_CURRENCIES = "SELECT id, code, fullName, sign FROM currencies";
+
+    private final WriteQueue writeQueue;
+    private final CurrencyRegistry registry;
+    private final ExchangeRateCache cache;
+    private final RateMatrix matrix;
+    private final int batchSize;
+
+    public BulkImportDAO() {
+        this(WriteQueue.getInstance(), CurrencyRegistry.getInstance(), ExchangeRateCache.getInstance(),
+                RateMatrix.getInstance(), AppConfig.getInt("import.batchSize", 50_000));
+    }
+
+    public BulkImportDAO(WriteQueue writeQueue, CurrencyRegistry registry, ExchangeRateCache cache,
+                         RateMatrix matrix, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.writeQueue = writeQueue;
+        this.registry = registry;
+        this.cache = cache;
+        this.matrix = matrix;
+        this.batchSize = batchSize;
+    }
+
+    private static RequestTimer timer(String method) {
+        return MetricsRegistry.getInstance().daoTimer("BulkImportDAO", method);
+    }
+
+    /**
+     * Insert currencies, updating name and sign of the codes that exist. Codes are stored in uppercase,
+     * rows with a missing field are skipped.
+     */
+    public ImportResultDto importCurrencies(Iterator<? extends Currency> rows) {
+        try {
+            return IMPORT_CURRENCIES.time(() -> importRows(rows,
+                    new CurrencyChunk(batchSize), new CurrencyChunk(batchSize)));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DatabaseException("Database connection failed", e);
+        }
+    }
+
+    /**
+     * Insert exchange rates, updating the rate of the pairs that exist. Rows with a missing field, a
+     * rate that is not positive or an unknown currency are skipped.
+     */
+    public ImportResultDto importExchangeRates(Iterator<? extends ExchangeRateDto> rows) {
+        try {
+            return IMPORT_RATES.time(() -> {
+                // read through the writer, so ids are the ones the chunks are written against
+                Map<String, Long> ids = writeQueue.execute(BulkImportDAO::selectCurrencyIds);
+                return importRows(rows, new RateChunk(batchSize, ids), new RateChunk(batchSize, ids));
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DatabaseException("Database connection failed", e);
+        }
+    }
+
+    private <T> ImportResultDto importRows(Iterator<? extends T> rows, Chunk<T> first, Chunk<T> second)
+            throws SQLException {
+        long start = System.nanoTime();
+        long read = 0;
+        long imported = 0;
+        int transactions = 0;
+        Chunk<T> filling = first;
+        Chunk<T> committing = second;
+        CompletableFuture<Integer> pending = null;
+        try {
+            while (rows.hasNext()) {
+                read++;
+                filling.add(rows.next());
+                if (filling.size() == batchSize) {
+                    imported += await(pending);
+                    Chunk<T> full = filling;
+                    pending = writeQueue.submit(full, count -> afterCommit(full));
+                    transactions++;
+                    // the chunk committed before is done, reuse it
+                    filling = committing;
+                    committing = full;
+                    filling.clear();
+                }
+            }
+            imported += await(pending);
+            pending = null;
+            if (filling.size() > 0) {
+                Chunk<T> last = filling;
+                imported += writeQueue.execute(last, count -> afterCommit(last));
+                transactions++;
+            }
+        } finally {
+            if (pending != null) {
+                // a row failed to parse, let the chunk in flight finish before its buffers go away
+                pending.handle((count, error) -> count).join();
+            }
+        }
+        return new ImportResultDto(read, imported, transactions, System.nanoTime() - start);
+    }
+
+    /**
+     * Runs on the writer thread right after the commit of {@code chunk}, in commit order
+     */
+    private void afterCommit(Chunk<?> chunk) {
+        matrix.invalidate();
+        cache.invalidateAll();
+        if (chunk instanceof CurrencyChunk currencies) {
+            registry.load(currencies.reloaded);
+            RateChangePublisher.getInstance().currenciesChanged();
+        } else {
+            RateChangePublisher.getInstance().ratesReloaded();
+        }
+    }
+
+    private static int await(CompletableFuture<Integer> pending) throws SQLException {
+        if (pending == null) {
+            return 0;
+        }
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static Map<String, Long> selectCurrencyIds(Connection conn) throws SQLException {
+        Map<String, Long> ids = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_CURRENCIES);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                ids.put(rs.getString("code").toUpperCase(Locale.ROOT), rs.getLong("id"));
+            }
+        }
+        return ids;
+    }
+
+    private static List<Currency> selectCurrencies(Connection conn) throws SQLException {
+        List<Currency> currencies = new ArrayList<>();
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_CURRENCIES);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                currencies.add(new Currency(rs.getLong("id"), rs.getString("code"), rs.getString("fullName"),
+                        rs.getString("sign")));
+            }
+        }
+        return currencies;
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Rows collected for one transaction; the task upserts them and returns their number
+     */
+    private abstract static class Chunk<T> implements WriteTask<Integer> {
+        protected int size;
+
+        abstract void add(T row);
+
+        int size() {
+            return size;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+
+    private static final class CurrencyChunk extends Chunk<Currency> {
+        private final String[] codes;
+        private final String[] names;
+        private final String[] signs;
+        // whole table as committed, handed to the registry after the commit
+        private List<Currency> reloaded;
+
+        private CurrencyChunk(int capacity) {
+            codes = new String[capacity];
+            names = new String[capacity];
+            signs = new String[capacity];
+        }
+
+        @Override
+        void add(Currency row) {
+            if (row == null || blank(row.getCode()) || blank(row.getFullName()) || blank(row.getSign())) {
+                return;
+            }
+            codes[size] = row.getCode().trim().toUpperCase(Locale.ROOT);
+            names[size] = row.getFullName().trim();
+            signs[size] = row.getSign().trim();
+            size++;
+        }
+
+        @Override
+        public Integer execute(Connection conn) throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement(UPSERT_CURRENCY)) {
+                for (int i = 0; i < size; i++) {
+                    ps.setString(1, codes[i]);
+                    ps.setString(2, names[i]);
+                    ps.setString(3, signs[i]);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            reloaded = selectCurrencies(conn);
+            return size;
+        }
+
+        @Override
+        void clear() {
+            super.clear();
+            reloaded = null;
+        }
+    }
+
+    private static final class RateChunk extends Chunk<ExchangeRateDto> {
+        private final Map<String, Long> ids;
+        private final long[] baseIds;
+        private final long[] targetIds;
+        private final long[] rates;
+
+        private RateChunk(int capacity, Map<String, Long> ids) {
+            this.ids = ids;
+            baseIds = new long[capacity];
+            targetIds = new long[capacity];
+            rates = new long[capacity];
+        }
+
+        @Override
+        void add(ExchangeRateDto row) {
+            if (row == null || row.getRate() <= 0) {
+                return;
+            }
+            Long base = id(row.getBaseCurrencyCode());
+            Long target = id(row.getTargetCurrencyCode());
+            if (base == null || target == null) {
+                return;
+            }
+            baseIds[size] = base;
+            targetIds[size] = target;
+            rates[size] = row.getRate();
+            size++;
+        }
+
+        private Long id(String code) {
+            if (code == null) {
+                return null;
+            }
+            Long id = ids.get(code);
+            return id != null ? id : ids.get(code.trim().toUpperCase(Locale.ROOT));
+        }
+
+        @Override
+        public Integer execute(Connection conn) throws SQLException {
+            try (PreparedStatement ps = conn.prepareStatement(UPSERT_RATE);
+                 PreparedStatement history = conn.prepareStatement(RateHistoryDAO.APPEND_BY_IDS)) {
+                long now = RateHistoryDAO.nowMicros();
+                for (int i = 0; i < size; i++) {
+                    ps.setLong(1, baseIds[i]);
+                    ps.setLong(2, targetIds[i]);
+                    ps.setDouble(3, FixedPoint.toDouble(rates[i]));
+                    ps.addBatch();
+                    history.setLong(1, now);
+                    history.setLong(2, rates[i]);
+                    history.setLong(3, baseIds[i]);
+                    history.setLong(4, targetIds[i]);
+                    history.addBatch();
+                }
+                // the history select finds the ids of rows inserted by the first batch
+                ps.executeBatch();
+                history.executeBatch();
+            }
+            return size;
+        }
+    }
+}
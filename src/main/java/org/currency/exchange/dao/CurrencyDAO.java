@@ -1,5 +1,10 @@
 package org.currency.exchange.dao;
 
+import org.currency.exchange.cache.CurrencyRegistry;
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.RateMatrix;
+import org.currency.exchange.metrics.MetricsRegistry;
+import org.currency.exchange.metrics.RequestTimer;
 import org.currency.exchange.model.Currency;
 import org.currency.exchange.util.DatabaseUtil;
 
@@ -7,16 +12,40 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
 
 public class CurrencyDAO {
+    private static final RequestTimer GET_ALL = timer("getAllCurrencies");
+    private static final RequestTimer ADD = timer("addCurrency");
+    private static final RequestTimer DELETE = timer("deleteById");
+    private static final RequestTimer UPDATE = timer("updateById");
+    private static final RequestTimer FIND_BY_CODE = timer("findByCode");
+
+    private final CurrencyRegistry registry;
+
+    public CurrencyDAO() {
+        this(CurrencyRegistry.getInstance());
+    }
+
+    public CurrencyDAO(CurrencyRegistry registry) {
+        this.registry = registry;
+    }
+
+    private static RequestTimer timer(String method) {
+        return MetricsRegistry.getInstance().daoTimer("CurrencyDAO", method);
+    }
 
     public Collection<Currency> getAllCurrencies() throws SQLException {
+        return GET_ALL.time(this::selectAllCurrencies);
+    }
+
+    private Collection<Currency> selectAllCurrencies() throws SQLException {
         Collection<Currency> res = new ArrayList<>();
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            ResultSet rs = conn.prepareStatement("select * from currencies")
-                    .executeQuery();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement("select * from currencies");
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 res.add(new Currency(rs.getInt("id"),
                         rs.getString("code"),
@@ -28,25 +57,65 @@ public class CurrencyDAO {
         }
     }
 
+    /**
+     * Fill {@link CurrencyRegistry} with the current content of the currencies table
+     */
+    public void loadRegistry() throws SQLException {
+        registry.load(getAllCurrencies());
+    }
+
     public boolean addCurrency(Currency currency) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "insert into currencies (code, fullName, sign) values (?, ?, ?)";
-            PreparedStatement prepStmt = conn.prepareStatement(query);
-            prepStmt.setString(1, currency.getCode());
-            prepStmt.setString(2, currency.getFullName());
-            prepStmt.setString(3, currency.getSign());
-            int rowAffected = prepStmt.executeUpdate();
-            return rowAffected > 0;
+        return ADD.time(() -> insertCurrency(currency));
+    }
+
+    private boolean insertCurrency(Currency currency) {
+        String query = "insert into currencies (code, fullName, sign) values (?, ?, ?)";
+        try {
+            Currency created = WriteQueue.getInstance().execute(conn -> {
+                try (PreparedStatement prepStmt = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    prepStmt.setString(1, currency.getCode());
+                    prepStmt.setString(2, currency.getFullName());
+                    prepStmt.setString(3, currency.getSign());
+                    int rowAffected = prepStmt.executeUpdate();
+                    try (ResultSet keys = prepStmt.getGeneratedKeys()) {
+                        if (rowAffected > 0 && keys.next()) {
+                            return new Currency(keys.getLong(1), currency.getCode(), currency.getFullName(),
+                                    currency.getSign());
+                        }
+                        return null;
+                    }
+                }
+            }, inserted -> {
+                RateMatrix.getInstance().invalidate();
+                if (inserted != null) {
+                    registry.put(inserted);
+                }
+                RateChangePublisher.getInstance().currenciesChanged();
+            });
+            return created != null;
         } catch (SQLException e) {
             throw new RuntimeException("Fail to create currency. ", e);
         }
     }
 
     public boolean deleteById(int id) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            PreparedStatement ps = conn.prepareStatement("delete from currencies where id = ?");
-            ps.setInt(1, id);
-            int rowAffected = ps.executeUpdate();
+        return DELETE.time(() -> deleteCurrency(id));
+    }
+
+    private boolean deleteCurrency(int id) {
+        try {
+            int rowAffected = WriteQueue.getInstance().execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement("delete from currencies where id = ?")) {
+                    ps.setInt(1, id);
+                    return ps.executeUpdate();
+                }
+            }, deleted -> {
+                RateMatrix.getInstance().invalidate();
+                registry.remove(id);
+                // cached rates embed currency details
+                ExchangeRateCache.getInstance().invalidateAll();
+                RateChangePublisher.getInstance().currenciesChanged();
+            });
             return rowAffected > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -55,14 +124,28 @@ public class CurrencyDAO {
     }
 
     public boolean updateById(int id, Currency currency) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "update currencies set code=?, fullName=?, sign=? where id = ?";
-            PreparedStatement ps = conn.prepareStatement(query);
-            ps.setString(1, currency.getCode());
-            ps.setString(2, currency.getFullName());
-            ps.setString(3, currency.getSign());
-            ps.setInt(4, id);
-            int affectedRows = ps.executeUpdate();
+        return UPDATE.time(() -> updateCurrency(id, currency));
+    }
+
+    private boolean updateCurrency(int id, Currency currency) {
+        String query = "update currencies set code=?, fullName=?, sign=? where id = ?";
+        try {
+            int affectedRows = WriteQueue.getInstance().execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(query)) {
+                    ps.setString(1, currency.getCode());
+                    ps.setString(2, currency.getFullName());
+                    ps.setString(3, currency.getSign());
+                    ps.setInt(4, id);
+                    return ps.executeUpdate();
+                }
+            }, updated -> {
+                RateMatrix.getInstance().invalidate();
+                if (updated > 0) {
+                    registry.put(new Currency(id, currency.getCode(), currency.getFullName(), currency.getSign()));
+                }
+                ExchangeRateCache.getInstance().invalidateAll();
+                RateChangePublisher.getInstance().currenciesChanged();
+            });
             return affectedRows > 0;
         } catch (SQLException e) {
             e.printStackTrace();
@@ -71,23 +154,40 @@ public class CurrencyDAO {
     }
 
     /**
-     * Find currency by code in uppercase
+     * Find currency by id in {@link CurrencyRegistry} only, never touching the database
+     *
+     * @return currency or null
+     */
+    public Currency findCachedById(long id) {
+        return registry.findById(id);
+    }
+
+    /**
+     * Find currency by code in uppercase. Served from {@link CurrencyRegistry} once it is loaded.
      * @param code currency worldwide code https://www.iban.com/currency-codes
      *
      * @return currency or null
      */
     public Currency findByCode(String code) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "select * from currencies where code = ?";
-            PreparedStatement ps = conn.prepareStatement(query);
+        return FIND_BY_CODE.time(() -> lookupByCode(code));
+    }
+
+    private Currency lookupByCode(String code) {
+        if (registry.isLoaded()) {
+            return registry.findByCode(code);
+        }
+        String query = "select * from currencies where code = ?";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
             ps.setString(1, code.toUpperCase());
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return new Currency(rs.getInt("id"),
-                        rs.getString("code"),
-                        rs.getString("fullName"),
-                        rs.getString("sign")
-                );
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new Currency(rs.getInt("id"),
+                            rs.getString("code"),
+                            rs.getString("fullName"),
+                            rs.getString("sign")
+                    );
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -1,31 +1,85 @@
 package org.currency.exchange.dao;
 
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.PairKey;
+import org.currency.exchange.cache.RateMatrix;
 import org.currency.exchange.dto.ExchangeRateDto;
+import org.currency.exchange.metrics.MetricsRegistry;
+import org.currency.exchange.metrics.RequestTimer;
 import org.currency.exchange.model.Currency;
 import org.currency.exchange.model.ExchangeRate;
 import org.currency.exchange.util.DatabaseUtil;
+import org.currency.exchange.util.FixedPoint;
 
+import java.io.IOException;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.LongFunction;
 
 public class ExchangeRateDAO {
+    private static final RequestTimer GET_ALL = timer("getAllExchangeRates");
+    private static final RequestTimer FOR_EACH = timer("forEachExchangeRate");
+    private static final RequestTimer GET_BY_CODES = timer("getExchangeRateByCodes");
+    private static final RequestTimer GET_BY_PAIR = timer("getExchangeRate");
+    private static final RequestTimer CREATE = timer("createExchangeRate");
+    private static final RequestTimer UPDATE = timer("updateExchangeRate");
+    private static final RequestTimer UPDATE_BATCH = timer("updateExchangeRates");
+
+    private static final String SELECT_ALL = "SELECT er.id, er.rate, bc.id AS base_id, bc.fullname AS base_name, " +
+            "bc.code AS base_code, bc.sign AS base_sign, tc.id AS target_id, tc.fullname AS target_name, " +
+            "tc.code AS target_code, tc.sign AS target_sign FROM exchangerates er " +
+            "JOIN currencies bc ON er.base_currency_id = bc.id " +
+            "JOIN currencies tc ON er.target_currency_id = tc.id;";
+    // answered from the covering index alone; left to itself the planner picks the UNIQUE constraint's
+    // index, which matches one row but still has to read it from the table
+    private static final String SELECT_BY_IDS = "SELECT id, rate FROM exchangeRates "
+            + "INDEXED BY exchangeRates_pair_rate WHERE base_currency_id = ? AND target_currency_id = ?";
+    private static final String UPDATE_BY_IDS =
+            "UPDATE exchangeRates SET rate = ? WHERE base_currency_id = ? AND target_currency_id = ?";
+
     private final CurrencyDAO currencyDAO;
+    private final ExchangeRateCache cache;
+    private final RateMatrix matrix;
+    private final WriteQueue writeQueue;
+    private final LongFunction<ExchangeRate> pairLoader = this::loadExchangeRate;
+    private final LongFunction<ExchangeRate> cachedLookup = this::lookupInCache;
+    private final LongFunction<ExchangeRate> matrixMiss = this::lookupWithoutMatrix;
 
     public ExchangeRateDAO(CurrencyDAO currencyDAO) {
+        this(currencyDAO, ExchangeRateCache.getInstance());
+    }
+
+    public ExchangeRateDAO(CurrencyDAO currencyDAO, ExchangeRateCache cache) {
+        this(currencyDAO, cache, RateMatrix.getInstance());
+    }
+
+    public ExchangeRateDAO(CurrencyDAO currencyDAO, ExchangeRateCache cache, RateMatrix matrix) {
+        this(currencyDAO, cache, matrix, WriteQueue.getInstance());
+    }
+
+    public ExchangeRateDAO(CurrencyDAO currencyDAO, ExchangeRateCache cache, RateMatrix matrix,
+                           WriteQueue writeQueue) {
         this.currencyDAO = currencyDAO;
+        this.cache = cache;
+        this.matrix = matrix;
+        this.writeQueue = writeQueue;
+    }
+
+    private static RequestTimer timer(String method) {
+        return MetricsRegistry.getInstance().daoTimer("ExchangeRateDAO", method);
     }
 
     public List<ExchangeRate> getAllExchangeRates() {
-        List<ExchangeRate> rates = new ArrayList<>();
-        try (Statement stmt = DatabaseUtil.getConnection().createStatement()) {
-            String query = "SELECT er.id, er.rate, bc.id AS base_id, bc.fullname AS base_name, bc.code AS base_code, " +
-                    "bc.sign AS base_sign, tc.id AS target_id, tc.fullname AS target_name, " +
-                    "tc.code AS target_code, tc.sign AS target_sign FROM exchangerates er " +
-                    "JOIN currencies bc ON er.base_currency_id = bc.id " +
-                    "JOIN currencies tc ON er.target_currency_id = tc.id;";
-            ResultSet rs = stmt.executeQuery(query);
+        return GET_ALL.time(this::selectAllExchangeRates);
+    }
 
+    private List<ExchangeRate> selectAllExchangeRates() {
+        List<ExchangeRate> rates = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_ALL);
+             ResultSet rs = ps.executeQuery()) {
             while (rs.next()) {
                 Currency baseCurrency = getBaseCurrency(rs);
                 Currency targetCurrency = getTargetCurrency(rs);
@@ -34,7 +88,7 @@ public class ExchangeRateDAO {
                         rs.getInt("id"),
                         baseCurrency,
                         targetCurrency,
-                        rs.getDouble("rate"));
+                        FixedPoint.fromDouble(rs.getDouble("rate")));
 
                 rates.add(exchangeRate);
             }
@@ -46,29 +100,121 @@ public class ExchangeRateDAO {
         }
     }
 
+    /**
+     * Stream all exchange rates to {@code visitor} row by row while the result set is open, without
+     * collecting them. Currencies are taken from {@link org.currency.exchange.cache.CurrencyRegistry}
+     * when it has them, so most rows allocate nothing.
+     */
+    public void forEachExchangeRate(ExchangeRateVisitor visitor) throws IOException {
+        FOR_EACH.time(() -> {
+            scanExchangeRates(visitor);
+            return null;
+        });
+    }
+
+    private void scanExchangeRates(ExchangeRateVisitor visitor) throws IOException {
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_ALL);
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                Currency baseCurrency = currencyDAO.findCachedById(rs.getLong("base_id"));
+                if (baseCurrency == null) {
+                    baseCurrency = getBaseCurrency(rs);
+                }
+                Currency targetCurrency = currencyDAO.findCachedById(rs.getLong("target_id"));
+                if (targetCurrency == null) {
+                    targetCurrency = getTargetCurrency(rs);
+                }
+                visitor.visit(rs.getInt("id"), baseCurrency, targetCurrency,
+                        FixedPoint.fromDouble(rs.getDouble("rate")));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DatabaseException("Database connection failed", e);
+        }
+    }
+
+    /**
+     * Find exchange rate by concatenated pair codes, e.g. {@code USDEUR}, see {@link #getExchangeRate(long)}.
+     * Codes that {@link PairKey} cannot pack are served from {@link ExchangeRateCache}.
+     *
+     * @return exchange rate or null
+     */
     public ExchangeRate getExchangeRateByCodes(String codes) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String baseCode = codes.substring(0, 3);
-            String targCode = codes.substring(3);
-            String query = "SELECT er.id, er.rate, bc.id AS base_id, bc.fullname AS base_name, bc.code AS base_code, " +
-                    "bc.sign AS base_sign, tc.id AS target_id, tc.fullname AS target_name, " +
-                    "tc.code AS target_code, tc.sign AS target_sign FROM exchangerates er " +
-                    "JOIN currencies bc ON er.base_currency_id = bc.id " +
-                    "JOIN currencies tc ON er.target_currency_id = tc.id " +
-                    "where base_currency_id = (select id from currencies where code = ?) " +
-                    "and target_currency_id = (select id from currencies where code = ?)";
-            PreparedStatement ps = conn.prepareStatement(query);
-            ps.setString(1, baseCode);
-            ps.setString(2, targCode);
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return new ExchangeRate(
-                        rs.getInt("id"),
-                        getBaseCurrency(rs),
-                        getTargetCurrency(rs),
-                        rs.getDouble("rate"));
-            } else {
-                return null;
+        long pair = PairKey.pair(codes);
+        return GET_BY_CODES.time(() -> pair != PairKey.INVALID
+                ? matrix.get(pair, matrixMiss)
+                : cache.getOrLoad(codes, this::loadExchangeRate));
+    }
+
+    /**
+     * Find exchange rate by a pair packed with {@link PairKey}, e.g. straight from the request path.
+     * Served from {@link RateMatrix}, which holds every stored rate once loaded, and from
+     * {@link ExchangeRateCache} while it cannot be. The only allocation is the returned rate, so the timer
+     * is driven by hand instead of with a capturing lambda.
+     *
+     * @return exchange rate or null
+     */
+    public ExchangeRate getExchangeRate(long pair) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            ExchangeRate rate = matrix.get(pair, matrixMiss);
+            failed = false;
+            return rate;
+        } finally {
+            GET_BY_PAIR.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Loads the matrix on first use, after currencies changed or when a write raced the last load; falls
+     * back to the cache when it is disabled, too small for the currencies or was raced again
+     */
+    private ExchangeRate lookupWithoutMatrix(long pair) {
+        if (matrix.loadIfAbsent(this::selectCurrencies, this::selectAllExchangeRates)) {
+            return matrix.get(pair, cachedLookup);
+        }
+        return lookupInCache(pair);
+    }
+
+    private ExchangeRate lookupInCache(long pair) {
+        return cache.getOrLoad(pair, pairLoader);
+    }
+
+    private Collection<Currency> selectCurrencies() {
+        try {
+            return currencyDAO.getAllCurrencies();
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DatabaseException("Database connection failed", e);
+        }
+    }
+
+    private ExchangeRate loadExchangeRate(long pair) {
+        return loadExchangeRate(PairKey.toCodes(pair));
+    }
+
+    /**
+     * Currencies come from {@link CurrencyDAO}, normally its registry, so the query only reads the id and
+     * rate of the pair by currency ids
+     */
+    private ExchangeRate loadExchangeRate(String codes) {
+        Currency base = currencyDAO.findByCode(codes.substring(0, 3));
+        Currency target = currencyDAO.findByCode(codes.substring(3));
+        if (base == null || target == null) {
+            return null;
+        }
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SELECT_BY_IDS)) {
+            ps.setLong(1, base.getId());
+            ps.setLong(2, target.getId());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return new ExchangeRate(rs.getInt(1), base, target, FixedPoint.fromDouble(rs.getDouble(2)));
+                } else {
+                    return null;
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -79,57 +225,199 @@ public class ExchangeRateDAO {
     private static Currency getTargetCurrency(ResultSet rs) throws SQLException {
         return new Currency(
                 rs.getInt("target_id"),
-                rs.getString("target_name"),
                 rs.getString("target_code"),
+                rs.getString("target_name"),
                 rs.getString("target_sign"));
     }
 
     private static Currency getBaseCurrency(ResultSet rs) throws SQLException {
         return new Currency(
                 rs.getInt("base_id"),
-                rs.getString("base_name"),
                 rs.getString("base_code"),
+                rs.getString("base_name"),
                 rs.getString("base_sign"));
     }
 
     public int createExchangeRate(ExchangeRateDto params) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String baseCode = params.getBaseCurrencyCode();
-            Currency baseCurr = currencyDAO.findByCode(baseCode);
-            String targetCode = params.getTargetCurrencyCode();
-            Currency targetCurr = currencyDAO.findByCode(targetCode);
-
-            if (baseCurr == null || targetCurr == null) {
-                return -1;
-            }
+        return CREATE.time(() -> insertExchangeRate(params));
+    }
+
+    private int insertExchangeRate(ExchangeRateDto params) {
+        String baseCode = params.getBaseCurrencyCode();
+        Currency baseCurr = currencyDAO.findByCode(baseCode);
+        String targetCode = params.getTargetCurrencyCode();
+        Currency targetCurr = currencyDAO.findByCode(targetCode);
+
+        if (baseCurr == null || targetCurr == null) {
+            return -1;
+        }
 
-            String query = "insert into exchangeRates (base_currency_id, target_currency_id, rate) values \n" +
-                    "(?, ?, ?)";
-            PreparedStatement ps = conn.prepareStatement(query);
-            ps.setLong(1, baseCurr.getId());
-            ps.setLong(2, targetCurr.getId());
-            ps.setDouble(3, params.getRate());
-            return ps.executeUpdate();
+        String query = "insert into exchangeRates (base_currency_id, target_currency_id, rate) values \n" +
+                "(?, ?, ?)";
+        long pair = PairKey.pair(baseCurr.getCode(), targetCurr.getCode());
+        try {
+            int id = writeQueue.execute(conn -> {
+                int inserted = 0;
+                try (PreparedStatement ps = conn.prepareStatement(query, Statement.RETURN_GENERATED_KEYS)) {
+                    ps.setLong(1, baseCurr.getId());
+                    ps.setLong(2, targetCurr.getId());
+                    ps.setDouble(3, FixedPoint.toDouble(params.getRate()));
+                    if (ps.executeUpdate() > 0) {
+                        try (ResultSet keys = ps.getGeneratedKeys()) {
+                            inserted = keys.next() ? keys.getInt(1) : 0;
+                        }
+                    }
+                }
+                try (PreparedStatement history = conn.prepareStatement(RateHistoryDAO.APPEND_BY_IDS)) {
+                    history.setLong(1, RateHistoryDAO.nowMicros());
+                    history.setLong(2, params.getRate());
+                    history.setLong(3, baseCurr.getId());
+                    history.setLong(4, targetCurr.getId());
+                    history.executeUpdate();
+                }
+                return inserted;
+            }, inserted -> {
+                if (inserted > 0) {
+                    matrix.putRate(pair, inserted, params.getRate());
+                }
+                cache.invalidate(baseCurr.getCode() + targetCurr.getCode());
+                if (inserted > 0) {
+                    RateChangePublisher.getInstance().rateChanged(baseCurr.getCode(), targetCurr.getCode(),
+                            params.getRate());
+                }
+            });
+            return id > 0 ? 1 : 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DatabaseException("Database connection failed", e);
+        }
+    }
+
+    public int updateExchangeRate(String baseCurrCode, String targetCurrCode, long rate) {
+        return UPDATE.time(() -> updateRateByCodes(baseCurrCode, targetCurrCode, rate));
+    }
 
+    private int updateRateByCodes(String baseCurrCode, String targetCurrCode, long rate) {
+        Currency base = currencyDAO.findByCode(baseCurrCode);
+        Currency target = currencyDAO.findByCode(targetCurrCode);
+        if (base == null || target == null) {
+            return 0;
+        }
+        long pair = PairKey.pair(base.getCode(), target.getCode());
+        try {
+            int updated = writeQueue.execute(conn -> {
+                int changed;
+                try (PreparedStatement ps = conn.prepareStatement(UPDATE_BY_IDS)) {
+                    ps.setDouble(1, FixedPoint.toDouble(rate));
+                    ps.setLong(2, base.getId());
+                    ps.setLong(3, target.getId());
+                    changed = ps.executeUpdate();
+                }
+                if (changed > 0) {
+                    try (PreparedStatement history = conn.prepareStatement(RateHistoryDAO.APPEND_BY_IDS)) {
+                        history.setLong(1, RateHistoryDAO.nowMicros());
+                        history.setLong(2, rate);
+                        history.setLong(3, base.getId());
+                        history.setLong(4, target.getId());
+                        history.executeUpdate();
+                    }
+                }
+                return changed;
+            }, changed -> {
+                if (changed > 0) {
+                    matrix.updateRate(pair, rate);
+                }
+                cache.invalidate(pair);
+                if (changed > 0) {
+                    // the stored codes, the request may have spelled them in lower case
+                    RateChangePublisher.getInstance().rateChanged(base.getCode(), target.getCode(), rate);
+                }
+            });
+            return updated;
         } catch (SQLException e) {
             e.printStackTrace();
             throw new DatabaseException("Database connection failed", e);
         }
     }
 
-    public int updateExchangeRate(String baseCurrCode, String targetCurrCode, double rate) {
-        try (Connection conn = DatabaseUtil.getConnection()) {
-            String query = "update exchangeRates set rate = ? "
-                    + " where base_currency_id = (select id from currencies where code = ?)"
-                    + " and target_currency_id = (select id from currencies where code = ?)";
-            PreparedStatement ps = conn.prepareStatement(query);
-            ps.setDouble(1, rate);
-            ps.setString(2, baseCurrCode);
-            ps.setString(3, targetCurrCode);
-            return ps.executeUpdate();
+    /**
+     * Update many rates with one JDBC batch, committed atomically by {@link WriteQueue} together with
+     * their {@link RateHistoryDAO history} entries.
+     * Pairs with an unknown currency are not sent to the database.
+     *
+     * @return number of updated rows for every item in input order, 0 when the pair does not exist
+     */
+    public int[] updateExchangeRates(List<ExchangeRateDto> updates) {
+        return UPDATE_BATCH.time(() -> updateRatesInBatch(updates));
+    }
+
+    private int[] updateRatesInBatch(List<ExchangeRateDto> updates) {
+        int size = updates.size();
+        int[] results = new int[size];
+        Currency[] bases = new Currency[size];
+        Currency[] targets = new Currency[size];
+        int[] batchPositions = new int[size];
+        int batched = 0;
+
+        for (int i = 0; i < size; i++) {
+            ExchangeRateDto update = updates.get(i);
+            bases[i] = currencyDAO.findByCode(update.getBaseCurrencyCode());
+            targets[i] = currencyDAO.findByCode(update.getTargetCurrencyCode());
+            if (bases[i] != null && targets[i] != null) {
+                batchPositions[batched++] = i;
+            }
+        }
+        if (batched == 0) {
+            return results;
+        }
+
+        int batchSize = batched;
+        try {
+            int[] counts = writeQueue.execute(conn -> {
+                try (PreparedStatement ps = conn.prepareStatement(UPDATE_BY_IDS);
+                     PreparedStatement history = conn.prepareStatement(RateHistoryDAO.APPEND_BY_IDS)) {
+                    long now = RateHistoryDAO.nowMicros();
+                    for (int j = 0; j < batchSize; j++) {
+                        int i = batchPositions[j];
+                        long rate = updates.get(i).getRate();
+                        ps.setDouble(1, FixedPoint.toDouble(rate));
+                        ps.setLong(2, bases[i].getId());
+                        ps.setLong(3, targets[i].getId());
+                        ps.addBatch();
+                        // pairs that do not exist select no row and append nothing
+                        history.setLong(1, now);
+                        history.setLong(2, rate);
+                        history.setLong(3, bases[i].getId());
+                        history.setLong(4, targets[i].getId());
+                        history.addBatch();
+                    }
+                    int[] updated = ps.executeBatch();
+                    history.executeBatch();
+                    return updated;
+                }
+            }, updated -> {
+                for (int j = 0; j < updated.length; j++) {
+                    int i = batchPositions[j];
+                    String baseCode = bases[i].getCode();
+                    String targetCode = targets[i].getCode();
+                    boolean changed = updated[j] > 0 || updated[j] == Statement.SUCCESS_NO_INFO;
+                    if (changed) {
+                        matrix.updateRate(PairKey.pair(baseCode, targetCode), updates.get(i).getRate());
+                    }
+                    cache.invalidate(baseCode + targetCode);
+                    if (changed) {
+                        RateChangePublisher.getInstance().rateChanged(baseCode, targetCode,
+                                updates.get(i).getRate());
+                    }
+                }
+            });
+            for (int j = 0; j < counts.length; j++) {
+                results[batchPositions[j]] = counts[j] == Statement.SUCCESS_NO_INFO ? 1 : counts[j];
+            }
         } catch (SQLException e) {
             e.printStackTrace();
             throw new DatabaseException("Database connection failed", e);
         }
+        return results;
     }
 }
@@ -0,0 +1,13 @@
+package org.currency.exchange.dao;
+
+import java.io.IOException;
+
+import org.currency.exchange.model.Currency;
+
+/**
+ * Receives exchange rate rows one at a time from {@link ExchangeRateDAO#forEachExchangeRate}
+ */
+@FunctionalInterface
+public interface ExchangeRateVisitor {
+    void visit(int id, Currency baseCurrency, Currency targetCurrency, long rate) throws IOException;
+}
@@ -0,0 +1,28 @@
+package org.currency.exchange.dao;
+
+/**
+ * Receives notifications after exchange rate or currency data has been written
+ */
+public interface RateChangeListener {
+
+    /**
+     * Called after a rate has been created or updated, {@code rate} is scaled by
+     * {@link org.currency.exchange.util.FixedPoint#ONE}. Runs on the {@link WriteQueue} writer thread
+     * right after the commit, so notifications arrive in commit order; must be quick.
+     */
+    void onRateChanged(String baseCode, String targetCode, long rate);
+
+    /**
+     * Called after currencies have been added, updated or deleted, on the writer thread in commit order
+     */
+    default void onCurrenciesChanged() {
+    }
+
+    /**
+     * Called after many rates have been written at once by a bulk import, instead of
+     * {@link #onRateChanged} for each of them; by default handled like a change of currencies
+     */
+    default void onRatesReloaded() {
+        onCurrenciesChanged();
+    }
+}
@@ -0,0 +1,60 @@
+package org.currency.exchange.dao;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Fans out DAO write notifications to in-memory views of the data
+ */
+public class RateChangePublisher {
+    private final List<RateChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private RateChangePublisher() {
+    }
+
+    private static class RateChangePublisherHelper {
+        private static final RateChangePublisher INSTANCE = new RateChangePublisher();
+    }
+
+    public static RateChangePublisher getInstance() {
+        return RateChangePublisherHelper.INSTANCE;
+    }
+
+    public void subscribe(RateChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(RateChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void rateChanged(String baseCode, String targetCode, long rate) {
+        for (RateChangeListener listener : listeners) {
+            try {
+                listener.onRateChanged(baseCode, targetCode, rate);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void currenciesChanged() {
+        for (RateChangeListener listener : listeners) {
+            try {
+                listener.onCurrenciesChanged();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void ratesReloaded() {
+        for (RateChangeListener listener : listeners) {
+            try {
+                listener.onRatesReloaded();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
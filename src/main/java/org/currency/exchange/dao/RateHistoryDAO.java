@@ -0,0 +1,103 @@
+package org.currency.exchange.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.currency.exchange.metrics.MetricsRegistry;
+import org.currency.exchange.metrics.RequestTimer;
+import org.currency.exchange.model.RatePoint;
+import org.currency.exchange.util.DatabaseUtil;
+
+/**
+ * Append-only history of exchange rates.
+ * <p>
+ * Every rate written by {@link ExchangeRateDAO} is also appended to {@code exchangeRateHistory} in the
+ * same transaction. The table is {@code WITHOUT ROWID} with primary key {@code (pair_id, ts)}, so rows
+ * of one pair are stored together in time order and both point-in-time and range lookups are a single
+ * index seek followed by a sequential scan, however many rows the table holds. Timestamps are epoch
+ * microseconds, rates the raw {@link org.currency.exchange.util.FixedPoint} value; a change of
+ * {@code money.scale} is applied to the stored rates on start by
+ * {@link org.currency.exchange.util.SchemaMigrations}.
+ */
+public class RateHistoryDAO {
+    private static final RequestTimer GET_RANGE = timer("getHistory");
+    private static final RequestTimer GET_AT = timer("getRateAt");
+
+    // a second change of the same pair within one microsecond replaces the first
+    static final String APPEND_BY_IDS = "INSERT OR REPLACE INTO exchangeRateHistory (pair_id, ts, rate) "
+            + "SELECT id, ?, ? FROM exchangeRates WHERE base_currency_id = ? AND target_currency_id = ?";
+
+    private static RequestTimer timer(String method) {
+        return MetricsRegistry.getInstance().daoTimer("RateHistoryDAO", method);
+    }
+
+    public static long toMicros(Instant instant) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, instant);
+    }
+
+    public static long nowMicros() {
+        return toMicros(Instant.now());
+    }
+
+    /**
+     * Rates of a pair recorded between {@code fromMicros} and {@code toMicros} inclusive, oldest first
+     *
+     * @param limit maximum number of points returned
+     */
+    public List<RatePoint> getHistory(int pairId, long fromMicros, long toMicros, int limit) {
+        return GET_RANGE.time(() -> selectRange(pairId, fromMicros, toMicros, limit));
+    }
+
+    private List<RatePoint> selectRange(int pairId, long fromMicros, long toMicros, int limit) {
+        String query = "SELECT ts, rate FROM exchangeRateHistory WHERE pair_id = ? AND ts >= ? AND ts <= ? "
+                + "ORDER BY ts LIMIT ?";
+        List<RatePoint> points = new ArrayList<>();
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setInt(1, pairId);
+            ps.setLong(2, fromMicros);
+            ps.setLong(3, toMicros);
+            ps.setInt(4, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    points.add(new RatePoint(rs.getLong(1), rs.getLong(2)));
+                }
+            }
+            return points;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DatabaseException("Database connection failed", e);
+        }
+    }
+
+    /**
+     * Rate of a pair in effect at {@code atMicros}, i.e. the last one recorded at or before it
+     *
+     * @return rate point or null when the pair had no rate yet
+     */
+    public RatePoint getRateAt(int pairId, long atMicros) {
+        return GET_AT.time(() -> selectAt(pairId, atMicros));
+    }
+
+    private RatePoint selectAt(int pairId, long atMicros) {
+        String query = "SELECT ts, rate FROM exchangeRateHistory WHERE pair_id = ? AND ts <= ? "
+                + "ORDER BY ts DESC LIMIT 1";
+        try (Connection conn = DatabaseUtil.getConnection();
+             PreparedStatement ps = conn.prepareStatement(query)) {
+            ps.setInt(1, pairId);
+            ps.setLong(2, atMicros);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? new RatePoint(rs.getLong(1), rs.getLong(2)) : null;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            throw new DatabaseException("Database connection failed", e);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package org.currency.exchange.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.DatabaseUtil;
+
+/**
+ * Funnels all database mutations through one writer thread.
+ * <p>
+ * The writer takes whatever has queued up, up to {@code maxBatchSize} tasks, optionally waiting
+ * {@code maxDelayMicros} for more, and runs them in a single transaction, so concurrent requests share
+ * one commit instead of each paying for its own. Every task runs under its own savepoint: a failing
+ * task is rolled back alone and only its caller sees the error. Futures complete after the commit.
+ * <p>
+ * A task may come with an {@code onCommit} callback. Callbacks run on the writer thread after the commit
+ * in commit order, before the caller is released, so in-memory copies of the data apply writes in the
+ * same order as the database.
+ */
+public class WriteQueue implements AutoCloseable {
+    private final DataSource dataSource;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder submitted = new LongAdder();
+    // written by the writer thread only
+    private volatile long transactions;
+    private volatile long committedWrites;
+    private volatile long failedWrites;
+    private volatile int largestBatch;
+
+    /**
+     * @param dataSource     source of the writer connection, borrowed once per transaction
+     * @param maxBatchSize   maximum number of tasks committed together
+     * @param maxDelayMicros how long the writer waits for more tasks after the first one, 0 commits
+     *                       whatever has queued up without waiting
+     */
+    public WriteQueue(DataSource dataSource, int maxBatchSize, long maxDelayMicros) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + maxBatchSize);
+        }
+        this.dataSource = dataSource;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.writer = new Thread(this::run, "db-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static class WriteQueueHelper {
+        private static final WriteQueue INSTANCE = new WriteQueue(
+                DatabaseUtil.getWriteDataSource(),
+                AppConfig.getInt("db.writer.maxBatchSize", 256),
+                AppConfig.getLong("db.writer.maxDelayMicros", 0));
+    }
+
+    public static WriteQueue getInstance() {
+        return WriteQueueHelper.INSTANCE;
+    }
+
+    public <T> CompletableFuture<T> submit(WriteTask<T> task) {
+        return submit(task, null);
+    }
+
+    /**
+     * @param onCommit receives the result of {@code task} once its transaction is committed, must be quick
+     */
+    public <T> CompletableFuture<T> submit(WriteTask<T> task, Consumer<? super T> onCommit) {
+        PendingWrite<T> write = new PendingWrite<>(task, onCommit);
+        if (closed) {
+            write.future.completeExceptionally(new SQLException("Write queue is closed"));
+            return write.future;
+        }
+        submitted.increment();
+        queue.add(write);
+        if (closed && queue.remove(write)) {
+            write.future.completeExceptionally(new SQLException("Write queue is closed"));
+        }
+        return write.future;
+    }
+
+    /**
+     * Submit {@code task} and wait until its transaction is committed
+     *
+     * @return result of the task
+     * @throws SQLException when the task or the commit failed
+     */
+    public <T> T execute(WriteTask<T> task) throws SQLException {
+        return execute(task, null);
+    }
+
+    /**
+     * Submit {@code task} and wait until its transaction is committed and {@code onCommit} has run
+     *
+     * @return result of the task
+     * @throws SQLException when the task or the commit failed
+     */
+    public <T> T execute(WriteTask<T> task, Consumer<? super T> onCommit) throws SQLException {
+        try {
+            return submit(task, onCommit).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new SQLException(cause);
+        }
+    }
+
+    private void run() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!closed) {
+                batch.add(queue.take());
+                collect(batch);
+                try {
+                    commit(batch);
+                } catch (Throwable e) {
+                    // e.g. an Error thrown by a task or the driver; the only writer must outlive it
+                    e.printStackTrace();
+                    batch.forEach(write -> write.future.completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        SQLException closedError = new SQLException("Write queue is closed");
+        queue.drainTo(batch);
+        batch.forEach(write -> write.future.completeExceptionally(closedError));
+    }
+
+    private void collect(List<PendingWrite<?>> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        if (maxDelayNanos <= 0) {
+            return;
+        }
+        long deadline = System.nanoTime() + maxDelayNanos;
+        while (batch.size() < maxBatchSize) {
+            PendingWrite<?> next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void commit(List<PendingWrite<?>> batch) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (PendingWrite<?> write : batch) {
+                    write.apply(conn);
+                }
+                conn.commit();
+            } catch (Throwable e) {
+                // Errors too, e.g. OutOfMemoryError building a large batch: the transaction must not be left open
+                conn.rollback();
+                throw e;
+            }
+        } catch (Throwable e) {
+            e.printStackTrace();
+            transactions++;
+            failedWrites += batch.size();
+            batch.forEach(write -> write.future.completeExceptionally(e));
+            return;
+        }
+
+        int failed = 0;
+        for (PendingWrite<?> write : batch) {
+            if (write.failure != null) {
+                failed++;
+            }
+        }
+        // counters first, so a caller reading stats after its future completes sees its own write
+        transactions++;
+        committedWrites += batch.size() - failed;
+        failedWrites += failed;
+        largestBatch = Math.max(largestBatch, batch.size());
+        batch.forEach(PendingWrite::complete);
+    }
+
+    public WriteQueueStats getStats() {
+        return new WriteQueueStats(queue.size(), submitted.sum(), transactions, committedWrites, failedWrites,
+                largestBatch);
+    }
+
+    /**
+     * Stops the writer after the transaction in progress. Tasks still queued fail.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class PendingWrite<T> {
+        private final WriteTask<T> task;
+        private final Consumer<? super T> onCommit;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private T result;
+        private Exception failure;
+
+        private PendingWrite(WriteTask<T> task, Consumer<? super T> onCommit) {
+            this.task = task;
+            this.onCommit = onCommit;
+        }
+
+        private void apply(Connection conn) throws SQLException {
+            Savepoint savepoint = conn.setSavepoint();
+            try {
+                result = task.execute(conn);
+                conn.releaseSavepoint(savepoint);
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback(savepoint);
+                failure = e;
+            }
+        }
+
+        private void complete() {
+            if (failure != null) {
+                future.completeExceptionally(failure);
+            } else {
+                if (onCommit != null) {
+                    try {
+                        onCommit.accept(result);
+                    } catch (Throwable e) {
+                        // the write is committed, a failing callback must not report it as lost, nor keep
+                        // the callbacks of the rest of the batch from running
+                        e.printStackTrace();
+                    }
+                }
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.currency.exchange.dao;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of {@link WriteQueue} counters
+ */
+@Getter
+public class WriteQueueStats {
+    private final int pending;
+    private final long submitted;
+    private final long transactions;
+    private final long committedWrites;
+    private final long failedWrites;
+    private final int largestBatch;
+    private final double averageBatchSize;
+
+    public WriteQueueStats(int pending, long submitted, long transactions, long committedWrites,
+                           long failedWrites, int largestBatch) {
+        this.pending = pending;
+        this.submitted = submitted;
+        this.transactions = transactions;
+        this.committedWrites = committedWrites;
+        this.failedWrites = failedWrites;
+        this.largestBatch = largestBatch;
+        this.averageBatchSize = transactions == 0 ? 0 : (double) (committedWrites + failedWrites) / transactions;
+    }
+}
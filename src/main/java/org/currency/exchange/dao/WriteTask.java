@@ -0,0 +1,13 @@
+package org.currency.exchange.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Database mutation executed by {@link WriteQueue} inside a shared transaction. Must not commit, roll
+ * back or close the connection.
+ */
+@FunctionalInterface
+public interface WriteTask<T> {
+    T execute(Connection conn) throws SQLException;
+}
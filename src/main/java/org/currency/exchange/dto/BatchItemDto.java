@@ -0,0 +1,21 @@
+package org.currency.exchange.dto;
+
+import lombok.Getter;
+
+/**
+ * Outcome of one item of a batch request
+ */
+@Getter
+public class BatchItemDto {
+    private final String baseCurrencyCode;
+    private final String targetCurrencyCode;
+    private final int status;
+    private final String message;
+
+    public BatchItemDto(String baseCurrencyCode, String targetCurrencyCode, int status, String message) {
+        this.baseCurrencyCode = baseCurrencyCode;
+        this.targetCurrencyCode = targetCurrencyCode;
+        this.status = status;
+        this.message = message;
+    }
+}
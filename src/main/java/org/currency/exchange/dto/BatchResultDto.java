@@ -0,0 +1,25 @@
+package org.currency.exchange.dto;
+
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * Per-item outcomes and throughput of a batch request
+ */
+@Getter
+public class BatchResultDto {
+    private final List<BatchItemDto> results;
+    private final int succeeded;
+    private final int failed;
+    private final long elapsedMillis;
+    private final long rowsPerSecond;
+
+    public BatchResultDto(List<BatchItemDto> results, int succeeded, int failed, long elapsedNanos) {
+        this.results = results;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos == 0 ? 0 : succeeded * 1_000_000_000L / elapsedNanos;
+    }
+}
@@ -0,0 +1,25 @@
+package org.currency.exchange.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * One item of a {@code /exchange/batch} request. The amount is kept as text and parsed per item, so a
+ * malformed amount fails only its own item.
+ */
+@Getter
+@Setter
+public class ConversionDto {
+    private String from;
+    private String to;
+    private String amount;
+
+    public ConversionDto() {
+    }
+
+    public ConversionDto(String from, String to, String amount) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,33 @@
+package org.currency.exchange.dto;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.util.FixedPointSerializer;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.Getter;
+
+/**
+ * Result of converting an amount from one currency to another. Rate and amounts are scaled by
+ * {@link org.currency.exchange.util.FixedPoint#ONE}.
+ */
+@Getter
+public class ExchangeDto {
+    private final Currency baseCurrency;
+    private final Currency targetCurrency;
+    @JsonSerialize(using = FixedPointSerializer.class)
+    private final long rate;
+    @JsonSerialize(using = FixedPointSerializer.class)
+    private final long amount;
+    @JsonSerialize(using = FixedPointSerializer.class)
+    private final long convertedAmount;
+
+    public ExchangeDto(Currency baseCurrency, Currency targetCurrency, long rate, long amount,
+                       long convertedAmount) {
+        this.baseCurrency = baseCurrency;
+        this.targetCurrency = targetCurrency;
+        this.rate = rate;
+        this.amount = amount;
+        this.convertedAmount = convertedAmount;
+    }
+}
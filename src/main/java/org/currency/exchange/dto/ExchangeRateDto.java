@@ -1,5 +1,11 @@
 package org.currency.exchange.dto;
 
+import org.currency.exchange.util.FixedPointDeserializer;
+import org.currency.exchange.util.FixedPointSerializer;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -8,12 +14,15 @@ import lombok.Setter;
 public class ExchangeRateDto {
     private String baseCurrencyCode;
     private String targetCurrencyCode;
-    private double rate;
+    // scaled by FixedPoint.ONE
+    @JsonSerialize(using = FixedPointSerializer.class)
+    @JsonDeserialize(using = FixedPointDeserializer.class)
+    private long rate;
 
     public ExchangeRateDto() {
     }
 
-    public ExchangeRateDto(String baseCurrencyCode, String targetCurrencyCode, double rate) {
+    public ExchangeRateDto(String baseCurrencyCode, String targetCurrencyCode, long rate) {
         this.baseCurrencyCode = baseCurrencyCode;
         this.targetCurrencyCode = targetCurrencyCode;
         this.rate = rate;
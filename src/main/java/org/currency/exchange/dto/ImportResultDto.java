@@ -0,0 +1,25 @@
+package org.currency.exchange.dto;
+
+import lombok.Getter;
+
+/**
+ * Row counts and throughput of a bulk import
+ */
+@Getter
+public class ImportResultDto {
+    private final long rows;
+    private final long imported;
+    private final long skipped;
+    private final int transactions;
+    private final long elapsedMillis;
+    private final long rowsPerSecond;
+
+    public ImportResultDto(long rows, long imported, int transactions, long elapsedNanos) {
+        this.rows = rows;
+        this.imported = imported;
+        this.skipped = rows - imported;
+        this.transactions = transactions;
+        this.elapsedMillis = elapsedNanos / 1_000_000;
+        this.rowsPerSecond = elapsedNanos == 0 ? 0 : (long) (imported * 1e9 / elapsedNanos);
+    }
+}
@@ -0,0 +1,23 @@
+package org.currency.exchange.dto;
+
+import java.util.List;
+
+import org.currency.exchange.model.RatePoint;
+
+import lombok.Getter;
+
+/**
+ * Recorded rates of one currency pair, oldest first
+ */
+@Getter
+public class RateHistoryDto {
+    private final String baseCurrencyCode;
+    private final String targetCurrencyCode;
+    private final List<RatePoint> history;
+
+    public RateHistoryDto(String baseCurrencyCode, String targetCurrencyCode, List<RatePoint> history) {
+        this.baseCurrencyCode = baseCurrencyCode;
+        this.targetCurrencyCode = targetCurrencyCode;
+        this.history = history;
+    }
+}
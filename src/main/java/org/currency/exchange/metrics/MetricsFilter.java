@@ -0,0 +1,125 @@
+package org.currency.exchange.metrics;
+
+import java.io.IOException;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.annotation.WebFilter;
+import jakarta.servlet.http.HttpFilter;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Times every request and records it under the servlet mapping that served it, e.g.
+ * {@code /exchangeRate/*}, so label values stay bounded whatever paths clients send.
+ * Responses with status 5xx and requests that throw are counted as errors. Requests that go async
+ * are recorded when the async cycle ends rather than when the container thread leaves the chain.
+ */
+@WebFilter(urlPatterns = { "/*" }, asyncSupported = true)
+public class MetricsFilter extends HttpFilter {
+    private final MetricsRegistry registry;
+
+    public MetricsFilter() {
+        this(MetricsRegistry.getInstance());
+    }
+
+    // Constructor for testing
+    MetricsFilter(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilter(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+            throws IOException, ServletException {
+        long start = System.nanoTime();
+        boolean failed = true;
+        boolean async = false;
+        try {
+            chain.doFilter(req, res);
+            async = req.isAsyncStarted();
+            if (async) {
+                req.getAsyncContext().addListener(new CompletionListener(req, res, start));
+            } else {
+                failed = res.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+            }
+        } finally {
+            if (!async) {
+                record(req, start, failed);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest req, long start, boolean failed) {
+        registry.httpTimer(endpointOf(req), methodOf(req)).record(System.nanoTime() - start, failed);
+    }
+
+    private static String endpointOf(HttpServletRequest req) {
+        HttpServletMapping mapping = req.getHttpServletMapping();
+        if (mapping != null && mapping.getPattern() != null) {
+            return mapping.getPattern();
+        }
+        return req.getServletPath();
+    }
+
+    private static String methodOf(HttpServletRequest req) {
+        String method = req.getMethod();
+        switch (method) {
+            case "GET":
+            case "POST":
+            case "PATCH":
+            case "PUT":
+            case "DELETE":
+            case "HEAD":
+            case "OPTIONS":
+                return method;
+            default:
+                return "OTHER";
+        }
+    }
+
+    /**
+     * Records an async request once, on whichever of complete, error or timeout comes first
+     */
+    private final class CompletionListener implements AsyncListener {
+        private final HttpServletRequest req;
+        private final HttpServletResponse res;
+        private final long start;
+        private boolean recorded;
+
+        private CompletionListener(HttpServletRequest req, HttpServletResponse res, long start) {
+            this.req = req;
+            this.res = res;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            finish(res.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            finish(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            finish(true);
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private synchronized void finish(boolean failed) {
+            if (!recorded) {
+                recorded = true;
+                record(req, start, failed);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.currency.exchange.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Request and DAO timings of the application, rendered in the Prometheus text exposition format
+ */
+public class MetricsRegistry {
+    private static final double[] QUANTILES = { 0.5, 0.99, 0.999 };
+
+    private final TimerFamily http = new TimerFamily("http_server_requests",
+            "HTTP requests by servlet mapping and method", "endpoint", "method");
+    private final TimerFamily dao = new TimerFamily("dao_calls",
+            "DAO method calls", "dao", "method");
+
+    private static class MetricsRegistryHelper {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+
+    public static MetricsRegistry getInstance() {
+        return MetricsRegistryHelper.INSTANCE;
+    }
+
+    public RequestTimer httpTimer(String endpoint, String method) {
+        return http.timer(endpoint, method);
+    }
+
+    public RequestTimer daoTimer(String daoName, String method) {
+        return dao.timer(daoName, method);
+    }
+
+    public String scrape() {
+        StringBuilder out = new StringBuilder(4096);
+        writeFamily(out, http);
+        writeFamily(out, dao);
+        return out.toString();
+    }
+
+    private static void writeFamily(StringBuilder out, TimerFamily family) {
+        List<RequestTimer> timers = new ArrayList<>();
+        family.collect(timers);
+        timers.sort(Comparator.comparing(RequestTimer::getLabels));
+
+        String seconds = family.getName() + "_seconds";
+        out.append("# HELP ").append(seconds).append(' ').append(family.getHelp()).append('\n');
+        out.append("# TYPE ").append(seconds).append(" summary\n");
+        for (RequestTimer timer : timers) {
+            LatencyHistogram.Snapshot snapshot = timer.snapshot();
+            for (double quantile : QUANTILES) {
+                out.append(seconds).append('{').append(timer.getLabels())
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(toSeconds(snapshot.valueAt(quantile))).append('\n');
+            }
+            out.append(seconds).append("_sum{").append(timer.getLabels()).append("} ")
+                    .append(toSeconds(timer.getTotalNanos())).append('\n');
+            out.append(seconds).append("_count{").append(timer.getLabels()).append("} ")
+                    .append(timer.getCount()).append('\n');
+        }
+
+        String errors = family.getName() + "_errors_total";
+        out.append("# HELP ").append(errors).append(' ').append(family.getHelp()).append(" that failed\n");
+        out.append("# TYPE ").append(errors).append(" counter\n");
+        for (RequestTimer timer : timers) {
+            out.append(errors).append('{').append(timer.getLabels()).append("} ")
+                    .append(timer.getErrors()).append('\n');
+        }
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1e9;
+    }
+}
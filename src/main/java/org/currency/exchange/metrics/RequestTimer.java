@@ -0,0 +1,65 @@
+package org.currency.exchange.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count, total time and latency distribution of one endpoint or DAO method
+ */
+public class RequestTimer {
+    private final String labels;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    /**
+     * @param labels Prometheus label set without braces, e.g. {@code method="findByCode"}
+     */
+    RequestTimer(String labels) {
+        this.labels = labels;
+    }
+
+    public void record(long nanos, boolean failed) {
+        count.increment();
+        totalNanos.add(nanos);
+        histogram.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Run {@code body} and record its duration, counting it as an error when it throws
+     */
+    public <T, E extends Exception> T time(TimedCall<T, E> body) throws E {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = body.call();
+            failed = false;
+            return result;
+        } finally {
+            record(System.nanoTime() - start, failed);
+        }
+    }
+
+    String getLabels() {
+        return labels;
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    LatencyHistogram.Snapshot snapshot() {
+        return histogram.snapshot();
+    }
+}
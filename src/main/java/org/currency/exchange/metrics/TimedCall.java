@@ -0,0 +1,9 @@
+package org.currency.exchange.metrics;
+
+/**
+ * Body of a call measured by {@link RequestTimer}
+ */
+@FunctionalInterface
+public interface TimedCall<T, E extends Exception> {
+    T call() throws E;
+}
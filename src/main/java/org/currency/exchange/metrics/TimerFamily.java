@@ -0,0 +1,46 @@
+package org.currency.exchange.metrics;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Timers sharing one metric name, told apart by two labels. Lookups of an existing timer do not
+ * allocate.
+ */
+public class TimerFamily {
+    private final String name;
+    private final String help;
+    private final String firstLabel;
+    private final String secondLabel;
+    private final ConcurrentMap<String, ConcurrentMap<String, RequestTimer>> timers = new ConcurrentHashMap<>();
+
+    TimerFamily(String name, String help, String firstLabel, String secondLabel) {
+        this.name = name;
+        this.help = help;
+        this.firstLabel = firstLabel;
+        this.secondLabel = secondLabel;
+    }
+
+    public RequestTimer timer(String first, String second) {
+        return timers.computeIfAbsent(first, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(second, key -> new RequestTimer(
+                        firstLabel + "=\"" + escape(first) + "\"," + secondLabel + "=\"" + escape(second) + "\""));
+    }
+
+    String getName() {
+        return name;
+    }
+
+    String getHelp() {
+        return help;
+    }
+
+    void collect(Collection<RequestTimer> into) {
+        timers.values().forEach(byFirst -> into.addAll(byFirst.values()));
+    }
+
+    private static String escape(String labelValue) {
+        return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
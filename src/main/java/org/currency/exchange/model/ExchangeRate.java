@@ -1,5 +1,9 @@
 package org.currency.exchange.model;
 
+import org.currency.exchange.util.FixedPointSerializer;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,9 +13,11 @@ public class ExchangeRate {
     private int id;
     private Currency baseCurrency;
     private Currency targetCurrency;
-    private double rate;
+    // scaled by FixedPoint.ONE
+    @JsonSerialize(using = FixedPointSerializer.class)
+    private long rate;
 
-    public ExchangeRate(int id, Currency baseCurrency, Currency targetCurrency, double rate) {
+    public ExchangeRate(int id, Currency baseCurrency, Currency targetCurrency, long rate) {
         this.id = id;
         this.baseCurrency = baseCurrency;
         this.targetCurrency = targetCurrency;
@@ -0,0 +1,38 @@
+package org.currency.exchange.model;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.currency.exchange.util.FixedPointSerializer;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import lombok.Getter;
+
+/**
+ * One entry of the exchange rate history
+ */
+@Getter
+@JsonPropertyOrder({ "timestamp", "rate" })
+public class RatePoint {
+    // epoch microseconds
+    @JsonIgnore
+    private final long timestampMicros;
+    // scaled by FixedPoint.ONE
+    @JsonSerialize(using = FixedPointSerializer.class)
+    private final long rate;
+
+    public RatePoint(long timestampMicros, long rate) {
+        this.timestampMicros = timestampMicros;
+        this.rate = rate;
+    }
+
+    /**
+     * ISO-8601 instant, e.g. {@code 2024-05-01T14:05:00.123456Z}
+     */
+    public String getTimestamp() {
+        return Instant.EPOCH.plus(timestampMicros, ChronoUnit.MICROS).toString();
+    }
+}
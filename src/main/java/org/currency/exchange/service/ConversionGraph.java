@@ -0,0 +1,301 @@
+package org.currency.exchange.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+
+/**
+ * All-pairs conversion table over the graph of stored rates.
+ * <p>
+ * Every stored rate {@code A -> B} is an edge in both directions: going backwards divides by the rate
+ * unless {@code B -> A} is stored too. Rates are {@link FixedPoint} values; dividing along the path,
+ * instead of multiplying by a rounded inverse, keeps cross rates exact to the last digit. For every
+ * ordered pair of currencies the table keeps the path with the fewest hops, its predecessor links and
+ * the product of rates along it, so a lookup is two array reads. Among equally short paths the one
+ * found first by a breadth-first search visiting neighbours in ordinal order wins; the preferred
+ * currency passed to {@link #rebuild(Collection, String)} gets ordinal 0, so paths through it are
+ * favoured.
+ * <p>
+ * Since paths are chosen by hop count, changing the value of an existing rate never changes a path,
+ * only the products along it: {@link #updateRate(String, String, long)} recomputes just the rows
+ * whose paths use the changed edge. State is copy-on-write, readers never block.
+ */
+public class ConversionGraph {
+    private volatile Paths paths = Paths.EMPTY;
+
+    private volatile long fullRebuilds;
+    private volatile long lastFullRebuildMicros;
+    private volatile long incrementalUpdates;
+    private volatile long lastIncrementalMicros;
+    private volatile int lastRowsRebuilt;
+
+    /**
+     * @return product of rates along the shortest path, or {@link FixedPoint#NONE} when the currencies
+     * are not connected
+     */
+    public long rate(String fromCode, String toCode) {
+        Paths current = paths;
+        Integer from = current.ordinals.get(fromCode);
+        Integer to = current.ordinals.get(toCode);
+        if (from == null || to == null) {
+            return FixedPoint.NONE;
+        }
+        return current.rates[from][to];
+    }
+
+    /**
+     * @return number of stored rates used to convert, or -1 when the currencies are not connected
+     */
+    public int hops(String fromCode, String toCode) {
+        Paths current = paths;
+        Integer from = current.ordinals.get(fromCode);
+        Integer to = current.ordinals.get(toCode);
+        if (from == null || to == null) {
+            return -1;
+        }
+        return current.hops[from][to];
+    }
+
+    /**
+     * Builds the whole table from scratch
+     *
+     * @param preferredCode currency preferred as an intermediate hop when paths are equally short
+     */
+    public void rebuild(Collection<ExchangeRate> exchangeRates, String preferredCode) {
+        publish(prepare(exchangeRates, preferredCode));
+    }
+
+    /**
+     * Builds the whole table from scratch without publishing it, so the caller can decide afterwards
+     * whether it is still current; takes no lock
+     *
+     * @param preferredCode currency preferred as an intermediate hop when paths are equally short
+     */
+    public Rebuild prepare(Collection<ExchangeRate> exchangeRates, String preferredCode) {
+        long start = System.nanoTime();
+
+        Map<String, Integer> ordinals = new LinkedHashMap<>();
+        if (preferredCode != null) {
+            ordinals.put(preferredCode, 0);
+        }
+        for (ExchangeRate rate : exchangeRates) {
+            ordinals.putIfAbsent(rate.getBaseCurrency().getCode(), ordinals.size());
+            ordinals.putIfAbsent(rate.getTargetCurrency().getCode(), ordinals.size());
+        }
+
+        int size = ordinals.size();
+        long[][] stored = filled(size);
+        int storedCount = 0;
+        for (ExchangeRate rate : exchangeRates) {
+            int base = ordinals.get(rate.getBaseCurrency().getCode());
+            int target = ordinals.get(rate.getTargetCurrency().getCode());
+            if (stored[base][target] == FixedPoint.NONE) {
+                storedCount++;
+            }
+            stored[base][target] = rate.getRate();
+        }
+
+        int[][] adjacency = adjacency(stored);
+
+        Paths next = new Paths(new HashMap<>(ordinals), stored, storedCount, adjacency,
+                new int[size][], new int[size][], new int[size][], new long[size][]);
+        for (int source = 0; source < size; source++) {
+            next.search(source);
+        }
+        return new Rebuild(next, (System.nanoTime() - start) / 1_000);
+    }
+
+    /**
+     * Replaces the table with one built by {@link #prepare(Collection, String)}
+     */
+    public synchronized void publish(Rebuild rebuild) {
+        paths = rebuild.paths;
+        fullRebuilds++;
+        lastFullRebuildMicros = rebuild.micros;
+    }
+
+    /**
+     * Applies a new value of an already stored rate, recomputing only the rows whose paths use it
+     *
+     * @return false when the pair is not part of the graph and a full rebuild is needed
+     */
+    public synchronized boolean updateRate(String baseCode, String targetCode, long rate) {
+        long start = System.nanoTime();
+        Paths current = paths;
+        Integer base = current.ordinals.get(baseCode);
+        Integer target = current.ordinals.get(targetCode);
+        if (base == null || target == null || current.stored[base][target] == FixedPoint.NONE) {
+            return false;
+        }
+        int a = base;
+        int b = target;
+
+        long[][] stored = current.stored.clone();
+        stored[a] = current.stored[a].clone();
+        stored[a][b] = rate;
+
+        Paths next = new Paths(current.ordinals, stored, current.storedCount, current.adjacency,
+                current.parents, current.hops, current.order, current.rates.clone());
+        int rowsRebuilt = 0;
+        for (int source = 0; source < current.size(); source++) {
+            int[] parent = current.parents[source];
+            if (parent[b] == a || parent[a] == b) {
+                next.recomputeRates(source);
+                rowsRebuilt++;
+            }
+        }
+        paths = next;
+
+        incrementalUpdates++;
+        lastRowsRebuilt = rowsRebuilt;
+        lastIncrementalMicros = (System.nanoTime() - start) / 1_000;
+        return true;
+    }
+
+    public GraphStats getStats() {
+        Paths current = paths;
+        return new GraphStats(current.size(), current.storedCount, fullRebuilds, lastFullRebuildMicros,
+                incrementalUpdates, lastIncrementalMicros, lastRowsRebuilt);
+    }
+
+    private static boolean usable(long rate) {
+        return rate != FixedPoint.NONE && rate != 0;
+    }
+
+    private static int[][] adjacency(long[][] stored) {
+        int size = stored.length;
+        int[][] adjacency = new int[size][];
+        int[] buffer = new int[size];
+        for (int a = 0; a < size; a++) {
+            int count = 0;
+            for (int b = 0; b < size; b++) {
+                if (a != b && (usable(stored[a][b]) || usable(stored[b][a]))) {
+                    buffer[count++] = b;
+                }
+            }
+            adjacency[a] = Arrays.copyOf(buffer, count);
+        }
+        return adjacency;
+    }
+
+    private static long[][] filled(int size) {
+        long[][] matrix = new long[size][size];
+        for (long[] row : matrix) {
+            Arrays.fill(row, FixedPoint.NONE);
+        }
+        return matrix;
+    }
+
+    /**
+     * A full table built but not yet published
+     */
+    public static final class Rebuild {
+        private final Paths paths;
+        private final long micros;
+
+        private Rebuild(Paths paths, long micros) {
+            this.paths = paths;
+            this.micros = micros;
+        }
+    }
+
+    /**
+     * One immutable version of the table. Rows are shared between versions when they did not change.
+     */
+    private static final class Paths {
+        private static final Paths EMPTY = new Paths(Map.of(), new long[0][], 0,
+                new int[0][], new int[0][], new int[0][], new int[0][], new long[0][]);
+
+        private final Map<String, Integer> ordinals;
+        private final long[][] stored;
+        private final int storedCount;
+        private final int[][] adjacency;
+        // per source: predecessor of each currency on its path, -1 when unreachable
+        private final int[][] parents;
+        private final int[][] hops;
+        // per source: reachable currencies in breadth-first order
+        private final int[][] order;
+        private final long[][] rates;
+
+        private Paths(Map<String, Integer> ordinals, long[][] stored, int storedCount,
+                      int[][] adjacency, int[][] parents, int[][] hops, int[][] order, long[][] rates) {
+            this.ordinals = ordinals;
+            this.stored = stored;
+            this.storedCount = storedCount;
+            this.adjacency = adjacency;
+            this.parents = parents;
+            this.hops = hops;
+            this.order = order;
+            this.rates = rates;
+        }
+
+        private int size() {
+            return ordinals.size();
+        }
+
+        private void search(int source) {
+            int size = size();
+            int[] parent = new int[size];
+            int[] hop = new int[size];
+            int[] visited = new int[size];
+            Arrays.fill(parent, -1);
+            Arrays.fill(hop, -1);
+            hop[source] = 0;
+            parent[source] = source;
+
+            int count = 0;
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            queue.add(source);
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                visited[count++] = node;
+                for (int neighbour : adjacency[node]) {
+                    if (hop[neighbour] < 0) {
+                        hop[neighbour] = hop[node] + 1;
+                        parent[neighbour] = node;
+                        queue.add(neighbour);
+                    }
+                }
+            }
+
+            parents[source] = parent;
+            hops[source] = hop;
+            order[source] = Arrays.copyOf(visited, count);
+            recomputeRates(source);
+        }
+
+        /**
+         * Rate from the source to {@code to}, given the rate from the source to its neighbour {@code from}.
+         * A result too large for the scale leaves the pair unconvertible rather than wrong.
+         */
+        private long step(long rate, int from, int to) {
+            try {
+                return usable(stored[from][to])
+                        ? FixedPoint.multiply(rate, stored[from][to])
+                        : FixedPoint.divide(rate, stored[to][from]);
+            } catch (ArithmeticException e) {
+                return FixedPoint.NONE;
+            }
+        }
+
+        private void recomputeRates(int source) {
+            long[] rate = new long[size()];
+            Arrays.fill(rate, FixedPoint.NONE);
+            int[] parent = parents[source];
+            for (int node : order[source]) {
+                if (node == source) {
+                    rate[node] = FixedPoint.ONE;
+                } else if (rate[parent[node]] != FixedPoint.NONE) {
+                    rate[node] = step(rate[parent[node]], parent[node], node);
+                }
+            }
+            rates[source] = rate;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.currency.exchange.service;
+
+import java.util.List;
+
+import org.currency.exchange.dao.CurrencyDAO;
+import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.dao.RateChangeListener;
+import org.currency.exchange.dao.RateChangePublisher;
+import org.currency.exchange.dto.ExchangeDto;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.FixedPoint;
+
+/**
+ * Converts amounts between currencies using an in-memory copy of the exchange rate table.
+ * <p>
+ * A rate is resolved in this order: the stored pair, the inverse of the reverse pair, then the shortest
+ * chain of rates found in the precomputed {@link ConversionGraph}, which prefers going through the pivot
+ * currency. The table is loaded on first use, patched when a rate is updated and reloaded lazily when
+ * pairs or currencies are added or removed.
+ * <p>
+ * Change notifications arrive on the database writer thread, so they only ever take {@code lock} for an
+ * in-memory patch. A reload reads the database and rebuilds the graph outside it and publishes the
+ * result only when no change arrived in the meantime, like {@code RateMatrix} does; otherwise the request
+ * that loaded is answered from what it read and the next one loads again.
+ * <p>
+ * Rates and amounts are {@link FixedPoint} values, converted amounts are rounded to cents.
+ */
+public class ExchangeService implements RateChangeListener {
+    private final ExchangeRateDAO exchangeRateDAO;
+    private final String pivotCode;
+    private final ConversionGraph graph = new ConversionGraph();
+    private final Object lock = new Object();
+    // one reload at a time, the others wait for its result; never taken by change notifications
+    private final Object loadLock = new Object();
+    private volatile RateTable table;
+    // guarded by lock, bumped by every change
+    private long version;
+
+    public ExchangeService(ExchangeRateDAO exchangeRateDAO, String pivotCode) {
+        this.exchangeRateDAO = exchangeRateDAO;
+        this.pivotCode = pivotCode;
+    }
+
+    private static class ExchangeServiceHelper {
+        private static final ExchangeService INSTANCE = create();
+
+        private static ExchangeService create() {
+            ExchangeService service = new ExchangeService(new ExchangeRateDAO(new CurrencyDAO()),
+                    AppConfig.getString("exchange.pivotCurrency", "USD"));
+            RateChangePublisher.getInstance().subscribe(service);
+            return service;
+        }
+    }
+
+    public static ExchangeService getInstance() {
+        return ExchangeServiceHelper.INSTANCE;
+    }
+
+    /**
+     * @return conversion result or null when either currency is unknown or no rate connects them
+     */
+    public ExchangeDto exchange(String fromCode, String toCode, long amount) {
+        Quote quote = quote(fromCode, toCode);
+        return quote == null ? null : quote.convert(amount);
+    }
+
+    /**
+     * Resolves a pair once for converting many amounts
+     *
+     * @return quote or null when either currency is unknown or no rate connects them
+     */
+    public Quote quote(String fromCode, String toCode) {
+        RateTable rates = table();
+        Currency base = rates.currency(fromCode);
+        Currency target = rates.currency(toCode);
+        if (base == null || target == null) {
+            return null;
+        }
+        long rate = findRate(rates, fromCode, toCode);
+        return rate == FixedPoint.NONE ? null : new Quote(base, target, rate);
+    }
+
+    /**
+     * @return rate to convert one unit of {@code fromCode} into {@code toCode}, or {@link FixedPoint#NONE}
+     * when unknown
+     */
+    public long findRate(String fromCode, String toCode) {
+        return findRate(table(), fromCode, toCode);
+    }
+
+    private long findRate(RateTable rates, String fromCode, String toCode) {
+        long rate = directOrInverse(rates, fromCode, toCode);
+        return rate == FixedPoint.NONE ? graph.rate(fromCode, toCode) : rate;
+    }
+
+    private static long directOrInverse(RateTable rates, String fromCode, String toCode) {
+        if (fromCode.equals(toCode)) {
+            return FixedPoint.ONE;
+        }
+        ExchangeRate direct = rates.get(fromCode, toCode);
+        if (direct != null) {
+            return direct.getRate();
+        }
+        ExchangeRate reverse = rates.get(toCode, fromCode);
+        if (reverse != null && reverse.getRate() != 0) {
+            return FixedPoint.divide(FixedPoint.ONE, reverse.getRate());
+        }
+        return FixedPoint.NONE;
+    }
+
+    /**
+     * Replaces the in-memory rate table, e.g. with rates restored from a snapshot at start
+     */
+    public void load(List<ExchangeRate> rates) {
+        synchronized (lock) {
+            version++;
+            graph.rebuild(rates, pivotCode);
+            table = RateTable.of(rates);
+        }
+    }
+
+    private RateTable table() {
+        RateTable current = table;
+        if (current != null) {
+            return current;
+        }
+        synchronized (loadLock) {
+            current = table;
+            if (current != null) {
+                return current;
+            }
+            long loadedAt;
+            synchronized (lock) {
+                loadedAt = version;
+            }
+            List<ExchangeRate> rates = exchangeRateDAO.getAllExchangeRates();
+            ConversionGraph.Rebuild paths = graph.prepare(rates, pivotCode);
+            RateTable loaded = RateTable.of(rates);
+            synchronized (lock) {
+                if (version == loadedAt) {
+                    graph.publish(paths);
+                    table = loaded;
+                }
+            }
+            return loaded;
+        }
+    }
+
+    @Override
+    public void onRateChanged(String baseCode, String targetCode, long rate) {
+        synchronized (lock) {
+            version++;
+            RateTable current = table;
+            if (current == null) {
+                return;
+            }
+            RateTable updated = current.withRate(baseCode, targetCode, rate);
+            // a new pair needs currency details, so reload everything on next use
+            table = updated != null && graph.updateRate(baseCode, targetCode, rate) ? updated : null;
+        }
+    }
+
+    public GraphStats getGraphStats() {
+        return graph.getStats();
+    }
+
+    @Override
+    public void onCurrenciesChanged() {
+        synchronized (lock) {
+            version++;
+            table = null;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package org.currency.exchange.service;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of {@link ConversionGraph} size and rebuild timings
+ */
+@Getter
+public class GraphStats {
+    private final int currencies;
+    private final int storedRates;
+    private final long fullRebuilds;
+    private final long lastFullRebuildMicros;
+    private final long incrementalUpdates;
+    private final long lastIncrementalMicros;
+    private final int lastRowsRebuilt;
+
+    public GraphStats(int currencies, int storedRates, long fullRebuilds, long lastFullRebuildMicros,
+                      long incrementalUpdates, long lastIncrementalMicros, int lastRowsRebuilt) {
+        this.currencies = currencies;
+        this.storedRates = storedRates;
+        this.fullRebuilds = fullRebuilds;
+        this.lastFullRebuildMicros = lastFullRebuildMicros;
+        this.incrementalUpdates = incrementalUpdates;
+        this.lastIncrementalMicros = lastIncrementalMicros;
+        this.lastRowsRebuilt = lastRowsRebuilt;
+    }
+}
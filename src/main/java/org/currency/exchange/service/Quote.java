@@ -0,0 +1,36 @@
+package org.currency.exchange.service;
+
+import org.currency.exchange.dto.ExchangeDto;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.util.FixedPoint;
+
+import lombok.Getter;
+
+/**
+ * Resolved currencies and rate of one pair, reusable for converting any number of amounts
+ */
+@Getter
+public class Quote {
+    private static final int AMOUNT_DIGITS = 2;
+
+    private final Currency baseCurrency;
+    private final Currency targetCurrency;
+    // scaled by FixedPoint.ONE
+    private final long rate;
+
+    public Quote(Currency baseCurrency, Currency targetCurrency, long rate) {
+        this.baseCurrency = baseCurrency;
+        this.targetCurrency = targetCurrency;
+        this.rate = rate;
+    }
+
+    /**
+     * Converted amounts are rounded to cents
+     *
+     * @throws ArithmeticException when the converted amount does not fit a {@link FixedPoint} value
+     */
+    public ExchangeDto convert(long amount) {
+        return new ExchangeDto(baseCurrency, targetCurrency, rate, amount,
+                FixedPoint.round(FixedPoint.multiply(amount, rate), AMOUNT_DIGITS));
+    }
+}
@@ -0,0 +1,74 @@
+package org.currency.exchange.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+
+/**
+ * Immutable snapshot of all stored exchange rates, indexed base code -> target code -> rate.
+ * Nested maps let callers look up a pair by its two codes without building a key string.
+ */
+final class RateTable {
+    static final RateTable EMPTY = new RateTable(Map.of(), Map.of());
+
+    private final Map<String, Map<String, ExchangeRate>> rates;
+    private final Map<String, Currency> currencies;
+
+    private RateTable(Map<String, Map<String, ExchangeRate>> rates, Map<String, Currency> currencies) {
+        this.rates = rates;
+        this.currencies = currencies;
+    }
+
+    static RateTable of(Collection<ExchangeRate> exchangeRates) {
+        Map<String, Map<String, ExchangeRate>> rates = new HashMap<>();
+        Map<String, Currency> currencies = new HashMap<>();
+        for (ExchangeRate rate : exchangeRates) {
+            Currency base = rate.getBaseCurrency();
+            Currency target = rate.getTargetCurrency();
+            rates.computeIfAbsent(base.getCode(), code -> new HashMap<>()).put(target.getCode(), rate);
+            currencies.put(base.getCode(), base);
+            currencies.put(target.getCode(), target);
+        }
+        return new RateTable(rates, currencies);
+    }
+
+    /**
+     * @return stored rate or null
+     */
+    ExchangeRate get(String baseCode, String targetCode) {
+        Map<String, ExchangeRate> targets = rates.get(baseCode);
+        return targets == null ? null : targets.get(targetCode);
+    }
+
+    /**
+     * @return currency taking part in at least one rate, or null
+     */
+    Currency currency(String code) {
+        return currencies.get(code);
+    }
+
+    Collection<Currency> currencies() {
+        return currencies.values();
+    }
+
+    /**
+     * Copy of this table with a new value for an existing pair; only the base currency's row is copied
+     *
+     * @return updated table or null when the pair is not in this table
+     */
+    RateTable withRate(String baseCode, String targetCode, long value) {
+        ExchangeRate current = get(baseCode, targetCode);
+        if (current == null) {
+            return null;
+        }
+        Map<String, ExchangeRate> row = new HashMap<>(rates.get(baseCode));
+        row.put(targetCode, new ExchangeRate(current.getId(), current.getBaseCurrency(),
+                current.getTargetCurrency(), value));
+        Map<String, Map<String, ExchangeRate>> copy = new HashMap<>(rates);
+        copy.put(baseCode, row);
+        return new RateTable(copy, currencies);
+    }
+}
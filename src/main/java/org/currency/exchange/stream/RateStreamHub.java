@@ -0,0 +1,213 @@
+package org.currency.exchange.stream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.currency.exchange.dao.RateChangeListener;
+import org.currency.exchange.dao.RateChangePublisher;
+import org.currency.exchange.dto.ExchangeRateDto;
+import org.currency.exchange.util.AppConfig;
+import org.currency.exchange.util.ObjectMapperUtil;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+
+/**
+ * Pushes rate changes to Server-Sent Events subscribers.
+ * <p>
+ * Every change is serialized once into a {@code text/event-stream} frame and the same bytes are queued
+ * to every subscriber interested in the pair. Fan-out runs on a single thread, so events reach each
+ * subscriber in publication order and the writer of the rate never waits for slow connections. Each
+ * subscriber buffers at most {@code bufferSize} events; one that falls further behind is disconnected
+ * and can reconnect and reload the rates. A comment line is sent every {@code heartbeatSeconds} to keep
+ * idle connections open through proxies and to notice clients that went away.
+ */
+public class RateStreamHub implements RateChangeListener, AutoCloseable {
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HELLO = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Semaphore slots;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final ScheduledExecutorService fanOut;
+    private final ExecutorService writers;
+    private long sequence;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * @param maxSubscribers   maximum number of open streams
+     * @param bufferSize       events queued per subscriber before it is dropped
+     * @param writerThreads    threads writing to connections that can take more bytes
+     * @param heartbeatSeconds interval of keep-alive comments, 0 disables them
+     */
+    public RateStreamHub(int maxSubscribers, int bufferSize, int writerThreads, long heartbeatSeconds) {
+        if (maxSubscribers <= 0 || bufferSize <= 0) {
+            throw new IllegalArgumentException("Subscriber limit and buffer size must be positive");
+        }
+        this.maxSubscribers = maxSubscribers;
+        this.slots = new Semaphore(maxSubscribers);
+        this.bufferSize = bufferSize;
+        this.fanOut = Executors.newSingleThreadScheduledExecutor(daemonThreads("sse-fanout"));
+        this.writers = Executors.newFixedThreadPool(writerThreads, daemonThreads("sse-writer"));
+        if (heartbeatSeconds > 0) {
+            fanOut.scheduleAtFixedRate(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    private static class RateStreamHubHelper {
+        private static final RateStreamHub INSTANCE = create();
+
+        private static RateStreamHub create() {
+            RateStreamHub hub = new RateStreamHub(
+                    AppConfig.getInt("stream.maxSubscribers", 10_000),
+                    AppConfig.getInt("stream.subscriberBufferSize", 256),
+                    AppConfig.getInt("stream.writerThreads", 2),
+                    AppConfig.getLong("stream.heartbeatSeconds", 15));
+            RateChangePublisher.getInstance().subscribe(hub);
+            return hub;
+        }
+    }
+
+    public static RateStreamHub getInstance() {
+        return RateStreamHubHelper.INSTANCE;
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Takes one of the {@code maxSubscribers} slots, to be passed on to {@link #subscribe} or given
+     * back with {@link #release()}
+     *
+     * @return false when the limit is reached
+     */
+    public boolean reserve() {
+        return slots.tryAcquire();
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    /**
+     * Attaches an async request holding a {@link #reserve() reserved} slot. The response headers must
+     * already be set.
+     *
+     * @param pairs concatenated pair codes to receive, e.g. {@code USDEUR}, or null for all of them
+     */
+    public void subscribe(AsyncContext async, Set<String> pairs) throws IOException {
+        ServletOutputStream out = async.getResponse().getOutputStream();
+        Subscriber subscriber = new Subscriber(this, async, out, pairs, bufferSize, writers);
+        async.addListener(subscriber);
+        out.setWriteListener(subscriber);
+        subscribers.add(subscriber);
+        if (subscriber.isClosed()) {
+            // the client left before it was added, close() could not hand the slot back
+            remove(subscriber);
+            return;
+        }
+        subscriber.offer(HELLO);
+    }
+
+    void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            slots.release();
+        }
+    }
+
+    @Override
+    public void onRateChanged(String baseCode, String targetCode, long rate) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        fanOut.execute(() -> publish(baseCode, targetCode, rate));
+    }
+
+    private void publish(String baseCode, String targetCode, long rate) {
+        byte[] event;
+        try {
+            event = encode(++sequence, new ExchangeRateDto(baseCode, targetCode, rate));
+        } catch (JsonProcessingException e) {
+            e.printStackTrace();
+            return;
+        }
+        published.increment();
+        String pair = baseCode + targetCode;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(pair)) {
+                deliver(subscriber, event);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.offer(HEARTBEAT)) {
+                drop(subscriber);
+            }
+        }
+    }
+
+    private void deliver(Subscriber subscriber, byte[] event) {
+        if (subscriber.offer(event)) {
+            delivered.increment();
+        } else {
+            drop(subscriber);
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (!subscriber.isClosed()) {
+            dropped.increment();
+            subscriber.close();
+        }
+    }
+
+    static byte[] encode(long id, ExchangeRateDto rate) throws JsonProcessingException {
+        return ("id: " + id + "\nevent: rate\ndata: "
+                + ObjectMapperUtil.getInstance().writeValueAsString(rate) + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    public StreamStats getStats() {
+        int pending = 0;
+        for (Subscriber subscriber : subscribers) {
+            pending += subscriber.pending();
+        }
+        return new StreamStats(subscribers.size(), maxSubscribers, pending, published.sum(), delivered.sum(),
+                dropped.sum());
+    }
+
+    /**
+     * Disconnects every subscriber and stops the threads
+     */
+    @Override
+    public void close() {
+        fanOut.shutdown();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.close();
+        }
+        writers.shutdown();
+    }
+}
@@ -0,0 +1,26 @@
+package org.currency.exchange.stream;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of {@link RateStreamHub} counters
+ */
+@Getter
+public class StreamStats {
+    private final int subscribers;
+    private final int maxSubscribers;
+    private final int pendingEvents;
+    private final long published;
+    private final long delivered;
+    private final long droppedSubscribers;
+
+    public StreamStats(int subscribers, int maxSubscribers, int pendingEvents, long published, long delivered,
+                       long droppedSubscribers) {
+        this.subscribers = subscribers;
+        this.maxSubscribers = maxSubscribers;
+        this.pendingEvents = pendingEvents;
+        this.published = published;
+        this.delivered = delivered;
+        this.droppedSubscribers = droppedSubscribers;
+    }
+}
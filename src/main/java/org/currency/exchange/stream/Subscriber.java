@@ -0,0 +1,146 @@
+package org.currency.exchange.stream;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+/**
+ * One open event stream.
+ * <p>
+ * Events are queued in a bounded buffer and written with non-blocking I/O: a drain runs on a writer thread
+ * only while the connection can take more bytes, and resumes from {@link #onWritePossible()} once it
+ * can again, so a stalled client holds no thread. When the buffer is full {@link #offer(byte[])} fails
+ * and the hub drops the subscriber.
+ */
+final class Subscriber implements WriteListener, AsyncListener {
+    private final RateStreamHub hub;
+    private final AsyncContext async;
+    private final ServletOutputStream out;
+    // null receives every pair
+    private final Set<String> pairs;
+    private final BlockingQueue<byte[]> buffer;
+    private final Executor writer;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    Subscriber(RateStreamHub hub, AsyncContext async, ServletOutputStream out, Set<String> pairs,
+               int bufferSize, Executor writer) {
+        this.hub = hub;
+        this.async = async;
+        this.out = out;
+        this.pairs = pairs;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.writer = writer;
+    }
+
+    boolean accepts(String pair) {
+        return pairs == null || pairs.contains(pair);
+    }
+
+    /**
+     * Queues an event without blocking
+     *
+     * @return false when the subscriber is closed or its buffer is full
+     */
+    boolean offer(byte[] event) {
+        if (closed.get() || !buffer.offer(event)) {
+            return false;
+        }
+        schedule();
+        return true;
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            writer.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            synchronized (this) {
+                while (!closed.get() && out.isReady()) {
+                    byte[] event = buffer.poll();
+                    if (event == null) {
+                        out.flush();
+                        break;
+                    }
+                    out.write(event);
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            close();
+        } finally {
+            scheduled.set(false);
+        }
+        // an event queued after the last poll, or an onWritePossible that came before the flag was cleared,
+        // found the drain still scheduled and left its work to it; when the connection is not ready, the
+        // container calls onWritePossible once it accepts more bytes
+        try {
+            if (!closed.get() && !buffer.isEmpty() && out.isReady()) {
+                schedule();
+            }
+        } catch (IllegalStateException e) {
+            close();
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    int pending() {
+        return buffer.size();
+    }
+
+    void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        hub.remove(this);
+        buffer.clear();
+        try {
+            async.complete();
+        } catch (IllegalStateException ignored) {
+            // already completed by the container
+        }
+    }
+
+    @Override
+    public void onWritePossible() {
+        schedule();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+}
@@ -0,0 +1,60 @@
+package org.currency.exchange.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Application settings loaded from {@code application.properties} on the classpath.
+ * Any key can be overridden with a JVM system property of the same name, e.g. {@code -Ddb.url=...}
+ */
+public class AppConfig {
+    private static final String RESOURCE = "application.properties";
+
+    private final Properties properties = new Properties();
+
+    private AppConfig() {
+        try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static class AppConfigHelper {
+        private static final AppConfig INSTANCE = new AppConfig();
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key);
+        if (value == null) {
+            value = AppConfigHelper.INSTANCE.properties.getProperty(key);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid integer value for '" + key + "': " + value, e);
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid long value for '" + key + "': " + value, e);
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
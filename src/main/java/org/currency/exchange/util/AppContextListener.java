@@ -1,16 +1,147 @@
 package org.currency.exchange.util;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.currency.exchange.cache.CurrencyRegistry;
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.RateMatrix;
+import org.currency.exchange.cache.StateSnapshot;
+import org.currency.exchange.cache.StateSnapshot.SourceStamp;
+import org.currency.exchange.dao.CurrencyDAO;
+import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.dao.WriteQueue;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.service.ExchangeService;
+import org.currency.exchange.stream.RateStreamHub;
+
 import jakarta.servlet.ServletContextEvent;
 import jakarta.servlet.ServletContextListener;
 import jakarta.servlet.annotation.WebListener;
 
 /**
- * Init DB when app starts
+ * Migrate the DB and warm the in-memory state when app starts, snapshot it on shutdown
  */
 @WebListener
 public class AppContextListener implements ServletContextListener {
+    private static final boolean SNAPSHOT_ENABLED = AppConfig.getBoolean("snapshot.enabled", true);
+
     @Override
     public void contextInitialized(ServletContextEvent sce) {
-        DatabaseUtil.initializeDatabase();
+        long start = System.nanoTime();
+        Path database = DatabaseUtil.getDatabaseFile();
+        Path snapshotFile = snapshotFile(database);
+        // the stamp must be taken before the first connection opens the database
+        StateSnapshot snapshot = readSnapshot(database, snapshotFile);
+
+        int migrations = DatabaseUtil.initializeDatabase();
+        String source;
+        List<Currency> currencies;
+        List<ExchangeRate> rates;
+        if (snapshot != null && migrations == 0) {
+            source = "snapshot";
+            currencies = snapshot.getCurrencies();
+            rates = snapshot.getRates();
+        } else {
+            source = "database";
+            try {
+                CurrencyDAO currencyDAO = new CurrencyDAO();
+                currencies = new ArrayList<>(currencyDAO.getAllCurrencies());
+                rates = new ExchangeRateDAO(currencyDAO).getAllExchangeRates();
+            } catch (SQLException | RuntimeException e) {
+                // lookups fall back to the database until the registry is loaded
+                e.printStackTrace();
+                return;
+            }
+        }
+        warmUp(currencies, rates);
+
+        sce.getServletContext().log(String.format(
+                "Started in %d ms: schema migrations applied %d, %d currencies and %d exchange rates loaded from %s",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Math.max(migrations, 0),
+                currencies.size(), rates.size(), source));
+    }
+
+    private static void warmUp(List<Currency> currencies, List<ExchangeRate> rates) {
+        CurrencyRegistry.getInstance().load(currencies);
+        ExchangeService.getInstance().load(rates);
+        ExchangeRateCache cache = ExchangeRateCache.getInstance();
+        cache.preload(rates, cache.generation());
+        RateMatrix matrix = RateMatrix.getInstance();
+        matrix.load(currencies, rates, matrix.generation());
+    }
+
+    /**
+     * A snapshot is used at most once: it is deleted after reading, so a crash before the next clean
+     * shutdown can never bring back stale data
+     */
+    private static StateSnapshot readSnapshot(Path database, Path snapshotFile) {
+        if (snapshotFile == null) {
+            return null;
+        }
+        try {
+            SourceStamp stamp = SourceStamp.of(database);
+            StateSnapshot snapshot = stamp == null ? null : StateSnapshot.read(snapshotFile, stamp);
+            Files.deleteIfExists(snapshotFile);
+            return snapshot;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static Path snapshotFile(Path database) {
+        if (!SNAPSHOT_ENABLED || database == null) {
+            return null;
+        }
+        String configured = AppConfig.getString("snapshot.path", null);
+        return configured != null ? Path.of(configured)
+                : database.resolveSibling(database.getFileName() + ".snapshot");
+    }
+
+    /**
+     * Close event streams, stop request workers and the writer, release pooled connections and snapshot
+     * the data on undeploy
+     */
+    @Override
+    public void contextDestroyed(ServletContextEvent sce) {
+        RateStreamHub.getInstance().close();
+        RequestExecutor.getInstance().close();
+        WriteQueue.getInstance().close();
+
+        Path database = DatabaseUtil.getDatabaseFile();
+        Path snapshotFile = snapshotFile(database);
+        Collection<Currency> currencies = null;
+        List<ExchangeRate> rates = null;
+        if (snapshotFile != null) {
+            try {
+                CurrencyDAO currencyDAO = new CurrencyDAO();
+                currencies = currencyDAO.getAllCurrencies();
+                rates = new ExchangeRateDAO(currencyDAO).getAllExchangeRates();
+            } catch (SQLException | RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        DatabaseUtil.shutdown();
+
+        if (currencies != null && rates != null) {
+            // stamped after the pools closed, once the last connection has checkpointed the write-ahead log
+            try {
+                SourceStamp stamp = SourceStamp.of(database);
+                if (stamp != null) {
+                    StateSnapshot.write(snapshotFile, currencies, rates, stamp);
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
     }
 }
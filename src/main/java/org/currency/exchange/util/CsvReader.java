@@ -0,0 +1,127 @@
+package org.currency.exchange.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads comma-separated records one at a time, holding only the current record in memory.
+ * <p>
+ * Fields may be enclosed in double quotes to contain commas, line breaks or doubled quotes; records end
+ * with {@code \n} or {@code \r\n}. Blank lines and a leading byte order mark are skipped.
+ */
+public class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long line = 1;
+    private boolean started;
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * @return fields of the next record or null at the end of the input
+     * @throws IllegalArgumentException when a quoted field is not closed
+     */
+    public String[] readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        int c = read();
+        if (!started) {
+            started = true;
+            // byte order mark written by spreadsheet exports
+            if (c == '\uFEFF') {
+                c = read();
+            }
+        }
+        // skip blank lines
+        for (; c == '\r' || c == '\n'; c = read()) {
+            if (c == '\n') {
+                line++;
+            }
+        }
+        if (c < 0) {
+            return null;
+        }
+
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        long start = line;
+        for (; ; c = read()) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IllegalArgumentException("Unclosed quote in the record at line " + start);
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                        continue;
+                    }
+                    quoted = false;
+                    c = next;
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                    continue;
+                }
+            }
+            if (c == '"' && field.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                endField(wasQuoted);
+                wasQuoted = false;
+            } else if (c == '\n' || c < 0) {
+                endField(wasQuoted);
+                if (c == '\n') {
+                    line++;
+                }
+                return fields.toArray(new String[0]);
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * @return line the next record starts at, for error messages
+     */
+    public long getLine() {
+        return line;
+    }
+
+    private void endField(boolean wasQuoted) {
+        // unquoted fields are trimmed, quoted ones are taken as written
+        fields.add(wasQuoted ? field.toString() : field.toString().trim());
+        field.setLength(0);
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -1,15 +1,19 @@
 package org.currency.exchange.util;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import javax.sql.DataSource;
+
+import org.sqlite.SQLiteConfig;
 
 /**
  * Handles database connections and initialization
  */
 public class DatabaseUtil {
-    private final static String URL = "jdbc:sqlite:/Users/stag/Documents/DB/exchange1.db";
+    private final static String DEFAULT_URL = "jdbc:sqlite:/Users/stag/Documents/DB/exchange1.db";
 
     // register db to avoid an error
     static {
@@ -20,64 +24,113 @@ public class DatabaseUtil {
         }
     }
 
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL);
+    /**
+     * Readers share a read-only pool. All mutations go through a single writer connection, so with WAL
+     * journaling readers never wait for a commit and writers never race each other for the file lock.
+     */
+    private static class DataSourceHelper {
+        private static final String URL = AppConfig.getString("db.url", DEFAULT_URL);
+        private static final long ACQUIRE_TIMEOUT_MILLIS = AppConfig.getLong("db.pool.acquireTimeoutMillis", 5_000);
+        private static final long VALIDATE_AFTER_IDLE_MILLIS =
+                AppConfig.getLong("db.pool.validateAfterIdleMillis", 30_000);
+        private static final int STATEMENT_CACHE_SIZE = AppConfig.getInt("db.pool.statementCacheSize", 32);
+
+        // initializeDatabase() runs on the writer, switching the file to WAL before any reader opens it
+        private static final PooledDataSource WRITER = new PooledDataSource(URL, sqliteProperties(false), 1,
+                ACQUIRE_TIMEOUT_MILLIS, VALIDATE_AFTER_IDLE_MILLIS, STATEMENT_CACHE_SIZE);
+        private static final PooledDataSource READERS = new PooledDataSource(URL, sqliteProperties(true),
+                AppConfig.getInt("db.pool.maxSize", 10), ACQUIRE_TIMEOUT_MILLIS, VALIDATE_AFTER_IDLE_MILLIS,
+                STATEMENT_CACHE_SIZE);
     }
 
-    public static void initializeDatabase() {
-        try (Statement smtm = getConnection().createStatement()) {
-            smtm.execute("drop table if exists currencies");
-
-            smtm.execute(
-                    "CREATE TABLE currencies (" +
-                            "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                            "    code TEXT NOT NULL UNIQUE," +
-                            "    fullName name TEXT NOT NULL," +
-                            "    sign TEXT NOT NULL" +
-                            ");"
-            );
-
-            smtm.execute("drop table if exists exchangeRates");
-
-            smtm.execute(
-                    "CREATE TABLE exchangeRates (" +
-                            "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
-                            "    base_currency_id INTEGER NOT NULL," +
-                            "    target_currency_id INTEGER NOT NULL," +
-                            "    rate DECIMAL(6) NOT NULL," +
-                            "    FOREIGN KEY (base_currency_id) REFERENCES currencies(id)," +
-                            "    FOREIGN KEY (target_currency_id) REFERENCES currencies(id)," +
-                            "    UNIQUE (base_currency_id, target_currency_id)" +
-                            ");"
-            );
-
-            insertInitialData();
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private static Properties sqliteProperties(boolean readOnly) {
+        SQLiteConfig config = new SQLiteConfig();
+        config.setReadOnly(readOnly);
+        if (!readOnly) {
+            // journal mode is stored in the database file, readers pick it up from there
+            config.setPragma(SQLiteConfig.Pragma.JOURNAL_MODE, AppConfig.getString("db.sqlite.journalMode", "WAL"));
         }
+        config.setPragma(SQLiteConfig.Pragma.SYNCHRONOUS, AppConfig.getString("db.sqlite.synchronous", "NORMAL"));
+        config.setPragma(SQLiteConfig.Pragma.CACHE_SIZE, AppConfig.getString("db.sqlite.cacheSize", "-16000"));
+        config.setPragma(SQLiteConfig.Pragma.MMAP_SIZE, AppConfig.getString("db.sqlite.mmapSize", "268435456"));
+        config.setPragma(SQLiteConfig.Pragma.BUSY_TIMEOUT,
+                AppConfig.getString("db.sqlite.busyTimeoutMillis", "5000"));
+        return config.toProperties();
+    }
+
+    public static DataSource getDataSource() {
+        return DataSourceHelper.READERS;
+    }
+
+    public static DataSource getWriteDataSource() {
+        return DataSourceHelper.WRITER;
+    }
+
+    /**
+     * Borrow a read-only connection from the pool. Closing it returns it to the pool.
+     */
+    public static Connection getConnection() throws SQLException {
+        return DataSourceHelper.READERS.getConnection();
     }
 
-    private static void insertInitialData() {
-        try (Statement stmt = getConnection().createStatement()) {
-
-            stmt.execute("INSERT INTO currencies (code, fullName, sign) VALUES " +
-                    "('USD', 'US Dollar', '$')," +
-                    "('EUR', 'Euro', '€'), " +
-                    "('RUR', 'Russian Ruble', '₽'), " +
-                    "('GBP', 'British Pound', '£');"
-            );
-            stmt.execute("INSERT INTO exchangeRates (base_currency_id, target_currency_id, rate) " +
-                    "VALUES  " +
-                    "((SELECT id FROM currencies WHERE code = 'USD'), " +
-                    "( SELECT id FROM currencies WHERE code = 'EUR'), 0.92) , " +
-                    "((SELECT id FROM currencies WHERE code = 'USD'), " +
-                    "( SELECT id FROM currencies WHERE code = 'RUR'), 81.66), " +
-                    "(( SELECT id FROM currencies WHERE code = 'EUR'), " +
-                    "( SELECT id FROM currencies WHERE code = 'RUR'), 89.14)"
-            );
+    /**
+     * Borrow the writer connection, waiting while another mutation holds it. Closing it hands it to the
+     * next writer.
+     */
+    public static Connection getWriteConnection() throws SQLException {
+        return DataSourceHelper.WRITER.getConnection();
+    }
+
+    public static PoolStats getPoolStats() {
+        return DataSourceHelper.READERS.getStats();
+    }
+
+    public static PoolStats getWriterStats() {
+        return DataSourceHelper.WRITER.getStats();
+    }
+
+    public static void shutdown() {
+        DataSourceHelper.READERS.close();
+        DataSourceHelper.WRITER.close();
+    }
 
+    /**
+     * Brings the schema up to date and seeds the default data into an empty database. Existing data is
+     * kept, so this runs on every start.
+     *
+     * @return number of schema migrations applied, or -1 when the database could not be initialized
+     */
+    public static int initializeDatabase() {
+        try (Connection conn = getWriteConnection()) {
+            int applied = SchemaMigrations.migrate(conn);
+            SchemaMigrations.seedIfEmpty(conn);
+            return applied;
         } catch (SQLException e) {
             e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * @return database file behind {@code db.url}, or null for in-memory and non-file databases
+     */
+    public static Path getDatabaseFile() {
+        String url = DataSourceHelper.URL;
+        String prefix = "jdbc:sqlite:";
+        if (!url.startsWith(prefix)) {
+            return null;
+        }
+        String location = url.substring(prefix.length());
+        int query = location.indexOf('?');
+        if (query >= 0) {
+            location = location.substring(0, query);
+        }
+        if (location.startsWith("file:")) {
+            location = location.substring("file:".length());
+        }
+        if (location.isEmpty() || location.startsWith(":memory:") || location.contains("mode=memory")) {
+            return null;
         }
+        return Path.of(location);
     }
 }
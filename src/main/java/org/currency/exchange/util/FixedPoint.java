@@ -0,0 +1,246 @@
+package org.currency.exchange.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Decimal arithmetic on {@code long} values scaled by {@link #ONE}, used for rates and amounts.
+ * <p>
+ * With the default scale of 8 the value {@code 0.92} is stored as {@code 92_000_000}. Results are
+ * rounded half away from zero. No method allocates except {@link #toString(long)} and
+ * {@link #fromBigDecimal(BigDecimal)}. An overflow throws {@link ArithmeticException} instead of
+ * wrapping around.
+ */
+public final class FixedPoint {
+    /**
+     * Number of decimal digits kept, from {@code money.scale}, at most 9 so products of fractions fit
+     */
+    public static final int SCALE = AppConfig.getInt("money.scale", 8);
+    private static final long[] POWERS_OF_TEN = powersOfTen();
+    public static final long ONE = POWERS_OF_TEN[checkedScale()];
+    /**
+     * Marks a missing value, like {@link Double#NaN} does for doubles
+     */
+    public static final long NONE = Long.MIN_VALUE;
+    /**
+     * Longest output of {@link #format(long, char[], int)}: sign, 19 digits, point and fraction
+     */
+    public static final int MAX_LENGTH = 21 + SCALE;
+
+    private FixedPoint() {
+    }
+
+    private static long[] powersOfTen() {
+        long[] powers = new long[19];
+        powers[0] = 1;
+        for (int i = 1; i < powers.length; i++) {
+            powers[i] = powers[i - 1] * 10;
+        }
+        return powers;
+    }
+
+    private static int checkedScale() {
+        if (SCALE < 0 || SCALE > 9) {
+            throw new IllegalStateException("money.scale must be between 0 and 9: " + SCALE);
+        }
+        return SCALE;
+    }
+
+    public static long of(long units) {
+        return Math.multiplyExact(units, ONE);
+    }
+
+    public static long fromDouble(double value) {
+        double scaled = value * ONE;
+        if (Double.isNaN(scaled) || Math.abs(scaled) >= 0x1p63) {
+            throw new ArithmeticException("Value out of range: " + value);
+        }
+        return Math.round(scaled);
+    }
+
+    public static double toDouble(long value) {
+        return (double) value / ONE;
+    }
+
+    public static long fromBigDecimal(BigDecimal value) {
+        return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Exact parsing of a plain decimal such as {@code -12.345}. Digits beyond the scale are rounded.
+     *
+     * @throws NumberFormatException when {@code text} is not a plain decimal or does not fit
+     */
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long integer = 0;
+        long fraction = 0;
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        boolean digits = false;
+        boolean point = false;
+        try {
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && !point) {
+                    point = true;
+                } else if (c >= '0' && c <= '9') {
+                    digits = true;
+                    if (!point) {
+                        integer = Math.addExact(Math.multiplyExact(integer, 10), c - '0');
+                    } else if (fractionDigits < SCALE) {
+                        fraction = fraction * 10 + (c - '0');
+                        fractionDigits++;
+                    } else if (fractionDigits++ == SCALE) {
+                        roundUp = c >= '5';
+                    }
+                } else {
+                    throw new NumberFormatException("Invalid decimal: " + text);
+                }
+            }
+            if (!digits) {
+                throw new NumberFormatException("Invalid decimal: " + text);
+            }
+            long scaled = Math.addExact(Math.multiplyExact(integer, ONE),
+                    fraction * POWERS_OF_TEN[SCALE - Math.min(fractionDigits, SCALE)]);
+            if (roundUp) {
+                scaled = Math.addExact(scaled, 1);
+            }
+            return negative ? -scaled : scaled;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Decimal out of range: " + text);
+        }
+    }
+
+    /**
+     * @return {@code a * b}, both scaled
+     */
+    public static long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long low = a * b;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divideRounded(low, ONE);
+        }
+        // a * b = (ah * ONE + al) * (bh * ONE + bl), with al * bl < ONE * ONE fitting in a long
+        long x = Math.absExact(a);
+        long y = Math.absExact(b);
+        long xh = x / ONE;
+        long xl = x % ONE;
+        long yh = y / ONE;
+        long yl = y % ONE;
+        long result = Math.multiplyExact(Math.multiplyExact(xh, yh), ONE);
+        result = Math.addExact(result, Math.multiplyExact(xh, yl));
+        result = Math.addExact(result, Math.multiplyExact(xl, yh));
+        result = Math.addExact(result, divideRounded(xl * yl, ONE));
+        return (a < 0) != (b < 0) ? -result : result;
+    }
+
+    /**
+     * @return {@code a / b}, both scaled
+     * @throws ArithmeticException when {@code b} is zero
+     */
+    public static long divide(long a, long b) {
+        if (b == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long high = Math.multiplyHigh(a, ONE);
+        long low = a * ONE;
+        if ((high == 0 && low >= 0) || (high == -1 && low < 0)) {
+            return divideRounded(low, b);
+        }
+        // long division, one decimal digit of the fraction at a time
+        long x = Math.absExact(a);
+        long y = Math.absExact(b);
+        long quotient = x / y;
+        long remainder = x % y;
+        for (int i = 0; i < SCALE; i++) {
+            remainder = Math.multiplyExact(remainder, 10);
+            quotient = Math.addExact(Math.multiplyExact(quotient, 10), remainder / y);
+            remainder %= y;
+        }
+        if (remainder >= y - remainder) {
+            quotient = Math.addExact(quotient, 1);
+        }
+        return (a < 0) != (b < 0) ? -quotient : quotient;
+    }
+
+    /**
+     * @return {@code value} rounded to {@code digits} decimal places, still scaled by {@link #ONE}
+     */
+    public static long round(long value, int digits) {
+        if (digits >= SCALE) {
+            return value;
+        }
+        long unit = POWERS_OF_TEN[SCALE - digits];
+        return Math.multiplyExact(divideRounded(value, unit), unit);
+    }
+
+    private static long divideRounded(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = Math.abs(value % divisor);
+        long absDivisor = Math.abs(divisor);
+        if (remainder != 0 && remainder >= absDivisor - remainder) {
+            quotient += (value < 0) != (divisor < 0) ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Writes the exact decimal form of {@code value}, without trailing zeros but with at least one
+     * fraction digit, e.g. {@code 0.92} or {@code 8.0}
+     *
+     * @return index after the last written char
+     */
+    public static int format(long value, char[] buffer, int offset) {
+        long integer = value / ONE;
+        long fraction = value % ONE;
+        int pos = offset;
+        if (value < 0) {
+            buffer[pos++] = '-';
+            integer = -integer;
+            fraction = -fraction;
+        }
+
+        int start = pos;
+        do {
+            buffer[pos++] = (char) ('0' + integer % 10);
+            integer /= 10;
+        } while (integer > 0);
+        reverse(buffer, start, pos - 1);
+
+        buffer[pos++] = '.';
+        if (SCALE == 0) {
+            buffer[pos++] = '0';
+            return pos;
+        }
+        int fractionDigits = SCALE;
+        while (fractionDigits > 1 && fraction % 10 == 0) {
+            fraction /= 10;
+            fractionDigits--;
+        }
+        for (int i = fractionDigits - 1; i >= 0; i--) {
+            buffer[pos + i] = (char) ('0' + fraction % 10);
+            fraction /= 10;
+        }
+        return pos + fractionDigits;
+    }
+
+    private static void reverse(char[] buffer, int from, int to) {
+        while (from < to) {
+            char c = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = c;
+        }
+    }
+
+    public static String toString(long value) {
+        char[] buffer = new char[MAX_LENGTH];
+        return new String(buffer, 0, format(value, buffer, 0));
+    }
+}
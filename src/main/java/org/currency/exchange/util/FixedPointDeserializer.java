@@ -0,0 +1,41 @@
+package org.currency.exchange.util;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+/**
+ * Reads a JSON number or numeric string into a {@link FixedPoint} value without going through double
+ */
+public class FixedPointDeserializer extends StdDeserializer<Long> {
+
+    public FixedPointDeserializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        try {
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return FixedPoint.of(p.getLongValue());
+            }
+            if (token == JsonToken.VALUE_NUMBER_FLOAT) {
+                String text = p.getText();
+                // exponent notation is rare enough to go through BigDecimal
+                return text.indexOf('e') < 0 && text.indexOf('E') < 0
+                        ? FixedPoint.parse(text)
+                        : FixedPoint.fromBigDecimal(p.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return FixedPoint.parse(p.getText().trim());
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            return (Long) ctxt.handleWeirdStringValue(Long.class, p.getText(), "not a decimal in range");
+        }
+        return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+    }
+}
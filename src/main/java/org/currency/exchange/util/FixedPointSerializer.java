@@ -0,0 +1,23 @@
+package org.currency.exchange.util;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ * Writes a {@link FixedPoint} value as an exact JSON number, e.g. {@code 0.92}
+ */
+public class FixedPointSerializer extends StdSerializer<Long> {
+
+    public FixedPointSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[FixedPoint.MAX_LENGTH];
+        gen.writeNumber(buffer, 0, FixedPoint.format(value, buffer, 0));
+    }
+}
@@ -0,0 +1,102 @@
+package org.currency.exchange.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+import org.currency.exchange.dto.ExchangeRateDto;
+import org.currency.exchange.model.Currency;
+
+/**
+ * Rows of a bulk import read lazily from CSV or JSON, one at a time.
+ * <p>
+ * CSV columns are {@code code,fullName,sign} for currencies and
+ * {@code baseCurrencyCode,targetCurrencyCode,rate} for exchange rates; a first line with the column
+ * names is skipped. JSON is an array of objects with the same fields, or objects one per line. A CSV row
+ * with missing fields or a rate that is not a decimal comes out with empty values, which the import
+ * skips; malformed JSON or an unclosed quote fails the iteration.
+ */
+public final class ImportRows {
+    private static final String CSV_CONTENT_TYPE = "text/csv";
+
+    private ImportRows() {
+    }
+
+    /**
+     * @param contentTypeOrFileName request content type or the name of the file
+     */
+    public static boolean isCsv(String contentTypeOrFileName) {
+        return contentTypeOrFileName != null && (contentTypeOrFileName.startsWith(CSV_CONTENT_TYPE)
+                || contentTypeOrFileName.toLowerCase().endsWith(".csv"));
+    }
+
+    public static Iterator<Currency> currencies(InputStream in, boolean csv) throws IOException {
+        if (!csv) {
+            return ObjectMapperUtil.getInstance().readerFor(Currency.class).readValues(in);
+        }
+        return new CsvRows<>(in, "code",
+                fields -> new Currency(field(fields, 0), field(fields, 1), field(fields, 2)));
+    }
+
+    public static Iterator<ExchangeRateDto> exchangeRates(InputStream in, boolean csv) throws IOException {
+        if (!csv) {
+            return ObjectMapperUtil.getInstance().readerFor(ExchangeRateDto.class).readValues(in);
+        }
+        return new CsvRows<>(in, "baseCurrencyCode",
+                fields -> new ExchangeRateDto(field(fields, 0), field(fields, 1), rate(field(fields, 2))));
+    }
+
+    private static String field(String[] fields, int index) {
+        return index < fields.length && !fields[index].isEmpty() ? fields[index] : null;
+    }
+
+    private static long rate(String text) {
+        if (text == null) {
+            return 0;
+        }
+        try {
+            return FixedPoint.parse(text);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static final class CsvRows<T> implements Iterator<T> {
+        private final CsvReader reader;
+        private final Function<String[], T> mapper;
+        private String[] next;
+
+        private CsvRows(InputStream in, String firstColumn, Function<String[], T> mapper) throws IOException {
+            this.reader = new CsvReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            this.mapper = mapper;
+            this.next = reader.readRecord();
+            if (next != null && firstColumn.equalsIgnoreCase(next[0])) {
+                next = reader.readRecord();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            T row = mapper.apply(next);
+            try {
+                next = reader.readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return row;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package org.currency.exchange.util;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.currency.exchange.dao.BulkImportDAO;
+import org.currency.exchange.dao.WriteQueue;
+import org.currency.exchange.dto.ImportResultDto;
+
+/**
+ * Command-line bulk import into the database of {@code db.url}, for bootstrapping it before the
+ * application starts:
+ * <pre>
+ * ImportTool currencies currencies.csv
+ * ImportTool exchangeRates rates.json
+ * </pre>
+ * A file ending in {@code .csv} is read as CSV, any other as JSON, see {@link ImportRows}. A running
+ * application does not see rows imported this way until it restarts; use {@code POST /import/...} there.
+ */
+public final class ImportTool {
+
+    private ImportTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || !("currencies".equals(args[0]) || "exchangeRates".equals(args[0]))) {
+            System.err.println("Usage: ImportTool currencies|exchangeRates <file.csv|file.json>");
+            System.exit(2);
+        }
+        Path file = Path.of(args[1]);
+        boolean csv = ImportRows.isCsv(file.getFileName().toString());
+
+        DatabaseUtil.initializeDatabase();
+        BulkImportDAO bulkImportDAO = new BulkImportDAO();
+        ImportResultDto result;
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            result = "currencies".equals(args[0])
+                    ? bulkImportDAO.importCurrencies(ImportRows.currencies(in, csv))
+                    : bulkImportDAO.importExchangeRates(ImportRows.exchangeRates(in, csv));
+        } finally {
+            WriteQueue.getInstance().close();
+            DatabaseUtil.shutdown();
+        }
+        System.out.printf("%,d rows: %,d imported, %,d skipped in %,d transactions, %,d ms, %,d rows/s%n",
+                result.getRows(), result.getImported(), result.getSkipped(), result.getTransactions(),
+                result.getElapsedMillis(), result.getRowsPerSecond());
+    }
+}
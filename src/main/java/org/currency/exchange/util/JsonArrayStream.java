@@ -0,0 +1,65 @@
+package org.currency.exchange.util;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Writes a JSON array straight to the response output stream, one element at a time.
+ * <p>
+ * Nothing is written until the first element or {@link #finish()}, so the caller can still send an
+ * error response if the data source fails before producing anything.
+ */
+public class JsonArrayStream {
+    private static final String JSON_CONTENT_TYPE = "application/json";
+
+    private final HttpServletResponse resp;
+    private final int status;
+    private final ObjectWriter writer;
+    private JsonGenerator generator;
+
+    public JsonArrayStream(HttpServletResponse resp, int status, Class<?> elementType) {
+        this.resp = resp;
+        this.status = status;
+        this.writer = ObjectMapperUtil.getInstance().writerFor(elementType)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void write(Object element) throws IOException {
+        start();
+        writer.writeValue(generator, element);
+    }
+
+    /**
+     * Closes the array and the response stream
+     */
+    public void finish() throws IOException {
+        start();
+        generator.writeEndArray();
+        generator.close();
+    }
+
+    /**
+     * @return true once the status and the opening bracket have been written
+     */
+    public boolean isStarted() {
+        return generator != null;
+    }
+
+    private void start() throws IOException {
+        if (generator != null) {
+            return;
+        }
+        resp.setStatus(status);
+        resp.setContentType(JSON_CONTENT_TYPE);
+        resp.setCharacterEncoding("UTF-8");
+        generator = ObjectMapperUtil.getInstance().getFactory()
+                .createGenerator(resp.getOutputStream(), JsonEncoding.UTF8);
+        generator.writeStartArray();
+    }
+}
@@ -0,0 +1,44 @@
+package org.currency.exchange.util;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of {@link PooledDataSource} counters
+ */
+@Getter
+public class PoolStats {
+    private final int maxSize;
+    private final int totalConnections;
+    private final int activeConnections;
+    private final int idleConnections;
+    private final long acquiredCount;
+    private final long createdCount;
+    private final long destroyedCount;
+    private final long timeoutCount;
+    private final long averageAcquireMicros;
+    private final int statementCacheSize;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final long statementCacheEvictions;
+    private final double statementCacheHitRatio;
+
+    public PoolStats(int maxSize, int totalConnections, int activeConnections, int idleConnections,
+                     long acquiredCount, long createdCount, long destroyedCount, long timeoutCount,
+                     long averageAcquireMicros, int statementCacheSize, long statementCacheHits,
+                     long statementCacheMisses, long statementCacheEvictions, double statementCacheHitRatio) {
+        this.maxSize = maxSize;
+        this.totalConnections = totalConnections;
+        this.activeConnections = activeConnections;
+        this.idleConnections = idleConnections;
+        this.acquiredCount = acquiredCount;
+        this.createdCount = createdCount;
+        this.destroyedCount = destroyedCount;
+        this.timeoutCount = timeoutCount;
+        this.averageAcquireMicros = averageAcquireMicros;
+        this.statementCacheSize = statementCacheSize;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.statementCacheEvictions = statementCacheEvictions;
+        this.statementCacheHitRatio = statementCacheHitRatio;
+    }
+}
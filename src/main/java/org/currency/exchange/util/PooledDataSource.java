@@ -0,0 +1,479 @@
+package org.currency.exchange.util;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Bounded JDBC connection pool.
+ * <p>
+ * At most {@code maxSize} physical connections are open at any time. Callers get a proxy whose
+ * {@link Connection#close()} hands the physical connection back to the pool instead of closing it,
+ * so DAOs keep using the usual try-with-resources blocks.
+ * <p>
+ * Each physical connection keeps up to {@code statementCacheSize} prepared statements keyed by SQL.
+ * {@link Connection#prepareStatement(String)} takes a cached statement when there is one, and closing
+ * the statement clears its parameters and puts it back instead of finalizing it, so a DAO that runs
+ * the same query on every call compiles it once per connection. The least recently returned statement
+ * is closed when the cache is full.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final Properties connectionProperties;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long validateAfterIdleMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final LongAdder statementEvictions = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * @param url                     JDBC url of the database
+     * @param connectionProperties    driver properties passed to every new physical connection
+     * @param maxSize                 maximum number of physical connections
+     * @param acquireTimeoutMillis    how long {@link #getConnection()} waits for a free connection
+     * @param validateAfterIdleMillis idle connections older than this are checked with
+     *                                {@link Connection#isValid(int)} before reuse, 0 validates every borrow
+     */
+    public PooledDataSource(String url, Properties connectionProperties, int maxSize,
+                            long acquireTimeoutMillis, long validateAfterIdleMillis) {
+        this(url, connectionProperties, maxSize, acquireTimeoutMillis, validateAfterIdleMillis, 0);
+    }
+
+    /**
+     * @param statementCacheSize prepared statements kept per physical connection, 0 disables the cache
+     */
+    public PooledDataSource(String url, Properties connectionProperties, int maxSize,
+                            long acquireTimeoutMillis, long validateAfterIdleMillis, int statementCacheSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive: " + maxSize);
+        }
+        if (statementCacheSize < 0) {
+            throw new IllegalArgumentException("Statement cache size must not be negative: " + statementCacheSize);
+        }
+        this.url = url;
+        this.connectionProperties = connectionProperties == null ? new Properties() : connectionProperties;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.validateAfterIdleMillis = validateAfterIdleMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTransientConnectionException(
+                        "Timed out after " + acquireTimeoutMillis + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            activeConnections.incrementAndGet();
+            acquiredCount.increment();
+            acquireNanos.add(System.nanoTime() - start);
+            return pooled.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isUsable(pooled)) {
+                return pooled;
+            }
+            destroy(pooled);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.releasedAt);
+        if (idleMillis < validateAfterIdleMillis) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, connectionProperties);
+        totalConnections.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(physical);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        totalConnections.decrementAndGet();
+        destroyedCount.increment();
+        pooled.closeStatements();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        activeConnections.decrementAndGet();
+        try {
+            if (closed || pooled.physical.isClosed() || !reset(pooled.physical)) {
+                destroy(pooled);
+            } else {
+                pooled.releasedAt = System.nanoTime();
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Rolls back whatever the borrower left open so the next borrower gets a clean connection
+     */
+    private static boolean reset(Connection physical) {
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    public PoolStats getStats() {
+        long acquired = acquiredCount.sum();
+        long hits = statementHits.sum();
+        long misses = statementMisses.sum();
+        return new PoolStats(maxSize,
+                totalConnections.get(),
+                activeConnections.get(),
+                idle.size(),
+                acquired,
+                createdCount.sum(),
+                destroyedCount.sum(),
+                timeoutCount.sum(),
+                acquired == 0 ? 0 : acquireNanos.sum() / acquired / 1_000,
+                statementCacheSize,
+                hits,
+                misses,
+                statementEvictions.sum(),
+                hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+    }
+
+    /**
+     * Closes idle connections and makes the pool reject new borrowers. Leased connections are closed
+     * when their borrowers return them.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            destroy(pooled);
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool connections use the configured credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    private static void closeQuietly(Statement statement) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private final class PooledConnection {
+        private final Connection physical;
+        // only touched by the current borrower; null when caching is disabled
+        private final StatementCache statements = statementCacheSize > 0 ? new StatementCache() : null;
+        private volatile long releasedAt = System.nanoTime();
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Lease(this));
+        }
+
+        private void closeStatements() {
+            if (statements != null) {
+                statements.values().forEach(PooledDataSource::closeQuietly);
+                statements.clear();
+            }
+        }
+    }
+
+    /**
+     * Idle prepared statements of one physical connection, least recently returned first. A statement
+     * is taken out while it is in use, so two borrowers never share one.
+     */
+    private final class StatementCache extends LinkedHashMap<String, PreparedStatement> {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+            if (size() <= statementCacheSize) {
+                return false;
+            }
+            statementEvictions.increment();
+            closeQuietly(eldest.getValue());
+            return true;
+        }
+    }
+
+    /**
+     * Borrower's view of a pooled connection. Becomes unusable once closed.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                case "prepareStatement":
+                    if (!returned && pooled.statements != null && isCacheable(method, args)) {
+                        return prepare((Connection) proxy, (String) args[0],
+                                args.length == 1 ? Statement.NO_GENERATED_KEYS : (Integer) args[1]);
+                    }
+                    return delegate(method, args);
+                default:
+                    return delegate(method, args);
+            }
+        }
+
+        private Object delegate(Method method, Object[] args) throws Throwable {
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        /**
+         * Only the plain and the generated-keys variants are cached, statements with custom result set
+         * types are rare enough to prepare every time
+         */
+        private static boolean isCacheable(Method method, Object[] args) {
+            Class<?>[] types = method.getParameterTypes();
+            return types.length == 1 || types.length == 2 && types[1] == int.class && args[1] instanceof Integer;
+        }
+
+        private PreparedStatement prepare(Connection connection, String sql, int autoGeneratedKeys)
+                throws SQLException {
+            String key = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS ? "keys:" + sql : sql;
+            PreparedStatement statement = pooled.statements.remove(key);
+            if (statement != null) {
+                statementHits.increment();
+            } else {
+                statementMisses.increment();
+                statement = autoGeneratedKeys == Statement.RETURN_GENERATED_KEYS
+                        ? pooled.physical.prepareStatement(sql, autoGeneratedKeys)
+                        : pooled.physical.prepareStatement(sql);
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, new CachedStatement(this, connection, key, statement));
+        }
+    }
+
+    /**
+     * Borrower's view of a cached prepared statement. Closing it closes the last result set and returns
+     * the physical statement to the cache of its connection, or finalizes it when the connection has
+     * already been returned to the pool.
+     */
+    private final class CachedStatement implements InvocationHandler {
+        private final Lease lease;
+        private final Connection connection;
+        private final String key;
+        private final PreparedStatement physical;
+        private ResultSet resultSet;
+        private boolean closed;
+
+        private CachedStatement(Lease lease, Connection connection, String key, PreparedStatement physical) {
+            this.lease = lease;
+            this.connection = connection;
+            this.key = key;
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        giveBack();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || physical.isClosed();
+                case "getConnection":
+                    return connection;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + physical + "]";
+                default:
+                    if (closed) {
+                        throw new SQLException("Statement is closed");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if (result instanceof ResultSet) {
+                        resultSet = (ResultSet) result;
+                    }
+                    return result;
+            }
+        }
+
+        private void giveBack() throws SQLException {
+            if (lease.returned || PooledDataSource.this.closed) {
+                physical.close();
+                return;
+            }
+            try {
+                // an open result set would keep the read transaction, and its snapshot, alive
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                physical.clearParameters();
+                physical.clearBatch();
+            } catch (SQLException e) {
+                physical.close();
+                throw e;
+            }
+            PreparedStatement previous = lease.pooled.statements.put(key, physical);
+            if (previous != null) {
+                // the same SQL was prepared twice by one borrower, keep one copy
+                closeQuietly(previous);
+            }
+        }
+    }
+}
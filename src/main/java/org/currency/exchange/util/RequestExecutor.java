@@ -0,0 +1,142 @@
+package org.currency.exchange.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs request handling off the container's request threads.
+ * <p>
+ * Uses a virtual thread per task when the runtime has them (Java 21+), otherwise a fixed pool of
+ * platform threads. Either way at most {@code maxConcurrency} tasks are admitted at once; beyond that
+ * {@link #tryExecute(Runnable)} refuses the task so the caller can shed load instead of queueing it.
+ */
+public class RequestExecutor implements AutoCloseable {
+    public static final String VIRTUAL = "virtual";
+    public static final String PLATFORM = "platform";
+
+    private final ExecutorService executor;
+    private final String threadType;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param executor       runs the admitted tasks
+     * @param threadType     {@link #VIRTUAL} or {@link #PLATFORM}, reported in the stats
+     * @param maxConcurrency maximum number of tasks running or waiting for a thread
+     */
+    public RequestExecutor(ExecutorService executor, String threadType, int maxConcurrency) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Concurrency limit must be positive: " + maxConcurrency);
+        }
+        this.executor = executor;
+        this.threadType = threadType;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    private static class RequestExecutorHelper {
+        private static final RequestExecutor INSTANCE = create(
+                AppConfig.getInt("async.maxConcurrency", 1000),
+                AppConfig.getInt("async.platformThreads", 64),
+                AppConfig.getBoolean("async.virtualThreads", true));
+    }
+
+    public static RequestExecutor getInstance() {
+        return RequestExecutorHelper.INSTANCE;
+    }
+
+    /**
+     * Prefers virtual threads when enabled and available, falling back to {@code platformThreads}
+     * platform threads
+     */
+    static RequestExecutor create(int maxConcurrency, int platformThreads, boolean virtualThreads) {
+        ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+        if (virtual != null) {
+            return new RequestExecutor(virtual, VIRTUAL, maxConcurrency);
+        }
+        int threads = Math.min(platformThreads, maxConcurrency);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new RequestThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        return new RequestExecutor(pool, PLATFORM, maxConcurrency);
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()} looked up reflectively so the code still
+     * compiles and runs on Java 17
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Submits the task if a slot is free
+     *
+     * @return false when the concurrency limit is reached or the executor is shut down; the task
+     *         has not been run and will not be
+     */
+    public boolean tryExecute(Runnable task) {
+        if (!permits.tryAcquire()) {
+            rejected.increment();
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    completed.increment();
+                    permits.release();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejected.increment();
+            return false;
+        }
+    }
+
+    public RequestExecutorStats getStats() {
+        return new RequestExecutorStats(threadType, maxConcurrency,
+                maxConcurrency - permits.availablePermits(), completed.sum(), rejected.sum());
+    }
+
+    /**
+     * Stops admitting tasks and waits briefly for running ones to finish
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class RequestThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "request-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.currency.exchange.util;
+
+import lombok.Getter;
+
+/**
+ * Point-in-time snapshot of {@link RequestExecutor} counters
+ */
+@Getter
+public class RequestExecutorStats {
+    private final String threadType;
+    private final int maxConcurrency;
+    private final int inFlight;
+    private final long completed;
+    private final long rejected;
+
+    public RequestExecutorStats(String threadType, int maxConcurrency, int inFlight, long completed,
+                                long rejected) {
+        this.threadType = threadType;
+        this.maxConcurrency = maxConcurrency;
+        this.inFlight = inFlight;
+        this.completed = completed;
+        this.rejected = rejected;
+    }
+}
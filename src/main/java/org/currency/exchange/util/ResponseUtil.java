@@ -4,6 +4,10 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.currency.exchange.cache.ResponseCache;
+import org.currency.exchange.cache.ResponseCache.CachedResponse;
+
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 public class ResponseUtil {
@@ -22,4 +26,22 @@ public class ResponseUtil {
           errorResponse.put("error", message);
           sendJsonResponse(resp, status, errorResponse);
      }
+
+     /**
+      * Sends a pre-serialized body with its ETag, or 304 Not Modified when the client already has it
+      */
+     public static void sendCachedJsonResponse(HttpServletRequest req, HttpServletResponse resp,
+                                               CachedResponse cached) throws IOException {
+          resp.setHeader("ETag", cached.getEtag());
+          resp.setHeader("Cache-Control", "no-cache");
+          if (ResponseCache.matches(req.getHeader("If-None-Match"), cached.getEtag())) {
+               resp.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+               return;
+          }
+          resp.setStatus(HttpServletResponse.SC_OK);
+          resp.setContentType(JSON_CONTENT_TYPE);
+          resp.setCharacterEncoding("UTF-8");
+          resp.setContentLength(cached.getBody().length);
+          resp.getOutputStream().write(cached.getBody());
+     }
 }
@@ -0,0 +1,180 @@
+package org.currency.exchange.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Versioned, idempotent schema changes.
+ * <p>
+ * The applied version is kept in SQLite's {@code PRAGMA user_version}. On start every migration above it
+ * runs in its own transaction together with the version bump, so an interrupted start is simply resumed
+ * on the next one. Statements use {@code IF NOT EXISTS}/{@code OR IGNORE} so a database created by an
+ * older build, which has the tables but version 0, is adopted without touching its data.
+ * <p>
+ * {@code exchangeRateHistory} keeps raw {@link FixedPoint} values, so the scale they were written at is
+ * recorded in {@code schemaSettings}. When {@code money.scale} has changed since, {@link #migrate} rescales
+ * the history to the current scale before anything reads it, rounding half away from zero like
+ * {@link FixedPoint} when digits are dropped.
+ */
+public final class SchemaMigrations {
+    // epoch microseconds, computed by SQLite
+    private static final String NOW_MICROS = "CAST((julianday('now') - 2440587.5) * 86400000000 AS INTEGER)";
+    private static final String HISTORY_SCALE = "historyScale";
+
+    private static final String[][] MIGRATIONS = {
+            // 1: currencies and rates
+            {
+                    "CREATE TABLE IF NOT EXISTS currencies (" +
+                            "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "    code TEXT NOT NULL UNIQUE," +
+                            "    fullName name TEXT NOT NULL," +
+                            "    sign TEXT NOT NULL" +
+                            ")",
+                    "CREATE TABLE IF NOT EXISTS exchangeRates (" +
+                            "    id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                            "    base_currency_id INTEGER NOT NULL," +
+                            "    target_currency_id INTEGER NOT NULL," +
+                            "    rate DECIMAL(6) NOT NULL," +
+                            "    FOREIGN KEY (base_currency_id) REFERENCES currencies(id)," +
+                            "    FOREIGN KEY (target_currency_id) REFERENCES currencies(id)," +
+                            "    UNIQUE (base_currency_id, target_currency_id)" +
+                            ")"
+            },
+            // 2: rate history, clustered by pair then time; existing rates become its first entries
+            {
+                    "CREATE TABLE IF NOT EXISTS exchangeRateHistory (" +
+                            "    pair_id INTEGER NOT NULL," +
+                            "    ts INTEGER NOT NULL," +
+                            "    rate INTEGER NOT NULL," +
+                            "    PRIMARY KEY (pair_id, ts)" +
+                            ") WITHOUT ROWID",
+                    "INSERT OR IGNORE INTO exchangeRateHistory (pair_id, ts, rate) " +
+                            "SELECT id, " + NOW_MICROS + ", CAST(ROUND(rate * " + FixedPoint.ONE + ") AS INTEGER) " +
+                            "FROM exchangeRates er " +
+                            "WHERE NOT EXISTS (SELECT 1 FROM exchangeRateHistory h WHERE h.pair_id = er.id)"
+            },
+            // 3: pair lookups read id and rate from the index alone, the row id is part of every index
+            {
+                    "CREATE INDEX IF NOT EXISTS exchangeRates_pair_rate " +
+                            "ON exchangeRates (base_currency_id, target_currency_id, rate)"
+            },
+            // 4: scale of the history rates; a database that already has history wrote it at the current one
+            {
+                    "CREATE TABLE IF NOT EXISTS schemaSettings (" +
+                            "    name TEXT PRIMARY KEY," +
+                            "    value INTEGER NOT NULL" +
+                            ")",
+                    "INSERT OR IGNORE INTO schemaSettings (name, value) " +
+                            "VALUES ('" + HISTORY_SCALE + "', " + FixedPoint.SCALE + ")"
+            }
+    };
+
+    private SchemaMigrations() {
+    }
+
+    /**
+     * Applies the migrations the database has not seen yet, then brings the history to the current scale
+     *
+     * @return number of migrations applied, 0 when the schema was already current
+     */
+    public static int migrate(Connection conn) throws SQLException {
+        int version = userVersion(conn);
+        int applied = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            for (int next = version + 1; next <= MIGRATIONS.length; next++) {
+                for (String sql : MIGRATIONS[next - 1]) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + next);
+                conn.commit();
+                applied++;
+            }
+            rescaleHistory(stmt);
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        return applied;
+    }
+
+    /**
+     * Inserts the default currencies and rates, only into a database without currencies
+     *
+     * @return true when the data was inserted
+     */
+    public static boolean seedIfEmpty(Connection conn) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT EXISTS (SELECT 1 FROM currencies)")) {
+                if (rs.next() && rs.getBoolean(1)) {
+                    conn.rollback();
+                    return false;
+                }
+            }
+            stmt.execute("INSERT INTO currencies (code, fullName, sign) VALUES " +
+                    "('USD', 'US Dollar', '$')," +
+                    "('EUR', 'Euro', '€'), " +
+                    "('RUR', 'Russian Ruble', '₽'), " +
+                    "('GBP', 'British Pound', '£');"
+            );
+            stmt.execute("INSERT INTO exchangeRates (base_currency_id, target_currency_id, rate) " +
+                    "VALUES  " +
+                    "((SELECT id FROM currencies WHERE code = 'USD'), " +
+                    "( SELECT id FROM currencies WHERE code = 'EUR'), 0.92) , " +
+                    "((SELECT id FROM currencies WHERE code = 'USD'), " +
+                    "( SELECT id FROM currencies WHERE code = 'RUR'), 81.66), " +
+                    "(( SELECT id FROM currencies WHERE code = 'EUR'), " +
+                    "( SELECT id FROM currencies WHERE code = 'RUR'), 89.14)"
+            );
+            // history keeps epoch microseconds and rates scaled by FixedPoint.ONE
+            stmt.execute("INSERT INTO exchangeRateHistory (pair_id, ts, rate) " +
+                    "SELECT id, " + NOW_MICROS + ", CAST(ROUND(rate * " + FixedPoint.ONE + ") AS INTEGER) " +
+                    "FROM exchangeRates"
+            );
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static void rescaleHistory(Statement stmt) throws SQLException {
+        int scale;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT value FROM schemaSettings WHERE name = '" + HISTORY_SCALE + "'")) {
+            if (!rs.next() || (scale = rs.getInt(1)) == FixedPoint.SCALE) {
+                return;
+            }
+        }
+        long factor = 1;
+        for (int i = Math.min(scale, FixedPoint.SCALE); i < Math.max(scale, FixedPoint.SCALE); i++) {
+            factor *= 10;
+        }
+        if (scale < FixedPoint.SCALE) {
+            stmt.execute("UPDATE exchangeRateHistory SET rate = rate * " + factor);
+        } else {
+            long half = factor / 2;
+            stmt.execute("UPDATE exchangeRateHistory "
+                    + "SET rate = (rate + CASE WHEN rate < 0 THEN -" + half + " ELSE " + half + " END) / " + factor);
+        }
+        stmt.execute("UPDATE schemaSettings SET value = " + FixedPoint.SCALE + " WHERE name = '" + HISTORY_SCALE + "'");
+    }
+
+    private static int userVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
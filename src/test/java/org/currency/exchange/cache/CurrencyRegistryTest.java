@@ -0,0 +1,68 @@
+package org.currency.exchange.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.currency.exchange.model.Currency;
+import org.junit.jupiter.api.Test;
+
+class CurrencyRegistryTest {
+    private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+    private static final Currency EUR = new Currency(2, "EUR", "Euro", "€");
+
+    @Test
+    void shouldFindCurrencyByCodeIgnoringCase() {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        assertFalse(registry.isLoaded());
+
+        registry.load(List.of(USD, EUR));
+
+        assertTrue(registry.isLoaded());
+        assertSame(USD, registry.findByCode("USD"));
+        assertSame(EUR, registry.findByCode("eur"));
+        assertSame(EUR, registry.findById(2));
+        assertNull(registry.findByCode("JPY"));
+    }
+
+    @Test
+    void shouldReindexCodeWhenCurrencyIsUpdated() {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        registry.load(List.of(USD, EUR));
+        Currency renamed = new Currency(2, "EUX", "Euro", "€");
+
+        registry.put(renamed);
+
+        assertNull(registry.findByCode("EUR"));
+        assertSame(renamed, registry.findByCode("EUX"));
+        assertSame(renamed, registry.findById(2));
+    }
+
+    @Test
+    void shouldForgetRemovedCurrency() {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        registry.load(List.of(USD, EUR));
+
+        registry.remove(1);
+
+        assertNull(registry.findByCode("USD"));
+        assertNull(registry.findById(1));
+        assertSame(EUR, registry.findByCode("EUR"));
+    }
+
+    @Test
+    void shouldIgnoreWritesBeforeLoad() {
+        CurrencyRegistry registry = new CurrencyRegistry();
+
+        registry.put(USD);
+        registry.remove(2);
+
+        assertFalse(registry.isLoaded());
+        registry.load(List.of(EUR));
+        assertNull(registry.findByCode("USD"));
+        assertSame(EUR, registry.findById(2));
+    }
+}
@@ -0,0 +1,159 @@
+package org.currency.exchange.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+class ExchangeRateCacheTest {
+    private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+    private static final Currency EUR = new Currency(2, "EUR", "Euro", "€");
+    private static final Currency GBP = new Currency(3, "GBP", "British Pound", "£");
+    private static final ExchangeRate USD_EUR = new ExchangeRate(1, USD, EUR, FixedPoint.fromDouble(0.92));
+    private static final ExchangeRate USD_GBP = new ExchangeRate(2, USD, GBP, FixedPoint.fromDouble(0.79));
+    private static final ExchangeRate EUR_GBP = new ExchangeRate(3, EUR, GBP, FixedPoint.fromDouble(0.86));
+
+    @Test
+    void shouldEvictLeastRecentlyUsedPair() {
+        ExchangeRateCache cache = new ExchangeRateCache(2, 0);
+        cache.put("USDEUR", USD_EUR, cache.generation());
+        cache.put("USDGBP", USD_GBP, cache.generation());
+        cache.get("USDEUR");
+
+        cache.put("EURGBP", EUR_GBP, cache.generation());
+
+        assertSame(USD_EUR, cache.get("USDEUR"));
+        assertNull(cache.get("USDGBP"));
+        assertEquals(1, cache.getStats().getEvictions());
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() throws InterruptedException {
+        ExchangeRateCache cache = new ExchangeRateCache(10, 1);
+        cache.put("USDEUR", USD_EUR, cache.generation());
+
+        Thread.sleep(5);
+
+        assertNull(cache.get("USDEUR"));
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    void shouldNotCacheValueLoadedBeforeInvalidation() {
+        ExchangeRateCache cache = new ExchangeRateCache(10, 0);
+        long loadedAt = cache.generation();
+
+        cache.invalidate("USDEUR");
+        cache.put("USDEUR", USD_EUR, loadedAt);
+
+        assertNull(cache.get("USDEUR"));
+    }
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        ExchangeRateCache cache = new ExchangeRateCache(10, 0);
+        cache.get("USDEUR");
+        cache.put("USDEUR", USD_EUR, cache.generation());
+        cache.get("USDEUR");
+        cache.get("USDEUR");
+
+        CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2d / 3, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void shouldShareOneLoadBetweenConcurrentMisses() throws Exception {
+        ExchangeRateCache cache = new ExchangeRateCache(10, 0);
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ExchangeRate>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> cache.getOrLoad("USDEUR", pair -> {
+                    queries.incrementAndGet();
+                    await(release);
+                    return USD_EUR;
+                })));
+            }
+            while (cache.getStats().getCoalescedLoads() < 7) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<ExchangeRate> result : results) {
+                assertSame(USD_EUR, result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, queries.get());
+        assertEquals(1, cache.getStats().getLoads());
+        assertEquals(7, cache.getStats().getCoalescedLoads());
+        assertSame(USD_EUR, cache.getOrLoad("USDEUR", pair -> null));
+    }
+
+    @Test
+    void shouldStartFreshLoadAfterInvalidation() throws Exception {
+        ExchangeRateCache cache = new ExchangeRateCache(10, 0);
+        ExchangeRate updated = new ExchangeRate(1, USD, EUR, FixedPoint.fromDouble(0.95));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<ExchangeRate> stale = pool.submit(() -> cache.getOrLoad("USDEUR", pair -> {
+                started.countDown();
+                await(release);
+                return USD_EUR;
+            }));
+            started.await(5, TimeUnit.SECONDS);
+
+            cache.invalidate("USDEUR");
+            assertSame(updated, cache.getOrLoad("USDEUR", pair -> updated));
+            release.countDown();
+
+            assertSame(USD_EUR, stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertSame(updated, cache.get("USDEUR"));
+        assertEquals(0, cache.getStats().getCoalescedLoads());
+    }
+
+    @Test
+    void shouldNotCacheFailedLoad() {
+        ExchangeRateCache cache = new ExchangeRateCache(10, 0);
+
+        assertThrows(IllegalStateException.class, () -> cache.getOrLoad("USDEUR", pair -> {
+            throw new IllegalStateException("database is down");
+        }));
+
+        assertSame(USD_EUR, cache.getOrLoad("USDEUR", pair -> USD_EUR));
+        assertEquals(2, cache.getStats().getLoads());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
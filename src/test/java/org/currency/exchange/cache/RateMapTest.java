@@ -0,0 +1,93 @@
+package org.currency.exchange.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+class RateMapTest {
+    private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+    private static final Currency EUR = new Currency(2, "EUR", "Euro", "€");
+
+    @Test
+    void shouldMatchAccessOrderedMapUnderRandomOperations() {
+        RateMap map = new RateMap();
+        Map<Long, ExchangeRate> expected = new LinkedHashMap<>(16, 0.75f, true);
+        Random random = new Random(42);
+        // few distinct keys over many operations, so probe runs collide, grow and shift back often
+        long[] keys = new long[300];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = PairKey.pair(code(i), code(i * 7 + 3));
+        }
+
+        for (int op = 0; op < 50_000; op++) {
+            long key = keys[random.nextInt(keys.length)];
+            switch (random.nextInt(4)) {
+                case 0, 1 -> {
+                    ExchangeRate rate = new ExchangeRate(op, USD, EUR, FixedPoint.fromDouble(1));
+                    map.put(key, rate, op);
+                    expected.put(key, rate);
+                }
+                case 2 -> {
+                    int slot = map.find(key);
+                    ExchangeRate rate = expected.get(key);
+                    assertEquals(rate != null, slot >= 0);
+                    if (slot >= 0) {
+                        assertSame(rate, map.rate(slot));
+                        assertEquals(rate.getId(), map.expiresAt(slot));
+                        map.touch(slot);
+                    }
+                }
+                default -> assertEquals(expected.remove(key) != null, map.remove(key));
+            }
+            if (expected.size() > 200) {
+                long eldest = expected.keySet().iterator().next();
+                expected.remove(eldest);
+                map.removeEldest();
+                assertTrue(map.find(eldest) < 0);
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, ExchangeRate> entry : expected.entrySet()) {
+            assertSame(entry.getValue(), map.rate(map.find(entry.getKey())));
+        }
+    }
+
+    @Test
+    void shouldForgetEverythingOnClear() {
+        RateMap map = new RateMap();
+        long pair = PairKey.pair("USDEUR");
+        map.put(pair, new ExchangeRate(1, USD, EUR, FixedPoint.fromDouble(0.92)), 0);
+
+        map.clear();
+        map.removeEldest();
+
+        assertEquals(0, map.size());
+        assertFalse(map.remove(pair));
+    }
+
+    @Test
+    void shouldPackCodesCaseInsensitively() {
+        long pair = PairKey.pair("/usdEUR", 1);
+
+        assertEquals(PairKey.pair("USD", "EUR"), pair);
+        assertEquals(0x555344_00455552L, pair);
+        assertEquals("USDEUR", PairKey.toCodes(pair));
+        assertEquals(PairKey.INVALID, PairKey.pair("USD EUR", 0));
+        assertEquals(PairKey.INVALID, PairKey.pair("USDEURO"));
+        assertEquals(PairKey.INVALID, PairKey.pair("USD", "€UR"));
+    }
+
+    private static String code(int index) {
+        return String.valueOf(new char[] { (char) ('A' + index % 26), (char) ('A' + index / 26 % 26), 'X' });
+    }
+}
@@ -0,0 +1,159 @@
+package org.currency.exchange.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+class RateMatrixTest {
+    private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+    private static final Currency EUR = new Currency(2, "EUR", "Euro", "€");
+    private static final Currency GBP = new Currency(3, "GBP", "British Pound", "£");
+    private static final List<Currency> CURRENCIES = List.of(USD, EUR, GBP);
+    private static final List<ExchangeRate> RATES = List.of(
+            new ExchangeRate(10, USD, EUR, FixedPoint.fromDouble(0.92)),
+            new ExchangeRate(11, EUR, GBP, FixedPoint.fromDouble(0.86)));
+
+    @Test
+    void shouldServeStoredRatesWithCurrencyDetails() {
+        RateMatrix matrix = loaded();
+
+        ExchangeRate rate = matrix.get(PairKey.pair("usdEUR"), pair -> null);
+
+        assertEquals(10, rate.getId());
+        assertSame(USD, rate.getBaseCurrency());
+        assertSame(EUR, rate.getTargetCurrency());
+        assertEquals(FixedPoint.fromDouble(0.92), rate.getRate());
+        assertNull(matrix.get(PairKey.pair("EURUSD"), pair -> null));
+        assertNull(matrix.get(PairKey.pair("USDJPY"), pair -> null));
+    }
+
+    @Test
+    void shouldApplyWritesInPlace() {
+        RateMatrix matrix = loaded();
+
+        matrix.updateRate(PairKey.pair("USDEUR"), FixedPoint.fromDouble(0.95));
+        matrix.putRate(PairKey.pair("GBPUSD"), 12, FixedPoint.fromDouble(1.27));
+
+        assertEquals(FixedPoint.fromDouble(0.95), matrix.get(PairKey.pair("USDEUR"), pair -> null).getRate());
+        assertEquals(12, matrix.get(PairKey.pair("GBPUSD"), pair -> null).getId());
+        assertTrue(matrix.isLoaded());
+    }
+
+    @Test
+    void shouldNotPublishLoadRacedByWrite() {
+        RateMatrix matrix = new RateMatrix(10);
+        long loadedAt = matrix.generation();
+
+        matrix.updateRate(PairKey.pair("USDEUR"), FixedPoint.fromDouble(0.95));
+
+        assertFalse(matrix.load(CURRENCIES, RATES, loadedAt));
+        assertFalse(matrix.isLoaded());
+    }
+
+    @Test
+    void shouldReloadOnceAfterInvalidation() {
+        RateMatrix matrix = loaded();
+        AtomicInteger loads = new AtomicInteger();
+
+        matrix.invalidate();
+        ExchangeRate fallback = new ExchangeRate(10, USD, EUR, FixedPoint.fromDouble(0.92));
+        assertSame(fallback, matrix.get(PairKey.pair("USDEUR"), pair -> fallback));
+        for (int i = 0; i < 3; i++) {
+            assertTrue(matrix.loadIfAbsent(() -> {
+                loads.incrementAndGet();
+                return CURRENCIES;
+            }, () -> RATES));
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(11, matrix.get(PairKey.pair("EURGBP"), pair -> null).getId());
+    }
+
+    @Test
+    void shouldStayUnloadedUntilCurrenciesFit() {
+        RateMatrix matrix = new RateMatrix(2);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(matrix.loadIfAbsent(() -> {
+                loads.incrementAndGet();
+                return CURRENCIES;
+            }, () -> RATES));
+        }
+        matrix.invalidate();
+        assertTrue(matrix.loadIfAbsent(() -> List.of(USD, EUR), () -> RATES.subList(0, 1)));
+
+        assertEquals(1, loads.get());
+        assertEquals(10, matrix.get(PairKey.pair("USDEUR"), pair -> null).getId());
+    }
+
+    @Test
+    void shouldKeepRowsOfManyCurrenciesApart() {
+        List<Currency> currencies = new ArrayList<>();
+        List<ExchangeRate> rates = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String code = String.valueOf(new char[] { (char) ('A' + i % 26), (char) ('A' + i / 26), 'Q' });
+            currencies.add(new Currency(i + 1, code, "Currency " + code, "c"));
+        }
+        for (int i = 0; i < currencies.size(); i++) {
+            Currency target = currencies.get((i * 7 + 1) % currencies.size());
+            rates.add(new ExchangeRate(i + 1, currencies.get(i), target, i + 1));
+        }
+        RateMatrix matrix = new RateMatrix(300);
+
+        assertTrue(matrix.load(currencies, rates, matrix.generation()));
+
+        for (ExchangeRate rate : rates) {
+            long pair = PairKey.pair(rate.getBaseCurrency().getCode(), rate.getTargetCurrency().getCode());
+            ExchangeRate found = matrix.get(pair, p -> null);
+            assertEquals(rate.getId(), found.getId());
+            assertEquals(rate.getRate(), found.getRate());
+        }
+        assertEquals(300, matrix.getStats().getCurrencies());
+        assertTrue(matrix.getStats().getOffHeapBytes() >= 300L * 300 * 16);
+    }
+
+    @Test
+    void shouldRebuildInTheDroppedBufferWhileCurrenciesFit() {
+        RateMatrix matrix = new RateMatrix(100);
+        assertTrue(matrix.load(CURRENCIES, RATES, matrix.generation()));
+        Currency jpy = new Currency(4, "JPY", "Yen", "¥");
+
+        matrix.invalidate();
+        assertTrue(matrix.load(List.of(jpy, GBP, EUR, USD), List.of(new ExchangeRate(12, jpy, USD, 67)),
+                matrix.generation()));
+
+        assertEquals(1, matrix.getStats().getAllocations());
+        assertEquals(12, matrix.get(PairKey.pair("JPYUSD"), pair -> null).getId());
+        // the slot USD -> EUR had before the rebuild is now another pair's, and empty
+        assertNull(matrix.get(PairKey.pair("USDEUR"), pair -> null));
+        assertNull(matrix.get(PairKey.pair("EURGBP"), pair -> null));
+
+        List<Currency> many = new ArrayList<>(CURRENCIES);
+        for (int i = 0; i < 40; i++) {
+            many.add(new Currency(10 + i, "Q" + (char) ('A' + i % 26) + (char) ('A' + i / 26), "Currency", "c"));
+        }
+        matrix.invalidate();
+        assertTrue(matrix.load(many, RATES, matrix.generation()));
+
+        assertEquals(2, matrix.getStats().getAllocations());
+        assertEquals(11, matrix.get(PairKey.pair("EURGBP"), pair -> null).getId());
+    }
+
+    private static RateMatrix loaded() {
+        RateMatrix matrix = new RateMatrix(10);
+        assertTrue(matrix.load(CURRENCIES, RATES, matrix.generation()));
+        return matrix;
+    }
+}
@@ -0,0 +1,65 @@
+package org.currency.exchange.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.currency.exchange.cache.StateSnapshot.SourceStamp;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StateSnapshotTest {
+    private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+    private static final Currency RUB = new Currency(2, "RUB", "Российский рубль", "₽");
+
+    @TempDir
+    Path dir;
+    private Path snapshot;
+    private final SourceStamp stamp = new SourceStamp(4096, 1_700_000_000_000L, 0);
+
+    @BeforeEach
+    void setUp() throws IOException {
+        snapshot = dir.resolve("exchange.db.snapshot");
+        StateSnapshot.write(snapshot, List.of(USD, RUB),
+                List.of(new ExchangeRate(7, USD, RUB, FixedPoint.parse("81.66"))), stamp);
+    }
+
+    @Test
+    void shouldRestoreCurrenciesAndRates() throws IOException {
+        StateSnapshot restored = StateSnapshot.read(snapshot, new SourceStamp(4096, 1_700_000_000_000L, 0));
+
+        assertNotNull(restored);
+        assertEquals(2, restored.getCurrencies().size());
+        assertEquals("Российский рубль", restored.getCurrencies().get(1).getFullName());
+        ExchangeRate rate = restored.getRates().get(0);
+        assertEquals(7, rate.getId());
+        assertEquals(FixedPoint.parse("81.66"), rate.getRate());
+        assertSame(restored.getCurrencies().get(1), rate.getTargetCurrency());
+    }
+
+    @Test
+    void shouldIgnoreSnapshotOfChangedDatabase() throws IOException {
+        assertNull(StateSnapshot.read(snapshot, new SourceStamp(4096, 1_700_000_000_001L, 0)));
+        assertNull(StateSnapshot.read(snapshot, new SourceStamp(4096, 1_700_000_000_000L, 32)));
+        assertNull(StateSnapshot.read(dir.resolve("missing"), stamp));
+    }
+
+    @Test
+    void shouldIgnoreCorruptedSnapshot() throws IOException {
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(snapshot, bytes);
+
+        assertNull(StateSnapshot.read(snapshot, stamp));
+    }
+}
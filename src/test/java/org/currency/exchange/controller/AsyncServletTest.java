@@ -0,0 +1,132 @@
+package org.currency.exchange.controller;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.currency.exchange.util.RequestExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class AsyncServletTest {
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private AsyncContext asyncContext;
+    private RequestExecutor executor;
+    private final AtomicReference<Thread> handledOn = new AtomicReference<>();
+    private final CountDownLatch handling = new CountDownLatch(1);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private AsyncServlet servlet;
+
+    @BeforeEach
+    void setUp() {
+        executor = new RequestExecutor(Executors.newFixedThreadPool(1), RequestExecutor.PLATFORM, 1);
+        servlet = new AsyncServlet(executor) {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) {
+                handledOn.set(Thread.currentThread());
+                handling.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                resp.setStatus(HttpServletResponse.SC_OK);
+            }
+        };
+        when(request.isAsyncSupported()).thenReturn(true);
+        when(request.startAsync(request, response)).thenReturn(asyncContext);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void shouldHandleRequestOnExecutorAndComplete() throws Exception {
+        when(request.getMethod()).thenReturn("GET");
+
+        servlet.service(request, response);
+
+        verify(asyncContext, timeout(1000)).complete();
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertNotNull(handledOn.get());
+        assertNotSame(Thread.currentThread(), handledOn.get());
+    }
+
+    @Test
+    void shouldRejectWithServiceUnavailableWhenLimitIsReached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(executor.tryExecute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+
+        try {
+            servlet.service(request, response);
+        } finally {
+            release.countDown();
+        }
+
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response).setHeader("Retry-After", "1");
+        verify(asyncContext).complete();
+        assertTrue(body.toString().contains("Server is busy"), body.toString());
+        assertNull(handledOn.get());
+    }
+
+    @Test
+    void shouldAnswerTimedOutRequestAndDropLaterWrites() throws Exception {
+        release = new CountDownLatch(1);
+        when(request.getMethod()).thenReturn("GET");
+        StringWriter body = new StringWriter();
+        when(response.getWriter()).thenReturn(new PrintWriter(body));
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+
+        servlet.service(request, response);
+        verify(asyncContext).addListener(listener.capture());
+        assertTrue(handling.await(1, TimeUnit.SECONDS));
+        listener.getValue().onTimeout(new AsyncEvent(asyncContext, request, response));
+        release.countDown();
+
+        // give the released handler time to finish; it must neither write nor complete a second time
+        verify(asyncContext, after(300).times(1)).complete();
+        verify(response).setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        verify(response, never()).setStatus(HttpServletResponse.SC_OK);
+        assertTrue(body.toString().contains("Request timed out"), body.toString());
+    }
+}
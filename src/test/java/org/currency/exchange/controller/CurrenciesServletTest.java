@@ -2,13 +2,18 @@ package org.currency.exchange.controller;
 
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.List;
@@ -19,9 +24,12 @@ import org.currency.exchange.util.ObjectMapperUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -36,6 +44,7 @@ class CurrenciesServletTest {
      private CurrencyDAO currencyDAO;
      private StringWriter stringWriter;
      private PrintWriter writer;
+     private ByteArrayOutputStream body;
 
      private static final String CONTENT_TYPE_JSON = "application/json";
      private static final Currency TEST_CURRENCY = new Currency("EUR", "Euro", "€");
@@ -45,7 +54,23 @@ class CurrenciesServletTest {
      void setUp() throws IOException {
           stringWriter = new StringWriter();
           writer = new PrintWriter(stringWriter);
-          when(response.getWriter()).thenReturn(writer);
+          body = new ByteArrayOutputStream();
+          lenient().when(response.getWriter()).thenReturn(writer);
+          lenient().when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+               @Override
+               public void write(int b) {
+                    body.write(b);
+               }
+
+               @Override
+               public boolean isReady() {
+                    return true;
+               }
+
+               @Override
+               public void setWriteListener(WriteListener writeListener) {
+               }
+          });
           currenciesServlet = new CurrenciesServlet(currencyDAO);
      }
 
@@ -63,8 +88,9 @@ class CurrenciesServletTest {
           verify(response).setStatus(HttpServletResponse.SC_OK);
           verify(response).setContentType(CONTENT_TYPE_JSON);
           String expectedJson = ObjectMapperUtil.getInstance().writeValueAsString(currencies);
-          assertTrue(stringWriter.toString().contains(expectedJson),
-                    "Response should contain: " + expectedJson + "\nBut was: " + stringWriter.toString());
+          String actual = body.toString(StandardCharsets.UTF_8);
+          assertTrue(actual.contains(expectedJson),
+                    "Response should contain: " + expectedJson + "\nBut was: " + actual);
           verify(currencyDAO, times(1)).getAllCurrencies();
      }
 
@@ -205,7 +231,7 @@ class CurrenciesServletTest {
           verify(response).setStatus(HttpServletResponse.SC_OK);
           verify(response).setContentType(CONTENT_TYPE_JSON);
           String expectedJson = ObjectMapperUtil.getInstance().writeValueAsString(currencies);
-          assertTrue(stringWriter.toString().contains(expectedJson));
+          assertTrue(body.toString(StandardCharsets.UTF_8).contains(expectedJson));
           verify(currencyDAO, times(1)).getAllCurrencies();
      }
 
@@ -222,4 +248,24 @@ class CurrenciesServletTest {
           verify(response).setContentType("application/json");
           assertTrue(stringWriter.toString().contains("Not found"));
      }
+
+     @Test
+     void shouldServeRepeatedGetFromCacheAndHonourEtag() throws IOException, SQLException {
+          // Given
+          Collection<Currency> currencies = List.of(TEST_USD, TEST_CURRENCY);
+          when(currencyDAO.getAllCurrencies()).thenReturn(currencies);
+          when(request.getPathInfo()).thenReturn(null);
+          currenciesServlet.doGet(request, response);
+          ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+          verify(response).setHeader(eq("ETag"), etag.capture());
+          when(request.getHeader("If-None-Match")).thenReturn(etag.getValue());
+
+          // When
+          currenciesServlet.doGet(request, response);
+
+          // Then
+          verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+          verify(currencyDAO, times(1)).getAllCurrencies();
+          verify(response, never()).getWriter();
+     }
 }
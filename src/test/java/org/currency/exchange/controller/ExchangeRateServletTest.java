@@ -3,19 +3,30 @@ package org.currency.exchange.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 
+import org.currency.exchange.cache.PairKey;
 import org.currency.exchange.dao.CurrencyDAO;
 import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.dao.RateHistoryDAO;
 import org.currency.exchange.model.Currency;
 import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.model.RatePoint;
 import org.currency.exchange.util.ObjectMapperUtil;
+import org.currency.exchange.util.FixedPoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -39,19 +50,21 @@ class ExchangeRateServletTest {
      private ExchangeRateDAO exchangeRateDAO;
      @Mock
      private CurrencyDAO currencyDAO;
+     @Mock
+     private RateHistoryDAO rateHistoryDAO;
      private StringWriter stringWriter;
      private PrintWriter writer;
 
      private static final Currency TEST_BASE_CURRENCY = new Currency(1, "US Dollar", "USD", "$");
      private static final Currency TEST_TARGET_CURRENCY = new Currency(2, "Euro", "EUR", "€");
-     private static final ExchangeRate TEST_RATE = new ExchangeRate(1, TEST_BASE_CURRENCY, TEST_TARGET_CURRENCY, 1.23);
+     private static final ExchangeRate TEST_RATE = new ExchangeRate(1, TEST_BASE_CURRENCY, TEST_TARGET_CURRENCY, FixedPoint.fromDouble(1.23));
 
      @BeforeEach
      void setUp() throws IOException {
           stringWriter = new StringWriter();
           writer = new PrintWriter(stringWriter);
           when(response.getWriter()).thenReturn(writer);
-          exchangeRateServlet = new ExchangeRateServlet(exchangeRateDAO);
+          exchangeRateServlet = new ExchangeRateServlet(exchangeRateDAO, rateHistoryDAO);
      }
 
      @Test
@@ -67,7 +80,7 @@ class ExchangeRateServletTest {
      @Test
      void shouldReturnNotFoundWhenRateDoesNotExist() throws IOException, jakarta.servlet.ServletException {
           when(request.getPathInfo()).thenReturn("/USDEUR");
-          when(exchangeRateDAO.getExchangeRateByCodes("USDEUR")).thenReturn(null);
+          when(exchangeRateDAO.getExchangeRate(PairKey.pair("USDEUR"))).thenReturn(null);
 
           exchangeRateServlet.doGet(request, response);
 
@@ -78,7 +91,7 @@ class ExchangeRateServletTest {
      @Test
      void shouldReturnExchangeRateWhenExists() throws IOException, jakarta.servlet.ServletException {
           when(request.getPathInfo()).thenReturn("/USDEUR");
-          when(exchangeRateDAO.getExchangeRateByCodes("USDEUR")).thenReturn(TEST_RATE);
+          when(exchangeRateDAO.getExchangeRate(PairKey.pair("USDEUR"))).thenReturn(TEST_RATE);
           String expectedJson = ObjectMapperUtil.getInstance().writer().writeValueAsString(TEST_RATE);
 
           exchangeRateServlet.doGet(request, response);
@@ -94,7 +107,7 @@ class ExchangeRateServletTest {
      @Test
      void shouldReturnInternalServerErrorOnException() throws IOException, jakarta.servlet.ServletException {
           when(request.getPathInfo()).thenReturn("/USDEUR");
-          when(exchangeRateDAO.getExchangeRateByCodes(any())).thenThrow(new RuntimeException("DB error"));
+          when(exchangeRateDAO.getExchangeRate(anyLong())).thenThrow(new RuntimeException("DB error"));
 
           exchangeRateServlet.doGet(request, response);
 
@@ -106,7 +119,7 @@ class ExchangeRateServletTest {
      void shouldUpdateExchangeRateSuccessfully() throws Exception {
           when(request.getPathInfo()).thenReturn("/USDEUR");
           when(request.getParameter("rate")).thenReturn("2.34");
-          when(exchangeRateDAO.updateExchangeRate("USD", "EUR", 2.34)).thenReturn(1);
+          when(exchangeRateDAO.updateExchangeRate("USD", "EUR", FixedPoint.fromDouble(2.34))).thenReturn(1);
 
           exchangeRateServlet.doPatch(request, response);
 
@@ -119,7 +132,7 @@ class ExchangeRateServletTest {
      void shouldReturnNotFoundWhenUpdateFails() throws Exception {
           when(request.getPathInfo()).thenReturn("/USDEUR");
           when(request.getParameter("rate")).thenReturn("2.34");
-          when(exchangeRateDAO.updateExchangeRate("USD", "EUR", 2.34)).thenReturn(0);
+          when(exchangeRateDAO.updateExchangeRate("USD", "EUR", FixedPoint.fromDouble(2.34))).thenReturn(0);
 
           exchangeRateServlet.doPatch(request, response);
 
@@ -155,7 +168,7 @@ class ExchangeRateServletTest {
      void shouldReturnInternalServerErrorOnPatchException() throws Exception {
           when(request.getPathInfo()).thenReturn("/USDEUR");
           when(request.getParameter("rate")).thenReturn("2.34");
-          when(exchangeRateDAO.updateExchangeRate(any(), any(), anyDouble()))
+          when(exchangeRateDAO.updateExchangeRate(any(), any(), anyLong()))
                     .thenThrow(new RuntimeException("DB error"));
 
           exchangeRateServlet.doPatch(request, response);
@@ -164,4 +177,58 @@ class ExchangeRateServletTest {
           verify(response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
           assertTrue(stringWriter.toString().contains("Database is not available"));
      }
+
+     @Test
+     void shouldReturnHistoryInRange() throws Exception {
+          long from = RateHistoryDAO.toMicros(Instant.parse("2024-05-01T00:00:00Z"));
+          long to = RateHistoryDAO.toMicros(Instant.parse("2024-05-02T00:00:00Z"));
+          when(request.getPathInfo()).thenReturn("/USDEUR/history");
+          stubParameters(Map.of("from", "2024-05-01T00:00:00Z", "to", "2024-05-02T00:00:00Z"));
+          when(exchangeRateDAO.getExchangeRateByCodes("USDEUR")).thenReturn(TEST_RATE);
+          when(rateHistoryDAO.getHistory(eq(1), eq(from), eq(to), anyInt())).thenReturn(List.of(
+                    new RatePoint(from + 1_000_000, FixedPoint.parse("1.2")),
+                    new RatePoint(from + 1_500_000, FixedPoint.parse("1.25"))));
+
+          exchangeRateServlet.doGet(request, response);
+
+          writer.flush();
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          JsonNode json = new ObjectMapper().readTree(stringWriter.toString());
+          assertEquals(2, json.get("history").size());
+          assertEquals("2024-05-01T00:00:01Z", json.get("history").get(0).get("timestamp").asText());
+          assertEquals("1.25", json.get("history").get(1).get("rate").asText());
+     }
+
+     @Test
+     void shouldReturnRateInEffectAtPointInTime() throws Exception {
+          long at = RateHistoryDAO.toMicros(Instant.parse("2024-05-01T14:05:00Z"));
+          when(request.getPathInfo()).thenReturn("/USDEUR/history");
+          stubParameters(Map.of("at", "2024-05-01T14:05:00Z"));
+          when(exchangeRateDAO.getExchangeRateByCodes("USDEUR")).thenReturn(TEST_RATE);
+          when(rateHistoryDAO.getRateAt(1, at)).thenReturn(new RatePoint(at - 60_000_000, FixedPoint.parse("1.1")));
+
+          exchangeRateServlet.doGet(request, response);
+
+          writer.flush();
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          JsonNode json = new ObjectMapper().readTree(stringWriter.toString());
+          assertEquals("2024-05-01T14:04:00Z", json.get("history").get(0).get("timestamp").asText());
+          assertEquals("1.1", json.get("history").get(0).get("rate").asText());
+     }
+
+     @Test
+     void shouldReturnBadRequestWhenHistoryTimestampIsInvalid() throws Exception {
+          when(request.getPathInfo()).thenReturn("/USDEUR/history");
+          stubParameters(Map.of("from", "yesterday"));
+
+          exchangeRateServlet.doGet(request, response);
+
+          verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+          assertTrue(stringWriter.toString().contains("Invalid timestamp"));
+          verifyNoInteractions(rateHistoryDAO);
+     }
+
+     private void stubParameters(Map<String, String> parameters) {
+          when(request.getParameter(anyString())).thenAnswer(inv -> parameters.get(inv.<String>getArgument(0)));
+     }
 }
@@ -3,25 +3,34 @@ package org.currency.exchange.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.List;
 
+import org.currency.exchange.cache.PairKey;
 import org.currency.exchange.dao.CurrencyDAO;
 import org.currency.exchange.dao.DatabaseException;
 import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.dao.ExchangeRateVisitor;
 import org.currency.exchange.dto.ExchangeRateDto;
 import org.currency.exchange.model.Currency;
 import org.currency.exchange.model.ExchangeRate;
 import org.currency.exchange.util.ObjectMapperUtil;
+import org.currency.exchange.util.FixedPoint;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -29,6 +38,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -48,13 +59,13 @@ class ExchangeRatesServletTest {
 
      private static final Currency BASE = new Currency(1, "US Dollar", "USD", "$"),
                TARGET = new Currency(2, "Euro", "EUR", "€");
-     private static final ExchangeRate TEST_RATE = new ExchangeRate(1, BASE, TARGET, 1.23);
+     private static final ExchangeRate TEST_RATE = new ExchangeRate(1, BASE, TARGET, FixedPoint.fromDouble(1.23));
 
      @BeforeEach
      void setUp() throws IOException {
           stringWriter = new StringWriter();
           writer = new PrintWriter(stringWriter);
-          when(response.getWriter()).thenReturn(writer);
+          lenient().when(response.getWriter()).thenReturn(writer);
           exchangeRatesServlet = new ExchangeRatesServlet(exchangeRateDAO);
      }
 
@@ -83,18 +94,37 @@ class ExchangeRatesServletTest {
           };
      }
 
+     private ServletOutputStream toServletOutputStream(ByteArrayOutputStream out) {
+          return new ServletOutputStream() {
+               @Override
+               public void write(int b) {
+                    out.write(b);
+               }
+
+               @Override
+               public boolean isReady() {
+                    return true;
+               }
+
+               @Override
+               public void setWriteListener(WriteListener writeListener) {
+               }
+          };
+     }
+
      @Test
      void shouldReturnAllExchangeRates() throws Exception {
+          ByteArrayOutputStream body = new ByteArrayOutputStream();
           when(request.getServletPath()).thenReturn("/exchangeRates");
+          when(response.getOutputStream()).thenReturn(toServletOutputStream(body));
           when(exchangeRateDAO.getAllExchangeRates()).thenReturn(List.of(TEST_RATE));
 
           exchangeRatesServlet.doGet(request, response);
 
-          writer.flush();
           verify(response).setStatus(HttpServletResponse.SC_OK);
           String expectedJson = ObjectMapperUtil.getInstance().writeValueAsString(List.of(TEST_RATE));
           ObjectMapper mapper = new ObjectMapper();
-          JsonNode actualJson = mapper.readTree(stringWriter.toString());
+          JsonNode actualJson = mapper.readTree(body.toByteArray());
           JsonNode expectedJsonNode = mapper.readTree(expectedJson);
           assertEquals(expectedJsonNode, actualJson);
      }
@@ -115,10 +145,10 @@ class ExchangeRatesServletTest {
           ExchangeRateDto dto = new ExchangeRateDto();
           dto.setBaseCurrencyCode("USD");
           dto.setTargetCurrencyCode("EUR");
-          dto.setRate(1.23);
+          dto.setRate(FixedPoint.fromDouble(1.23));
           String json = ObjectMapperUtil.getInstance().writeValueAsString(dto);
           when(request.getInputStream()).thenReturn(toServletInputStream(json));
-          when(exchangeRateDAO.getExchangeRateByCodes(any())).thenReturn(null);
+          when(exchangeRateDAO.getExchangeRate(PairKey.pair("USD", "EUR"))).thenReturn(null);
           when(exchangeRateDAO.createExchangeRate(any())).thenReturn(1);
 
           exchangeRatesServlet.doPost(request, response);
@@ -133,10 +163,10 @@ class ExchangeRatesServletTest {
           ExchangeRateDto dto = new ExchangeRateDto();
           dto.setBaseCurrencyCode("USD");
           dto.setTargetCurrencyCode("EUR");
-          dto.setRate(1.23);
+          dto.setRate(FixedPoint.fromDouble(1.23));
           String json = ObjectMapperUtil.getInstance().writeValueAsString(dto);
           when(request.getInputStream()).thenReturn(toServletInputStream(json));
-          when(exchangeRateDAO.getExchangeRateByCodes(any())).thenReturn(TEST_RATE);
+          when(exchangeRateDAO.getExchangeRate(PairKey.pair("USD", "EUR"))).thenReturn(TEST_RATE);
 
           exchangeRatesServlet.doPost(request, response);
 
@@ -150,10 +180,10 @@ class ExchangeRatesServletTest {
           ExchangeRateDto dto = new ExchangeRateDto();
           dto.setBaseCurrencyCode("USD");
           dto.setTargetCurrencyCode("EUR");
-          dto.setRate(1.23);
+          dto.setRate(FixedPoint.fromDouble(1.23));
           String json = ObjectMapperUtil.getInstance().writeValueAsString(dto);
           when(request.getInputStream()).thenReturn(toServletInputStream(json));
-          when(exchangeRateDAO.getExchangeRateByCodes(any())).thenReturn(null);
+          when(exchangeRateDAO.getExchangeRate(PairKey.pair("USD", "EUR"))).thenReturn(null);
           when(exchangeRateDAO.createExchangeRate(any())).thenReturn(0);
 
           exchangeRatesServlet.doPost(request, response);
@@ -168,7 +198,7 @@ class ExchangeRatesServletTest {
           ExchangeRateDto dto = new ExchangeRateDto();
           dto.setBaseCurrencyCode(null);
           dto.setTargetCurrencyCode("EUR");
-          dto.setRate(1.23);
+          dto.setRate(FixedPoint.fromDouble(1.23));
           String json = ObjectMapperUtil.getInstance().writeValueAsString(dto);
           when(request.getInputStream()).thenReturn(toServletInputStream(json));
 
@@ -190,4 +220,90 @@ class ExchangeRatesServletTest {
           verify(response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
           assertTrue(stringWriter.toString().contains("Database is unavailable"));
      }
-}
\ No newline at end of file
+
+     @Test
+     void shouldUpdateBatchAndReportEachItem() throws Exception {
+          String json = "[{\"baseCurrencyCode\":\"USD\",\"targetCurrencyCode\":\"EUR\",\"rate\":0.93},"
+                    + "{\"baseCurrencyCode\":\"USD\",\"targetCurrencyCode\":\"JPY\",\"rate\":150},"
+                    + "{\"baseCurrencyCode\":null,\"targetCurrencyCode\":\"EUR\",\"rate\":1.1}]";
+          when(request.getPathInfo()).thenReturn("/batch");
+          when(request.getInputStream()).thenReturn(toServletInputStream(json));
+          when(exchangeRateDAO.updateExchangeRates(any())).thenReturn(new int[] { 1, 0 });
+
+          exchangeRatesServlet.doPatch(request, response);
+
+          writer.flush();
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          JsonNode result = new ObjectMapper().readTree(stringWriter.toString());
+          assertEquals(1, result.get("succeeded").asInt());
+          assertEquals(2, result.get("failed").asInt());
+          assertEquals(HttpServletResponse.SC_OK, result.get("results").get(0).get("status").asInt());
+          assertEquals(HttpServletResponse.SC_NOT_FOUND, result.get("results").get(1).get("status").asInt());
+          assertEquals(HttpServletResponse.SC_BAD_REQUEST, result.get("results").get(2).get("status").asInt());
+     }
+
+     @Test
+     void shouldReturnBadRequestForMalformedBatch() throws Exception {
+          when(request.getPathInfo()).thenReturn("/batch");
+          when(request.getInputStream()).thenReturn(toServletInputStream("{\"rate\": 1"));
+
+          exchangeRatesServlet.doPost(request, response);
+
+          writer.flush();
+          verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+          assertTrue(stringWriter.toString().contains("Invalid JSON body"));
+     }
+
+     @Test
+     void shouldStreamAllExchangeRates() throws Exception {
+          ByteArrayOutputStream body = new ByteArrayOutputStream();
+          when(request.getServletPath()).thenReturn("/exchangeRates");
+          when(request.getParameter("stream")).thenReturn("true");
+          when(response.getOutputStream()).thenReturn(toServletOutputStream(body));
+          doAnswer(invocation -> {
+               ExchangeRateVisitor visitor = invocation.getArgument(0);
+               visitor.visit(1, BASE, TARGET, FixedPoint.fromDouble(1.23));
+               visitor.visit(2, TARGET, BASE, FixedPoint.fromDouble(0.81));
+               return null;
+          }).when(exchangeRateDAO).forEachExchangeRate(any());
+
+          exchangeRatesServlet.doGet(request, response);
+
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          String expectedJson = ObjectMapperUtil.getInstance()
+                    .writeValueAsString(List.of(TEST_RATE, new ExchangeRate(2, TARGET, BASE, FixedPoint.fromDouble(0.81))));
+          ObjectMapper mapper = new ObjectMapper();
+          assertEquals(mapper.readTree(expectedJson), mapper.readTree(body.toByteArray()));
+     }
+
+     @Test
+     void shouldReturnErrorWhenStreamingFailsBeforeFirstRow() throws Exception {
+          when(request.getServletPath()).thenReturn("/exchangeRates");
+          when(request.getParameter("stream")).thenReturn("true");
+          doAnswer(invocation -> {
+               throw new DatabaseException("Database connection failed", null);
+          }).when(exchangeRateDAO).forEachExchangeRate(any());
+
+          exchangeRatesServlet.doGet(request, response);
+
+          writer.flush();
+          verify(response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+          assertTrue(stringWriter.toString().contains("Database is unavailable"));
+     }
+
+     @Test
+     void shouldReturnNotModifiedWhenEtagMatches() throws Exception {
+          when(request.getServletPath()).thenReturn("/exchangeRates");
+          when(response.getOutputStream()).thenReturn(toServletOutputStream(new ByteArrayOutputStream()));
+          when(exchangeRateDAO.getAllExchangeRates()).thenReturn(List.of(TEST_RATE));
+          exchangeRatesServlet.doGet(request, response);
+          ArgumentCaptor<String> etag = ArgumentCaptor.forClass(String.class);
+          verify(response).setHeader(eq("ETag"), etag.capture());
+          when(request.getHeader("If-None-Match")).thenReturn("\"other\", " + etag.getValue());
+
+          exchangeRatesServlet.doGet(request, response);
+
+          verify(response).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+          verify(exchangeRateDAO, times(1)).getAllExchangeRates();
+     }
+}
@@ -0,0 +1,240 @@
+package org.currency.exchange.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.service.ExchangeService;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeServletTest {
+     private ExchangeServlet exchangeServlet;
+     @Mock
+     private HttpServletRequest request;
+     @Mock
+     private HttpServletResponse response;
+     @Mock
+     private ExchangeRateDAO exchangeRateDAO;
+     private StringWriter stringWriter;
+     private PrintWriter writer;
+
+     private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+     private static final Currency EUR = new Currency(2, "EUR", "Euro", "€");
+     private static final Currency GBP = new Currency(3, "GBP", "British Pound", "£");
+     private static final List<ExchangeRate> RATES = List.of(
+               new ExchangeRate(1, USD, EUR, FixedPoint.fromDouble(0.8)),
+               new ExchangeRate(2, USD, GBP, FixedPoint.fromDouble(0.5)));
+
+     @BeforeEach
+     void setUp() throws IOException {
+          stringWriter = new StringWriter();
+          writer = new PrintWriter(stringWriter);
+          lenient().when(response.getWriter()).thenReturn(writer);
+          exchangeServlet = new ExchangeServlet(new ExchangeService(exchangeRateDAO, "USD"));
+     }
+
+     private JsonNode exchange(String from, String to, String amount) throws Exception {
+          when(request.getParameter("from")).thenReturn(from);
+          when(request.getParameter("to")).thenReturn(to);
+          when(request.getParameter("amount")).thenReturn(amount);
+
+          exchangeServlet.doGet(request, response);
+
+          writer.flush();
+          return new ObjectMapper().readTree(stringWriter.toString());
+     }
+
+     @Test
+     void shouldConvertWithDirectRate() throws Exception {
+          when(exchangeRateDAO.getAllExchangeRates()).thenReturn(RATES);
+
+          JsonNode json = exchange("USD", "EUR", "10");
+
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          assertEquals("USD", json.get("baseCurrency").get("code").asText());
+          assertEquals("EUR", json.get("targetCurrency").get("code").asText());
+          assertEquals(0.8, json.get("rate").asDouble(), 1e-9);
+          assertEquals(8.0, json.get("convertedAmount").asDouble(), 1e-9);
+     }
+
+     @Test
+     void shouldConvertWithInverseRate() throws Exception {
+          when(exchangeRateDAO.getAllExchangeRates()).thenReturn(RATES);
+
+          JsonNode json = exchange("eur", "usd", "8");
+
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          assertEquals(1.25, json.get("rate").asDouble(), 1e-9);
+          assertEquals(10.0, json.get("convertedAmount").asDouble(), 1e-9);
+     }
+
+     @Test
+     void shouldConvertWithCrossRateThroughPivot() throws Exception {
+          when(exchangeRateDAO.getAllExchangeRates()).thenReturn(RATES);
+
+          JsonNode json = exchange("EUR", "GBP", "4");
+
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          assertEquals(0.625, json.get("rate").asDouble(), 1e-9);
+          assertEquals(2.5, json.get("convertedAmount").asDouble(), 1e-9);
+     }
+
+     @Test
+     void shouldReturnNotFoundWhenNoRateConnectsCurrencies() throws Exception {
+          when(exchangeRateDAO.getAllExchangeRates()).thenReturn(RATES);
+
+          exchange("USD", "JPY", "10");
+
+          verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+          assertTrue(stringWriter.toString().contains("Exchange rate not found"));
+     }
+
+     @Test
+     void shouldReturnBadRequestWhenParametersMissing() throws Exception {
+          exchange("USD", null, "10");
+
+          verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+          assertTrue(stringWriter.toString().contains("Required parameters missing"));
+     }
+
+     @Test
+     void shouldReturnBadRequestWhenAmountInvalid() throws Exception {
+          exchange("USD", "EUR", "-5");
+
+          verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+          assertTrue(stringWriter.toString().contains("Invalid amount"));
+     }
+
+     @Test
+     void shouldReturnInternalServerErrorWhenDatabaseFails() throws Exception {
+          when(exchangeRateDAO.getAllExchangeRates()).thenThrow(new RuntimeException("DB error"));
+
+          exchange("USD", "EUR", "10");
+
+          verify(response).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+          assertTrue(stringWriter.toString().contains("Database is unavailable"));
+     }
+
+     private String exchangeBatch(String contentType, String body) throws Exception {
+          ByteArrayInputStream in = new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+          ByteArrayOutputStream out = new ByteArrayOutputStream();
+          when(request.getPathInfo()).thenReturn("/batch");
+          lenient().when(request.getContentType()).thenReturn(contentType);
+          when(request.getInputStream()).thenReturn(new ServletInputStream() {
+               @Override
+               public int read() {
+                    return in.read();
+               }
+
+               @Override
+               public boolean isFinished() {
+                    return in.available() == 0;
+               }
+
+               @Override
+               public boolean isReady() {
+                    return true;
+               }
+
+               @Override
+               public void setReadListener(ReadListener readListener) {
+               }
+          });
+          lenient().when(response.getOutputStream()).thenReturn(new ServletOutputStream() {
+               @Override
+               public void write(int b) {
+                    out.write(b);
+               }
+
+               @Override
+               public boolean isReady() {
+                    return true;
+               }
+
+               @Override
+               public void setWriteListener(WriteListener writeListener) {
+               }
+          });
+
+          exchangeServlet.doPost(request, response);
+
+          writer.flush();
+          return out.toString(StandardCharsets.UTF_8);
+     }
+
+     @Test
+     void shouldConvertBatchInOrderWithPerItemErrors() throws Exception {
+          when(exchangeRateDAO.getAllExchangeRates()).thenReturn(RATES);
+
+          JsonNode json = new ObjectMapper().readTree(exchangeBatch("application/json", "["
+                    + "{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":10},"
+                    + "{\"from\":\"usd\",\"to\":\"JPY\",\"amount\":\"1\"},"
+                    + "{\"from\":\"EUR\",\"to\":\"GBP\",\"amount\":\"4\"},"
+                    + "{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":\"-1\"},"
+                    + "{\"from\":\"USD\"}]"));
+
+          verify(response).setStatus(HttpServletResponse.SC_OK);
+          assertEquals(5, json.size());
+          assertEquals(8.0, json.get(0).get("convertedAmount").asDouble(), 1e-9);
+          assertEquals(404, json.get(1).get("status").asInt());
+          assertEquals(2.5, json.get(2).get("convertedAmount").asDouble(), 1e-9);
+          assertEquals("Invalid amount", json.get(3).get("message").asText());
+          assertEquals(400, json.get(4).get("status").asInt());
+     }
+
+     @Test
+     void shouldStreamLargeNdjsonBatchInOrder() throws Exception {
+          when(exchangeRateDAO.getAllExchangeRates()).thenReturn(RATES);
+          int size = 10_000;
+          StringBuilder body = new StringBuilder();
+          for (int i = 1; i <= size; i++) {
+               body.append("{\"from\":\"USD\",\"to\":\"GBP\",\"amount\":").append(i).append("}\n");
+          }
+
+          String[] lines = exchangeBatch("application/x-ndjson", body.toString()).split("\n");
+
+          verify(response).setContentType("application/x-ndjson");
+          assertEquals(size, lines.length);
+          ObjectMapper mapper = new ObjectMapper();
+          for (int i = 1; i <= size; i++) {
+               assertEquals(i * 0.5, mapper.readTree(lines[i - 1]).get("convertedAmount").asDouble(), 1e-9);
+          }
+     }
+
+     @Test
+     void shouldReturnBadRequestWhenBatchBodyMalformed() throws Exception {
+          exchangeBatch("application/json", "[{\"from\":");
+
+          verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+          assertTrue(stringWriter.toString().contains("Invalid JSON body"));
+     }
+}
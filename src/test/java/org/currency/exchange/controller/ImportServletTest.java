@@ -0,0 +1,135 @@
+package org.currency.exchange.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.currency.exchange.dao.BulkImportDAO;
+import org.currency.exchange.dto.ExchangeRateDto;
+import org.currency.exchange.dto.ImportResultDto;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class ImportServletTest {
+    private ImportServlet importServlet;
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private BulkImportDAO bulkImportDAO;
+    private StringWriter stringWriter;
+    private PrintWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stringWriter = new StringWriter();
+        writer = new PrintWriter(stringWriter);
+        lenient().when(response.getWriter()).thenReturn(writer);
+        importServlet = new ImportServlet(bulkImportDAO);
+    }
+
+    @Test
+    void shouldStreamCsvRatesToTheImport() throws Exception {
+        List<ExchangeRateDto> received = new ArrayList<>();
+        when(request.getPathInfo()).thenReturn("/exchangeRates");
+        when(request.getContentType()).thenReturn("text/csv; charset=utf-8");
+        when(request.getInputStream()).thenReturn(body("baseCurrencyCode,targetCurrencyCode,rate\n"
+                + "USD,EUR,0.92\nEUR,GBP,0.86\n"));
+        when(bulkImportDAO.importExchangeRates(any())).thenAnswer(invocation -> {
+            Iterator<ExchangeRateDto> rows = invocation.getArgument(0);
+            rows.forEachRemaining(received::add);
+            return new ImportResultDto(received.size(), received.size(), 1, 1_000_000);
+        });
+
+        importServlet.doPost(request, response);
+
+        writer.flush();
+        verify(response).setStatus(HttpServletResponse.SC_OK);
+        assertEquals(2, received.size());
+        assertEquals("EUR", received.get(1).getBaseCurrencyCode());
+        assertEquals(FixedPoint.fromDouble(0.86), received.get(1).getRate());
+        JsonNode result = new ObjectMapper().readTree(stringWriter.toString());
+        assertEquals(2, result.get("imported").asInt());
+        assertEquals(2_000, result.get("rowsPerSecond").asInt());
+    }
+
+    @Test
+    void shouldReturnBadRequestForMalformedJson() throws Exception {
+        when(request.getPathInfo()).thenReturn("/currencies");
+        when(request.getInputStream()).thenReturn(body(
+                "[{\"code\": \"USD\", \"fullName\": \"US Dollar\", \"sign\": \"$\"}, {\"code\": \"EUR\", "));
+        when(bulkImportDAO.importCurrencies(any())).thenAnswer(invocation -> {
+            Iterator<?> rows = invocation.getArgument(0);
+            rows.forEachRemaining(row -> {
+            });
+            return null;
+        });
+
+        importServlet.doPost(request, response);
+
+        writer.flush();
+        verify(response).setStatus(HttpServletResponse.SC_BAD_REQUEST);
+        assertTrue(stringWriter.toString().contains("Invalid JSON body"));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownPath() throws Exception {
+        when(request.getPathInfo()).thenReturn("/rates");
+
+        importServlet.doPost(request, response);
+
+        verify(response).setStatus(HttpServletResponse.SC_NOT_FOUND);
+        verifyNoInteractions(bulkImportDAO);
+    }
+
+    private static ServletInputStream body(String text) {
+        ByteArrayInputStream in = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+        return new ServletInputStream() {
+            @Override
+            public int read() {
+                return in.read();
+            }
+
+            @Override
+            public boolean isFinished() {
+                return in.available() == 0;
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setReadListener(ReadListener readListener) {
+            }
+        };
+    }
+}
@@ -0,0 +1,134 @@
+package org.currency.exchange.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Iterator;
+import java.util.List;
+
+import org.currency.exchange.cache.CurrencyRegistry;
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.RateMatrix;
+import org.currency.exchange.dto.ExchangeRateDto;
+import org.currency.exchange.dto.ImportResultDto;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.ImportRows;
+import org.currency.exchange.util.PooledDataSource;
+import org.currency.exchange.util.SchemaMigrations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class BulkImportDAOTest {
+    @TempDir
+    Path dir;
+    private PooledDataSource dataSource;
+    private WriteQueue writeQueue;
+    private final CurrencyRegistry registry = new CurrencyRegistry();
+    private final RateMatrix matrix = new RateMatrix(10);
+    private BulkImportDAO bulkImportDAO;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+        dataSource = new PooledDataSource("jdbc:sqlite:" + dir.resolve("import.db"), null, 1, 1_000, 30_000);
+        try (Connection conn = dataSource.getConnection()) {
+            SchemaMigrations.migrate(conn);
+        }
+        writeQueue = new WriteQueue(dataSource, 16, 0);
+        // chunks of two rows, so every import below spans several transactions
+        bulkImportDAO = new BulkImportDAO(writeQueue, registry, new ExchangeRateCache(100, 0), matrix, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeQueue.close();
+        dataSource.close();
+    }
+
+    @Test
+    void shouldImportCurrenciesAndRatesFromCsv() throws Exception {
+        ImportResultDto currencies = bulkImportDAO.importCurrencies(ImportRows.currencies(body(
+                "\uFEFFcode,fullName,sign\n"
+                        + "usd,US Dollar,$\r\n"
+                        + "EUR,Euro,€\n"
+                        + "\n"
+                        + "GBP,\"Pound, British\",£\n"
+                        + "JPY,,¥\n"), true));
+
+        assertEquals(4, currencies.getRows());
+        assertEquals(3, currencies.getImported());
+        assertEquals(1, currencies.getSkipped());
+        assertEquals(2, currencies.getTransactions());
+        assertEquals("Pound, British", registry.findByCode("GBP").getFullName());
+        assertEquals("USD", registry.findByCode("usd").getCode());
+
+        ImportResultDto rates = bulkImportDAO.importExchangeRates(ImportRows.exchangeRates(body(
+                "baseCurrencyCode,targetCurrencyCode,rate\n"
+                        + "USD,EUR,0.92\n"
+                        + "eur,GBP,0.86\n"
+                        + "USD,GBP,abc\n"
+                        + "USD,RUB,90\n"
+                        + "GBP,USD,1.27\n"), true));
+
+        assertEquals(5, rates.getRows());
+        assertEquals(3, rates.getImported());
+        assertEquals(2, rates.getSkipped());
+        assertEquals(3, count("select count(*) from exchangeRates"));
+        assertEquals(3, count("select count(*) from exchangeRateHistory"));
+    }
+
+    @Test
+    void shouldUpdateExistingPairsAndDropStaleViews() throws Exception {
+        bulkImportDAO.importCurrencies(List.of(new Currency("USD", "US Dollar", "$"),
+                new Currency("EUR", "Euro", "€")).iterator());
+        bulkImportDAO.importExchangeRates(ImportRows.exchangeRates(body(
+                "[{\"baseCurrencyCode\": \"USD\", \"targetCurrencyCode\": \"EUR\", \"rate\": 0.92}]"), false));
+        assertTrue(matrix.load(registry.getAll(), List.<ExchangeRate>of(), matrix.generation()));
+
+        ImportResultDto result = bulkImportDAO.importExchangeRates(ImportRows.exchangeRates(body(
+                "{\"baseCurrencyCode\": \"USD\", \"targetCurrencyCode\": \"EUR\", \"rate\": \"0.95\"}\n"
+                        + "{\"baseCurrencyCode\": \"EUR\", \"targetCurrencyCode\": \"USD\", \"rate\": 1.05}\n"
+                        + "{\"baseCurrencyCode\": \"EUR\", \"targetCurrencyCode\": \"USD\", \"rate\": 0}\n"), false));
+
+        assertEquals(2, result.getImported());
+        assertEquals(2, count("select count(*) from exchangeRates"));
+        assertEquals(1, count("select count(*) from exchangeRates where rate = 0.95"));
+        assertFalse(matrix.isLoaded());
+    }
+
+    @Test
+    void shouldKeepCommittedChunksWhenBodyIsMalformed() throws Exception {
+        bulkImportDAO.importCurrencies(List.of(new Currency("USD", "US Dollar", "$"),
+                new Currency("EUR", "Euro", "€"), new Currency("GBP", "British Pound", "£")).iterator());
+        Iterator<ExchangeRateDto> rows = ImportRows.exchangeRates(body(
+                "USD,EUR,0.92\nEUR,GBP,0.86\nGBP,USD,1.27\nUSD,\"GBP,0.79\n"), true);
+
+        assertThrows(IllegalArgumentException.class, () -> bulkImportDAO.importExchangeRates(rows));
+        assertEquals(2, count("select count(*) from exchangeRates"));
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int count(String query) throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package org.currency.exchange.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.currency.exchange.cache.CurrencyRegistry;
+import org.currency.exchange.cache.ExchangeRateCache;
+import org.currency.exchange.cache.RateMatrix;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.currency.exchange.util.PooledDataSource;
+import org.currency.exchange.util.SchemaMigrations;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ExchangeRateDAOTest {
+    @TempDir
+    Path dir;
+    private PooledDataSource dataSource;
+    private WriteQueue writeQueue;
+    private final List<Long> published = new CopyOnWriteArrayList<>();
+    private final List<String> publishedPairs = new CopyOnWriteArrayList<>();
+    private final RateChangeListener listener = (baseCode, targetCode, rate) -> {
+        published.add(rate);
+        publishedPairs.add(baseCode + targetCode);
+    };
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+        dataSource = new PooledDataSource("jdbc:sqlite:" + dir.resolve("rates.db"), null, 1, 1_000, 30_000);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            SchemaMigrations.migrate(conn);
+            stmt.execute("insert into currencies (id, code, fullName, sign) values "
+                    + "(1, 'USD', 'US Dollar', '$'), (2, 'EUR', 'Euro', '€')");
+            stmt.execute("insert into exchangeRates (base_currency_id, target_currency_id, rate) values (1, 2, 0.92)");
+        }
+        // long delay so both updates below land in one transaction, in submission order
+        writeQueue = new WriteQueue(dataSource, 16, 100_000);
+        RateChangePublisher.getInstance().subscribe(listener);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RateChangePublisher.getInstance().unsubscribe(listener);
+        writeQueue.close();
+        dataSource.close();
+    }
+
+    @Test
+    void shouldPublishConcurrentUpdatesInCommitOrder() throws Exception {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        registry.load(List.of(new Currency(1, "USD", "US Dollar", "$"), new Currency(2, "EUR", "Euro", "€")));
+        AtomicBoolean first = new AtomicBoolean(true);
+        ExchangeRateCache cache = new ExchangeRateCache(100, 0) {
+            @Override
+            public void invalidate(String pair) {
+                if (first.getAndSet(false)) {
+                    // the first update is held up after its commit, the second one overtakes it
+                    sleep(300);
+                }
+                super.invalidate(pair);
+            }
+        };
+        ExchangeRateDAO dao = new ExchangeRateDAO(new CurrencyDAO(registry), cache, new RateMatrix(0), writeQueue);
+        long firstRate = FixedPoint.fromDouble(0.90);
+        long secondRate = FixedPoint.fromDouble(0.95);
+
+        CompletableFuture<Integer> firstUpdate = CompletableFuture.supplyAsync(
+                () -> dao.updateExchangeRate("USD", "EUR", firstRate));
+        sleep(30);
+        assertEquals(1, dao.updateExchangeRate("USD", "EUR", secondRate));
+        assertEquals(1, firstUpdate.join());
+
+        assertEquals(List.of(firstRate, secondRate), published);
+        assertEquals(0.95, storedRate());
+    }
+
+    @Test
+    void shouldPublishStoredCodesForLowerCaseRequest() throws Exception {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        registry.load(List.of(new Currency(1, "USD", "US Dollar", "$"), new Currency(2, "EUR", "Euro", "€")));
+        ExchangeRateCache cache = new ExchangeRateCache(100, 0);
+        ExchangeRateDAO dao = new ExchangeRateDAO(new CurrencyDAO(registry), cache, new RateMatrix(0), writeQueue);
+        cache.put("USDEUR", new ExchangeRate(1, registry.findByCode("USD"), registry.findByCode("EUR"),
+                FixedPoint.fromDouble(0.92)), cache.generation());
+
+        assertEquals(1, dao.updateExchangeRate("usd", "eur", FixedPoint.fromDouble(0.95)));
+
+        assertEquals(List.of("USDEUR"), publishedPairs);
+        assertNull(cache.get("USDEUR"));
+    }
+
+    private double storedRate() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select rate from exchangeRates where id = 1")) {
+            rs.next();
+            return rs.getDouble(1);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.currency.exchange.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.currency.exchange.util.PooledDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteQueueTest {
+    @TempDir
+    Path dir;
+    private PooledDataSource dataSource;
+    private WriteQueue writeQueue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Class.forName("org.sqlite.JDBC");
+        dataSource = new PooledDataSource("jdbc:sqlite:" + dir.resolve("queue.db"), null, 1, 1_000, 30_000);
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("create table items (code text primary key)");
+        }
+        // long delay so everything submitted by a test lands in one transaction
+        writeQueue = new WriteQueue(dataSource, 100, 200_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        writeQueue.close();
+        dataSource.close();
+    }
+
+    @Test
+    void shouldCommitConcurrentWritesTogether() {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(writeQueue.submit(insert("C" + i)));
+        }
+
+        futures.forEach(future -> assertEquals(1, future.join()));
+        WriteQueueStats stats = writeQueue.getStats();
+        assertEquals(20, stats.getCommittedWrites());
+        assertTrue(stats.getTransactions() < 20, "writes were not grouped");
+    }
+
+    @Test
+    void shouldFailOnlyTheWriteThatFailed() throws SQLException {
+        CompletableFuture<Integer> first = writeQueue.submit(insert("USD"));
+        CompletableFuture<Integer> duplicate = writeQueue.submit(insert("USD"));
+        CompletableFuture<Integer> second = writeQueue.submit(insert("EUR"));
+
+        assertEquals(1, first.join());
+        assertEquals(1, second.join());
+        CompletionException error = assertThrows(CompletionException.class, duplicate::join);
+        assertInstanceOf(SQLException.class, error.getCause());
+        assertEquals(2, count());
+        assertEquals(1, writeQueue.getStats().getFailedWrites());
+    }
+
+    @Test
+    void shouldRunCommitCallbacksInOrderForSuccessfulWritesOnly() {
+        List<String> committed = new ArrayList<>();
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (String code : List.of("USD", "EUR", "USD", "GBP")) {
+            futures.add(writeQueue.submit(insert(code), inserted -> committed.add(code)));
+        }
+
+        futures.forEach(future -> future.handle((result, error) -> result).join());
+        assertEquals(List.of("USD", "EUR", "GBP"), committed);
+    }
+
+    @Test
+    void shouldKeepWritingAfterTaskThrowsError() throws SQLException {
+        CompletableFuture<Integer> failed = writeQueue.submit(conn -> {
+            insert("USD").execute(conn);
+            throw new StackOverflowError();
+        });
+
+        CompletionException error = assertThrows(CompletionException.class, failed::join);
+        assertInstanceOf(StackOverflowError.class, error.getCause());
+        assertEquals(1, writeQueue.execute(insert("EUR")));
+        assertEquals(1, count());
+    }
+
+    @Test
+    void shouldCompleteTheRestOfTheBatchWhenCallbackThrowsError() throws SQLException {
+        List<String> committed = new ArrayList<>();
+        CompletableFuture<Integer> first = writeQueue.submit(insert("USD"), inserted -> {
+            throw new StackOverflowError();
+        });
+        CompletableFuture<Integer> second = writeQueue.submit(insert("EUR"), inserted -> committed.add("EUR"));
+
+        assertEquals(1, first.join());
+        assertEquals(1, second.join());
+        assertEquals(List.of("EUR"), committed);
+        assertEquals(2, count());
+    }
+
+    @Test
+    void shouldRejectWritesAfterClose() {
+        writeQueue.close();
+
+        assertThrows(SQLException.class, () -> writeQueue.execute(insert("USD")));
+    }
+
+    private static WriteTask<Integer> insert(String code) {
+        return conn -> {
+            try (PreparedStatement ps = conn.prepareStatement("insert into items (code) values (?)")) {
+                ps.setString(1, code);
+                return ps.executeUpdate();
+            }
+        };
+    }
+
+    private int count() throws SQLException {
+        try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from items")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
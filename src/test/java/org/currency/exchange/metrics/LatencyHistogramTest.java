@@ -0,0 +1,48 @@
+package org.currency.exchange.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void shouldKeepBucketsWithinRelativeError() {
+        for (long value = 1; value < LatencyHistogram.MAX_TRACKABLE_NANOS; value = value * 3 + 7) {
+            long upper = LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(value));
+            assertTrue(upper >= value, "bucket below value " + value);
+            assertTrue(upper - value <= value / 16, "bucket too wide for " + value);
+        }
+    }
+
+    @Test
+    void shouldReportPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(1000, snapshot.getCount());
+        assertWithinBucket(500_000, snapshot.valueAt(0.5));
+        assertWithinBucket(990_000, snapshot.valueAt(0.99));
+        assertWithinBucket(999_000, snapshot.valueAt(0.999));
+    }
+
+    @Test
+    void shouldClampValuesOutsideRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(0, snapshot.valueAt(0.5));
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_NANOS, snapshot.valueAt(1));
+    }
+
+    private static void assertWithinBucket(long expected, long actual) {
+        assertTrue(actual >= expected && actual - expected <= expected / 16,
+                "expected about " + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,105 @@
+package org.currency.exchange.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletMapping;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsFilterTest {
+    @Mock
+    private HttpServletRequest request;
+    @Mock
+    private HttpServletResponse response;
+    @Mock
+    private HttpServletMapping mapping;
+    @Mock
+    private FilterChain chain;
+    private MetricsRegistry registry;
+    private MetricsFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+        filter = new MetricsFilter(registry);
+        when(request.getHttpServletMapping()).thenReturn(mapping);
+        when(mapping.getPattern()).thenReturn("/exchangeRate/*");
+        when(request.getMethod()).thenReturn("GET");
+    }
+
+    @Test
+    void shouldRecordRequestsUnderServletMapping() throws Exception {
+        when(response.getStatus()).thenReturn(200);
+
+        filter.doFilter(request, response, chain);
+        filter.doFilter(request, response, chain);
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains(
+                "http_server_requests_seconds_count{endpoint=\"/exchangeRate/*\",method=\"GET\"} 2\n"), scrape);
+        assertTrue(scrape.contains(
+                "http_server_requests_errors_total{endpoint=\"/exchangeRate/*\",method=\"GET\"} 0\n"), scrape);
+        assertTrue(scrape.contains(
+                "http_server_requests_seconds{endpoint=\"/exchangeRate/*\",method=\"GET\",quantile=\"0.999\"}"),
+                scrape);
+    }
+
+    @Test
+    void shouldCountServerErrorsAndExceptions() throws Exception {
+        when(response.getStatus()).thenReturn(500);
+        filter.doFilter(request, response, chain);
+        doThrow(new ServletException("boom")).when(chain)
+                .doFilter(any(ServletRequest.class), any(ServletResponse.class));
+        assertThrows(ServletException.class, () -> filter.doFilter(request, response, chain));
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains(
+                "http_server_requests_seconds_count{endpoint=\"/exchangeRate/*\",method=\"GET\"} 2\n"), scrape);
+        assertTrue(scrape.contains(
+                "http_server_requests_errors_total{endpoint=\"/exchangeRate/*\",method=\"GET\"} 2\n"), scrape);
+    }
+
+    @Test
+    void shouldRecordAsyncRequestsWhenTheyComplete() throws Exception {
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(request.isAsyncStarted()).thenReturn(true);
+        when(request.getAsyncContext()).thenReturn(asyncContext);
+        when(response.getStatus()).thenReturn(503);
+
+        filter.doFilter(request, response, chain);
+        assertFalse(registry.scrape().contains("endpoint=\"/exchangeRate/*\""));
+
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+        listener.getValue().onComplete(new AsyncEvent(asyncContext));
+        listener.getValue().onComplete(new AsyncEvent(asyncContext));
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains(
+                "http_server_requests_seconds_count{endpoint=\"/exchangeRate/*\",method=\"GET\"} 1\n"), scrape);
+        assertTrue(scrape.contains(
+                "http_server_requests_errors_total{endpoint=\"/exchangeRate/*\",method=\"GET\"} 1\n"), scrape);
+    }
+}
@@ -0,0 +1,94 @@
+package org.currency.exchange.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+class ConversionGraphTest {
+    private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+    private static final Currency EUR = new Currency(2, "EUR", "Euro", "€");
+    private static final Currency GBP = new Currency(3, "GBP", "British Pound", "£");
+    private static final Currency JPY = new Currency(4, "JPY", "Japanese Yen", "¥");
+    private static final Currency CHF = new Currency(5, "CHF", "Swiss Franc", "Fr");
+    private static final List<String> CODES = List.of("USD", "EUR", "GBP", "JPY", "CHF");
+
+    private static long fixed(double value) {
+        return FixedPoint.fromDouble(value);
+    }
+
+    private static double rate(ConversionGraph graph, String from, String to) {
+        return FixedPoint.toDouble(graph.rate(from, to));
+    }
+
+    private static List<ExchangeRate> chain(double eurGbp) {
+        return List.of(
+                new ExchangeRate(1, USD, EUR, fixed(0.8)),
+                new ExchangeRate(2, EUR, GBP, fixed(eurGbp)),
+                new ExchangeRate(3, GBP, JPY, fixed(200)),
+                new ExchangeRate(4, CHF, JPY, fixed(150)));
+    }
+
+    @Test
+    void shouldResolveMultiHopPaths() {
+        ConversionGraph graph = new ConversionGraph();
+        graph.rebuild(chain(0.9), "USD");
+
+        assertEquals(4, graph.hops("USD", "CHF"));
+        assertEquals(0.8 * 0.9 * 200 / 150, rate(graph, "USD", "CHF"), 1e-7);
+        assertEquals(150 / 200d / 0.9 / 0.8, rate(graph, "CHF", "USD"), 1e-7);
+        assertEquals(FixedPoint.ONE, graph.rate("EUR", "EUR"));
+        assertEquals(FixedPoint.NONE, graph.rate("USD", "XXX"));
+    }
+
+    @Test
+    void shouldMatchFullRebuildAfterIncrementalUpdate() {
+        ConversionGraph incremental = new ConversionGraph();
+        incremental.rebuild(chain(0.9), "USD");
+        ConversionGraph full = new ConversionGraph();
+        full.rebuild(chain(0.85), "USD");
+
+        assertTrue(incremental.updateRate("EUR", "GBP", fixed(0.85)));
+
+        for (String from : CODES) {
+            for (String to : CODES) {
+                assertEquals(full.rate(from, to), incremental.rate(from, to), from + to);
+            }
+        }
+    }
+
+    @Test
+    void shouldRebuildOnlyRowsUsingTheChangedRate() {
+        ConversionGraph graph = new ConversionGraph();
+        graph.rebuild(List.of(
+                new ExchangeRate(1, USD, EUR, fixed(0.8)),
+                new ExchangeRate(2, USD, GBP, fixed(0.7)),
+                new ExchangeRate(3, USD, JPY, fixed(150)),
+                new ExchangeRate(4, EUR, GBP, fixed(0.9))), "USD");
+
+        assertTrue(graph.updateRate("EUR", "GBP", fixed(0.88)));
+
+        GraphStats stats = graph.getStats();
+        assertEquals(4, stats.getCurrencies());
+        assertEquals(4, stats.getStoredRates());
+        assertEquals(1, stats.getIncrementalUpdates());
+        // only the EUR and GBP rows convert through EUR-GBP, USD and JPY rows go through USD
+        assertEquals(2, stats.getLastRowsRebuilt());
+        assertEquals(fixed(0.88), graph.rate("EUR", "GBP"));
+        assertEquals(1 / 0.88, rate(graph, "GBP", "EUR"), 1e-8);
+    }
+
+    @Test
+    void shouldRequireFullRebuildForUnknownPair() {
+        ConversionGraph graph = new ConversionGraph();
+        graph.rebuild(chain(0.9), "USD");
+
+        assertFalse(graph.updateRate("USD", "JPY", fixed(150)));
+    }
+}
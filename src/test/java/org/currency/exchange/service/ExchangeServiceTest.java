@@ -0,0 +1,51 @@
+package org.currency.exchange.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.currency.exchange.dao.ExchangeRateDAO;
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.Test;
+
+class ExchangeServiceTest {
+    private static final Currency USD = new Currency(1, "USD", "US Dollar", "$");
+    private static final Currency EUR = new Currency(2, "EUR", "Euro", "€");
+
+    @Test
+    void shouldNotBlockRateChangesOnReloadAndDropTheRacedLoad() throws Exception {
+        ExchangeRateDAO exchangeRateDAO = mock(ExchangeRateDAO.class);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(exchangeRateDAO.getAllExchangeRates()).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return List.of(new ExchangeRate(1, USD, EUR, FixedPoint.fromDouble(0.92)));
+        }).thenReturn(List.of(new ExchangeRate(1, USD, EUR, FixedPoint.fromDouble(0.95))));
+        ExchangeService service = new ExchangeService(exchangeRateDAO, "USD");
+
+        CompletableFuture<Long> racedRead = CompletableFuture.supplyAsync(() -> service.findRate("USD", "EUR"));
+        assertTrue(loading.await(1, TimeUnit.SECONDS));
+        // the writer thread's notification must not wait for the reader's database load
+        assertTimeoutPreemptively(Duration.ofSeconds(1),
+                () -> service.onRateChanged("USD", "EUR", FixedPoint.fromDouble(0.95)));
+        release.countDown();
+
+        assertEquals(FixedPoint.fromDouble(0.92), racedRead.join());
+        assertEquals(FixedPoint.fromDouble(0.95), service.findRate("USD", "EUR"));
+        assertEquals(FixedPoint.fromDouble(0.95), service.findRate("USD", "EUR"));
+        verify(exchangeRateDAO, times(2)).getAllExchangeRates();
+    }
+}
@@ -0,0 +1,138 @@
+package org.currency.exchange.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import org.currency.exchange.util.FixedPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+
+class RateStreamHubTest {
+    private RateStreamHub hub;
+
+    @AfterEach
+    void tearDown() {
+        hub.close();
+    }
+
+    @Test
+    void shouldPushChangesToSubscribersOfThePair() throws Exception {
+        hub = new RateStreamHub(10, 16, 1, 0);
+        FakeOutput all = new FakeOutput(true);
+        FakeOutput usdEur = new FakeOutput(true);
+        assertTrue(hub.reserve());
+        hub.subscribe(asyncContext(all), null);
+        assertTrue(hub.reserve());
+        hub.subscribe(asyncContext(usdEur), Set.of("USDEUR"));
+
+        hub.onRateChanged("USD", "EUR", FixedPoint.parse("0.93"));
+        hub.onRateChanged("EUR", "RUR", FixedPoint.parse("90.1"));
+
+        awaitTrue(() -> all.text().contains("id: 2\n"));
+        awaitTrue(() -> usdEur.text().contains("0.93"));
+        assertTrue(all.text().startsWith("retry: 3000\n\n"), all.text());
+        assertTrue(all.text().contains("id: 1\nevent: rate\ndata: {\"baseCurrencyCode\":\"USD\","
+                + "\"targetCurrencyCode\":\"EUR\",\"rate\":0.93}\n\n"), all.text());
+        assertTrue(all.text().contains("id: 2\n"), all.text());
+        assertFalse(usdEur.text().contains("RUR"), usdEur.text());
+
+        StreamStats stats = hub.getStats();
+        assertEquals(2, stats.getSubscribers());
+        assertEquals(2, stats.getPublished());
+        assertEquals(3, stats.getDelivered());
+    }
+
+    @Test
+    void shouldDropSubscriberThatFallsBehind() throws Exception {
+        hub = new RateStreamHub(1, 2, 1, 0);
+        FakeOutput stalled = new FakeOutput(false);
+        AsyncContext async = asyncContext(stalled);
+        assertTrue(hub.reserve());
+        hub.subscribe(async, null);
+        assertFalse(hub.reserve());
+
+        // the greeting takes one of the two buffer slots
+        hub.onRateChanged("USD", "EUR", FixedPoint.parse("0.93"));
+        hub.onRateChanged("USD", "EUR", FixedPoint.parse("0.94"));
+
+        verify(async, timeout(1000)).complete();
+        awaitTrue(() -> hub.getStats().getSubscribers() == 0);
+        assertEquals(1, hub.getStats().getDroppedSubscribers());
+        assertEquals("", stalled.text());
+        assertTrue(hub.reserve());
+    }
+
+    private static AsyncContext asyncContext(FakeOutput out) throws IOException {
+        AsyncContext async = mock(AsyncContext.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(async.getResponse()).thenReturn(response);
+        when(response.getOutputStream()).thenReturn(out);
+        return async;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met in time");
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Non-blocking output stream that either always accepts bytes or never does
+     */
+    private static final class FakeOutput extends ServletOutputStream {
+        private final boolean ready;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private FakeOutput(boolean ready) {
+            this.ready = ready;
+        }
+
+        synchronized String text() {
+            return bytes.toString(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (ready) {
+                try {
+                    writeListener.onWritePossible();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            bytes.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.currency.exchange.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+
+class SubscriberTest {
+    private final RateStreamHub hub = new RateStreamHub(1, 4, 1, 0);
+
+    @AfterEach
+    void tearDown() {
+        hub.close();
+    }
+
+    @Test
+    void shouldDrainWhenWritePossibleArrivesDuringNotReadyDrain() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Subscriber[] subscriber = new Subscriber[1];
+        ServletOutputStream out = new ServletOutputStream() {
+            private boolean ready;
+
+            @Override
+            public boolean isReady() {
+                if (!ready) {
+                    // the connection drains and the container calls back before this drain has finished
+                    ready = true;
+                    subscriber[0].onWritePossible();
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                bytes.write(b);
+            }
+        };
+        // drains run inline, so the interleaving above is deterministic
+        subscriber[0] = new Subscriber(hub, mock(AsyncContext.class), out, null, 4, Runnable::run);
+
+        assertTrue(subscriber[0].offer("event\n".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals("event\n", bytes.toString(StandardCharsets.UTF_8));
+        assertEquals(0, subscriber[0].pending());
+    }
+}
@@ -0,0 +1,83 @@
+package org.currency.exchange.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.function.LongSupplier;
+
+import org.currency.exchange.model.Currency;
+import org.currency.exchange.model.ExchangeRate;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class FixedPointTest {
+
+    @Test
+    void shouldParseAndFormatExactly() {
+        assertEquals(92_000_000L, FixedPoint.parse("0.92"));
+        assertEquals(-1_250_000_000L, FixedPoint.parse("-12.5"));
+        assertEquals(1L, FixedPoint.parse("0.000000005"));
+        assertEquals(0L, FixedPoint.parse("0.000000004999"));
+        assertEquals("0.92", FixedPoint.toString(FixedPoint.parse("0.920")));
+        assertEquals("8.0", FixedPoint.toString(FixedPoint.of(8)));
+        assertEquals("-0.00000001", FixedPoint.toString(-1));
+        assertEquals("89.14", FixedPoint.toString(FixedPoint.fromDouble(89.14)));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("1e5"));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("."));
+        assertThrows(NumberFormatException.class, () -> FixedPoint.parse("99999999999999999999"));
+    }
+
+    @Test
+    void shouldMultiplyAndDivideLikeBigDecimal() {
+        long[] values = { 1, 7, 92_000_000L, 8_166_000_000L, 15_000_000_000L, 123_456_789_012_345L,
+                -3_333_333_333L, 99_999_999_999_999_999L };
+        for (long a : values) {
+            for (long b : values) {
+                assertMatches(decimal(a).multiply(decimal(b)), () -> FixedPoint.multiply(a, b), a + "*" + b);
+                assertMatches(decimal(a).divide(decimal(b), FixedPoint.SCALE, RoundingMode.HALF_UP),
+                        () -> FixedPoint.divide(a, b), a + "/" + b);
+            }
+        }
+    }
+
+    @Test
+    void shouldRoundToFewerDigits() {
+        assertEquals(FixedPoint.parse("2.35"), FixedPoint.round(FixedPoint.parse("2.345"), 2));
+        assertEquals(FixedPoint.parse("-2.35"), FixedPoint.round(FixedPoint.parse("-2.345"), 2));
+        assertEquals(FixedPoint.parse("2.34"), FixedPoint.round(FixedPoint.parse("2.3449"), 2));
+    }
+
+    @Test
+    void shouldReportOverflow() {
+        assertThrows(ArithmeticException.class, () -> FixedPoint.multiply(Long.MAX_VALUE / 2, FixedPoint.of(3)));
+        assertThrows(ArithmeticException.class, () -> FixedPoint.divide(FixedPoint.ONE, 0));
+    }
+
+    @Test
+    void shouldSerializeExactDecimals() throws Exception {
+        ObjectMapper mapper = ObjectMapperUtil.getInstance();
+        ExchangeRate rate = new ExchangeRate(1, new Currency(1, "USD", "US Dollar", "$"),
+                new Currency(2, "EUR", "Euro", "€"), FixedPoint.parse("0.1"));
+
+        String json = mapper.writeValueAsString(rate);
+        assertEquals(0, mapper.readTree(json).get("rate").decimalValue().compareTo(new BigDecimal("0.1")));
+        assertEquals("0.1", mapper.readTree(json).get("rate").asText());
+    }
+
+    private static BigDecimal decimal(long scaled) {
+        return BigDecimal.valueOf(scaled, FixedPoint.SCALE);
+    }
+
+    private static void assertMatches(BigDecimal expected, LongSupplier actual, String message) {
+        BigInteger unscaled = expected.setScale(FixedPoint.SCALE, RoundingMode.HALF_UP).unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            assertEquals(unscaled.longValue(), actual.getAsLong(), message);
+        } else {
+            assertThrows(ArithmeticException.class, actual::getAsLong, message);
+        }
+    }
+}
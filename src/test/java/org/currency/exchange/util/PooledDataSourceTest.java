@@ -0,0 +1,124 @@
+package org.currency.exchange.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PooledDataSourceTest {
+    private PooledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws ClassNotFoundException {
+        Class.forName("org.sqlite.JDBC");
+        dataSource = new PooledDataSource("jdbc:sqlite::memory:", null, 2, 50, 30_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void shouldReusePhysicalConnectionAfterClose() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.createStatement().close();
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            conn.createStatement().close();
+        }
+
+        PoolStats stats = dataSource.getStats();
+        assertEquals(1, stats.getCreatedCount());
+        assertEquals(2, stats.getAcquiredCount());
+        assertEquals(1, stats.getIdleConnections());
+        assertEquals(0, stats.getActiveConnections());
+    }
+
+    @Test
+    void shouldTimeOutWhenPoolIsExhausted() throws SQLException {
+        try (Connection first = dataSource.getConnection();
+             Connection second = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+            assertEquals(1, dataSource.getStats().getTimeoutCount());
+            assertEquals(2, dataSource.getStats().getActiveConnections());
+        }
+    }
+
+    @Test
+    void shouldRejectUseAfterConnectionIsReturned() throws SQLException {
+        Connection conn = dataSource.getConnection();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+    }
+
+    @Test
+    void shouldRestoreAutoCommitWhenConnectionIsReturned() throws SQLException {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        try (Connection conn = dataSource.getConnection()) {
+            assertTrue(conn.getAutoCommit());
+        }
+    }
+
+    @Test
+    void shouldReuseCachedStatementAcrossBorrows() throws SQLException {
+        try (PooledDataSource cached = new PooledDataSource("jdbc:sqlite::memory:", null, 1, 50, 30_000, 2)) {
+            PreparedStatement physical;
+            ResultSet left;
+            try (Connection conn = cached.getConnection()) {
+                PreparedStatement ps = conn.prepareStatement("select ?");
+                physical = ps.unwrap(PreparedStatement.class);
+                ps.setInt(1, 7);
+                left = ps.executeQuery();
+                ps.close();
+            }
+            assertTrue(left.isClosed());
+            try (Connection conn = cached.getConnection();
+                 PreparedStatement ps = conn.prepareStatement("select ?")) {
+                assertTrue(physical == ps.unwrap(PreparedStatement.class));
+                ps.setInt(1, 8);
+                try (ResultSet rs = ps.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(8, rs.getInt(1));
+                }
+            }
+
+            PoolStats stats = cached.getStats();
+            assertEquals(1, stats.getStatementCacheHits());
+            assertEquals(1, stats.getStatementCacheMisses());
+            assertEquals(0.5, stats.getStatementCacheHitRatio());
+        }
+    }
+
+    @Test
+    void shouldCloseStatementsEvictedFromCache() throws SQLException {
+        try (PooledDataSource cached = new PooledDataSource("jdbc:sqlite::memory:", null, 1, 50, 30_000, 2);
+             Connection conn = cached.getConnection()) {
+            PreparedStatement physical;
+            try (PreparedStatement ps = conn.prepareStatement("select 1")) {
+                physical = ps.unwrap(PreparedStatement.class);
+            }
+            conn.prepareStatement("select 2").close();
+            assertFalse(physical.isClosed());
+
+            conn.prepareStatement("select 3").close();
+
+            assertTrue(physical.isClosed());
+            assertEquals(1, cached.getStats().getStatementCacheEvictions());
+        }
+    }
+}
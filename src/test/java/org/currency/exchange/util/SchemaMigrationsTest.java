@@ -0,0 +1,116 @@
+package org.currency.exchange.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SchemaMigrationsTest {
+    @TempDir
+    Path dir;
+    private Connection conn;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("exchange.db"));
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void shouldCreateSchemaAndSeedOnlyOnce() throws SQLException {
+        assertEquals(4, SchemaMigrations.migrate(conn));
+        assertTrue(SchemaMigrations.seedIfEmpty(conn));
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("update exchangeRates set rate = 0.5 where id = 1");
+        }
+
+        assertEquals(0, SchemaMigrations.migrate(conn));
+        assertFalse(SchemaMigrations.seedIfEmpty(conn));
+
+        assertEquals(4, count("select count(*) from currencies"));
+        assertEquals(3, count("select count(*) from exchangeRateHistory"));
+        assertEquals(1, count("select count(*) from exchangeRates where id = 1 and rate = 0.5"));
+        assertEquals(4, count("pragma user_version"));
+    }
+
+    @Test
+    void shouldAdoptDatabaseCreatedBeforeMigrationsWithoutLosingData() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE currencies (id INTEGER PRIMARY KEY AUTOINCREMENT, code TEXT NOT NULL UNIQUE, "
+                    + "fullName name TEXT NOT NULL, sign TEXT NOT NULL)");
+            stmt.execute("CREATE TABLE exchangeRates (id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                    + "base_currency_id INTEGER NOT NULL, target_currency_id INTEGER NOT NULL, "
+                    + "rate DECIMAL(6) NOT NULL, UNIQUE (base_currency_id, target_currency_id))");
+            stmt.execute("INSERT INTO currencies (code, fullName, sign) VALUES ('JPY', 'Yen', '¥'), ('CHF', 'Franc', 'F')");
+            stmt.execute("INSERT INTO exchangeRates (base_currency_id, target_currency_id, rate) VALUES (1, 2, 0.0061)");
+        }
+
+        assertEquals(4, SchemaMigrations.migrate(conn));
+        assertFalse(SchemaMigrations.seedIfEmpty(conn));
+
+        assertEquals(2, count("select count(*) from currencies"));
+        assertEquals(FixedPoint.parse("0.0061"), count("select rate from exchangeRateHistory where pair_id = 1"));
+    }
+
+    @Test
+    void shouldRescaleHistoryWrittenAtAnotherScale() throws SQLException {
+        SchemaMigrations.migrate(conn);
+        SchemaMigrations.seedIfEmpty(conn);
+        assertEquals(FixedPoint.SCALE, count("select value from schemaSettings where name = 'historyScale'"));
+        // as if written with money.scale two digits lower: 0.92 -> 92, 81.66 -> 8166
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("update exchangeRateHistory set rate = rate / 100");
+            stmt.execute("update schemaSettings set value = " + (FixedPoint.SCALE - 2));
+        }
+
+        assertEquals(0, SchemaMigrations.migrate(conn));
+
+        assertEquals(FixedPoint.parse("0.92"), count("select rate from exchangeRateHistory where pair_id = 1"));
+        assertEquals(FixedPoint.parse("81.66"), count("select rate from exchangeRateHistory where pair_id = 2"));
+        assertEquals(FixedPoint.SCALE, count("select value from schemaSettings where name = 'historyScale'"));
+
+        // and back down, rounding half away from zero
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("update exchangeRateHistory set rate = rate * 1000 + 500 where pair_id = 1");
+            stmt.execute("update schemaSettings set value = " + (FixedPoint.SCALE + 3));
+        }
+        SchemaMigrations.migrate(conn);
+        assertEquals(FixedPoint.parse("0.92") + 1, count("select rate from exchangeRateHistory where pair_id = 1"));
+    }
+
+    @Test
+    void shouldAnswerPairLookupFromCoveringIndex() throws SQLException {
+        SchemaMigrations.migrate(conn);
+
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("EXPLAIN QUERY PLAN SELECT id, rate FROM exchangeRates "
+                     + "INDEXED BY exchangeRates_pair_rate WHERE base_currency_id = 1 AND target_currency_id = 2")) {
+            assertTrue(rs.next());
+            assertTrue(rs.getString("detail").contains("USING COVERING INDEX exchangeRates_pair_rate"),
+                    rs.getString("detail"));
+        }
+    }
+
+    private long count(String query) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}